@@ -1,9 +1,13 @@
 package actions;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -11,15 +15,26 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import actions.views.LoginPrincipal;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.PropertyConst;
+import services.ServiceBase;
 
 public abstract class ActionBase {
+    // 書き込み後にプライマリから読み込む時間のデフォルト値（ミリ秒）
+    private static final long DEFAULT_READ_PRIMARY_MILLIS = 5000;
+
+    // 起動時刻（ETagに含め、再起動後はjspの変更を反映させるためキャッシュを使用させない）
+    private static final long STARTED_AT = System.currentTimeMillis();
+
     protected ServletContext context;       // Webアプリケーションのコンテキスト情報
     protected HttpServletRequest request;   // リクエスト情報のオブジェクト
     protected HttpServletResponse response; // レスポンス情報のオブジェクト
 
+    private MethodHandle command;           // パラメータcommandに該当するメソッド（RouteTableで設定する）
+    private String dispatchPath;            // 非同期モードでディスパッチするjspのパス（フォワードしていない場合null）
+
     /*
      * 初期化処理
      */
@@ -32,6 +47,21 @@ public abstract class ActionBase {
         this.response = servletResponse;
     }
 
+    /*
+     * パラメータcommandに該当するメソッドを設定する
+     */
+    public void setCommand(MethodHandle command) {
+        this.command = command;
+    }
+
+    /*
+     * 非同期モードでディスパッチするjspのパスを返却する（フォワードしていない場合null）
+     * ディスパッチはprocessの終了後に呼び出し元が行い、非同期処理はjspの表示後にコンテナが完了する
+     */
+    public String getDispatchPath() {
+        return dispatchPath;
+    }
+
     /*
      * フロントコントローラーから呼び出されるメソッド
      * 各サブクラスで内容を実装
@@ -40,23 +70,76 @@ public abstract class ActionBase {
 
     /*
      * パラメータcommandの値に該当するメソッドを実行
-     * commandの値が不正の場合はエラー画面を呼び出す
+     * commandの値が不正の場合、またはメソッドで例外が発生した場合はエラー画面を呼び出す
      */
     protected void invoke() throws ServletException, IOException {
-        Method commandMethod;
+        if (command == null) {
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return;
+        }
         try {
-            // パラメータからcommandを取得
-            String command = request.getParameter(ForwardConst.CMD.getValue());
+            // commandに該当するメソッドを実行（引数なし）
+            command.invokeExact(this);
 
-            // commandに該当するメソッドを実行
-            commandMethod = this.getClass().getDeclaredMethod(command, new Class[0]);
-            commandMethod.invoke(this, new Object[0]);  // 引数なし
-
-        } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NullPointerException e) {
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             e.printStackTrace();
-            forward(ForwardConst.FW_ERR_UNKNOWN);
+            invokeFailed();
+        }
+    }
+
+    /*
+     * commandに該当するメソッドで例外が発生した場合の処理（エラー画面を表示）
+     */
+    protected void invokeFailed() throws ServletException, IOException {
+        forward(ForwardConst.FW_ERR_UNKNOWN);
+    }
+
+    /*
+     * サービスの読み込み先（プライマリ/レプリカ）を設定する
+     * POSTのリクエスト、または書き込み直後のリクエストではプライマリから読み込む
+     */
+    protected void routeReads(ServiceBase service) {
+        boolean primary = "POST".equals(request.getMethod());
+        if (!primary) {
+            Long until = getSessionScope(AttributeConst.READ_PRIMARY_UNTIL);
+            primary = until != null && until > System.currentTimeMillis();
+        }
+        service.setReadFromPrimary(primary);
+    }
+
+    /*
+     * サービスで書き込みが行われた場合、一定時間はプライマリから読み込むようセッションに記録する
+     * 書き込み後のリダイレクト先で、レプリカへの反映遅れにより古いデータが表示されることを防ぐ
+     */
+    protected void recordWrites(ServiceBase service) {
+        if (service.hasWritten()) {
+            putSessionScope(AttributeConst.READ_PRIMARY_UNTIL, System.currentTimeMillis() + getReadPrimaryMillis());
+        }
+    }
+
+    /*
+     * 書き込み後にプライマリから読み込む時間（ミリ秒）を返却する
+     * （レプリカへの反映にかかる時間の目安。未設定・不正な場合はデフォルト値）
+     */
+    protected long getReadPrimaryMillis() {
+        return getLongProperty(PropertyConst.DB_REPLICA_STICKY_MILLIS, DEFAULT_READ_PRIMARY_MILLIS);
+    }
+
+    /*
+     * アプリケーションスコープから数値の設定値を取得する（未設定・不正な場合はデフォルト値）
+     */
+    protected long getLongProperty(PropertyConst key, long defaultValue) {
+        String value = getContextScope(key);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
         }
+        return defaultValue;
     }
 
     /*
@@ -67,6 +150,14 @@ public abstract class ActionBase {
     protected void forward(ForwardConst target) throws ServletException, IOException {
         // jspファイルの相対パスを作成
         String forward = String.format("/WEB-INF/views/%s.jsp", target.getValue());
+
+        if (request.isAsyncStarted()) {
+            // 非同期モードではパスを記録するのみとし、processの終了後にコンテナのスレッドでjspを呼び出す
+            // （ここでディスパッチすると、残りの処理とjspの表示が同時に実行される）
+            dispatchPath = forward;
+            return;
+        }
+
         RequestDispatcher dispatcher = request.getRequestDispatcher(forward);
 
         // jspファイルの呼び出し
@@ -87,6 +178,65 @@ public abstract class ActionBase {
         response.sendRedirect(redirectUrl);
     }
 
+    /*
+     * 条件付きGETの判定を行う
+     * 更新日時と閲覧している従業員からETag・Last-Modifiedを設定し、
+     * リクエストのIf-None-Matchと一致する場合は304を設定する（If-Modified-Sinceのみの場合は画面を表示する）
+     * 画面のヘッダーに従業員の氏名・権限を表示するため、ETagには閲覧している従業員の情報を含める
+     *
+     * @param resource 画面と対象データを示す文字列（例: "Report:1"）
+     * @param lastModified 対象データの更新日時
+     * @return true: 304を設定した（画面の表示は不要） false: 画面を表示する
+     */
+    protected boolean isNotModified(String resource, LocalDateTime lastModified) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return false;
+        }
+
+        long millis = lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // HTTPの日付は秒単位のため、ミリ秒以下は切り捨てる
+        long modified = millis / 1000 * 1000;
+        LoginPrincipal viewer = getSessionScope(AttributeConst.LOGIN_EMP);
+        int viewerHash = viewer == null
+                ? 0
+                : Objects.hash(viewer.getId(), viewer.getAdminFlag(), viewer.getName());
+        String etag = String.format("W/\"%x-%x-%x\"", millis, Objects.hash(resource, STARTED_AT), viewerHash);
+
+        // 従業員ごとに異なる画面のため、共有キャッシュには保存させず、表示の都度確認させる
+        response.setHeader("Cache-Control", "private, no-cache");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", modified);
+
+        // If-Modified-Sinceは更新日時のみの比較となり、閲覧している従業員が変わっても304となるため判定に使用しない
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified = ifNoneMatch != null && matchesETag(ifNoneMatch, etag);
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /*
+     * If-None-Matchの値（カンマ区切りのETagまたは*）にETagが含まれるかを返却する（弱い比較）
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /*
      * CSRF対策 token不正の場合はエラー画面を表示
      * リクエストからパラメータtokenの値を取得し、セッションIDと比較
@@ -157,6 +307,22 @@ public abstract class ActionBase {
         return LocalDate.parse(strDate);
     }
 
+    /*
+     * 文字列（yyyy-MM）をYearMonth型に変換
+     *
+     * @return 変換後YearMonth型インスタンス（指定がない・不正な場合は今月）
+     */
+    protected YearMonth toYearMonth(String strMonth) {
+        if (strMonth == null || strMonth.equals("")) {
+            return YearMonth.now();
+        }
+        try {
+            return YearMonth.parse(strMonth);
+        } catch (DateTimeParseException e) {
+            return YearMonth.now();
+        }
+    }
+
     /*
      * リクエストスコープから指定されたパラメータを取得、返却する
      *
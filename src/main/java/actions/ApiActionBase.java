@@ -0,0 +1,173 @@
+package actions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import actions.views.LoginPrincipal;
+import constants.AttributeConst;
+import constants.MessageConst;
+import utils.ApiJsonWriter;
+
+/*
+ * JSONで応答するAPIのActionクラスの基底クラス
+ * 認証はLoginFilterのセッションによるログインをそのまま使用する（未ログインの場合はLoginFilterが401を返却する）
+ * 登録・更新はPOSTのみとし、画面と同じtoken（パラメータ_tokenまたはX-CSRF-Tokenヘッダー）を必要とする
+ */
+public abstract class ApiActionBase extends ActionBase {
+
+    // tokenを受け付けるリクエストヘッダー
+    private static final String TOKEN_HEADER = "X-CSRF-Token";
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    // JSONで送信されたリクエストの本文（項目名→値 JSONでない場合null）
+    private Map<String, String> body;
+
+    /*
+     * commandに該当するメソッドで例外が発生した場合は500を返却する
+     */
+    @Override
+    protected void invokeFailed() throws ServletException, IOException {
+        if (!response.isCommitted()) {
+            response.resetBuffer();
+            sendErrors(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, MessageConst.E_API_FAILED.getMessage());
+        }
+    }
+
+    /*
+     * 状態コードを設定し、レスポンスにJSONを書き出すインスタンスを返却する
+     * 登録・更新を行う場合に使用するtokenをX-CSRF-Tokenヘッダーで返却する
+     */
+    protected ApiJsonWriter open(int status) throws IOException {
+        response.setStatus(status);
+        response.setContentType(ApiJsonWriter.CONTENT_TYPE);
+        response.setHeader(TOKEN_HEADER, getTokenId());
+        return new ApiJsonWriter(response.getOutputStream());
+    }
+
+    /*
+     * 状態コードとエラーを返却する
+     */
+    protected void sendErrors(int status, String... errors) throws IOException {
+        sendErrors(status, List.of(errors));
+    }
+
+    protected void sendErrors(int status, List<String> errors) throws IOException {
+        ApiJsonWriter.sendErrors(response, status, errors);
+    }
+
+    /*
+     * パラメータfieldsで指定された項目のみを書き出す定義を返却する
+     * 定義にない項目が指定された場合は400を返却する
+     *
+     * @return 項目の定義（400を返却した場合null）
+     */
+    protected <T> ApiJsonWriter.Fields<T> selectFields(ApiJsonWriter.Fields<T> fields) throws IOException {
+        try {
+            return fields.select(getRequestParam(AttributeConst.API_FIELDS));
+        } catch (IllegalArgumentException e) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, MessageConst.E_API_FIELDS.getMessage() + e.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * 登録・更新のリクエストをチェックする
+     * POST以外の場合は405、tokenが不正な場合は403、本文のJSONが不正な場合は400を返却する
+     *
+     * @return true: 処理を続ける false: エラーを返却した
+     */
+    protected boolean checkWrite() throws IOException {
+        if (!"POST".equals(request.getMethod())) {
+            response.setHeader("Allow", "POST");
+            sendErrors(HttpServletResponse.SC_METHOD_NOT_ALLOWED, MessageConst.E_API_METHOD.getMessage());
+            return false;
+        }
+
+        try {
+            body = readBody();
+        } catch (JsonProcessingException e) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, MessageConst.E_API_BODY.getMessage());
+            return false;
+        }
+
+        String token = request.getHeader(TOKEN_HEADER);
+        if (token == null) {
+            token = getBodyParam(AttributeConst.TOKEN);
+        }
+        if (token == null || !token.equals(getTokenId())) {
+            sendErrors(HttpServletResponse.SC_FORBIDDEN, MessageConst.E_API_TOKEN.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * 登録・更新の値を取得する（JSONで送信された場合は本文の項目、それ以外はリクエストパラメータ）
+     * checkWriteの後に呼び出す
+     *
+     * @return 値（指定がない場合null）
+     */
+    protected String getBodyParam(AttributeConst key) {
+        if (body != null) {
+            return body.get(key.getValue());
+        }
+        return getRequestParam(key);
+    }
+
+    /*
+     * セッションからログイン中の従業員を取得する
+     */
+    protected LoginPrincipal getLoginEmployee() {
+        return getSessionScope(AttributeConst.LOGIN_EMP);
+    }
+
+    /*
+     * ログイン中の従業員が管理者かを返却する
+     */
+    protected boolean isAdmin() {
+        return getLoginEmployee().isAdmin();
+    }
+
+    /*
+     * Content-TypeがJSONの場合、本文のオブジェクトの項目を読み込む
+     * 値が文字列・数値・真偽値の項目のみを文字列で保持し、配列・オブジェクトの項目は読み飛ばす
+     *
+     * @return 項目名→値（JSONでない場合null）
+     */
+    private Map<String, String> readBody() throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase().startsWith("application/json")) {
+            return null;
+        }
+
+        Map<String, String> values = new HashMap<>();
+        try (InputStream in = request.getInputStream(); JsonParser parser = FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "object expected");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue()) {
+                    values.put(name, value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import javax.servlet.ServletException;
 
 import actions.views.EmployeeView;
+import actions.views.LoginPrincipal;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.MessageConst;
@@ -20,7 +21,9 @@ public class AuthAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
         service = new EmployeeService();
+        routeReads(service);
         invoke();
+        recordWrites(service);
         service.close();
     }
 
@@ -60,8 +63,8 @@ public class AuthAction extends ActionBase {
             if (checkToken()) {
                 // ログインした従業員のデータを取得
                 EmployeeView ev = service.findOne(code, plainPass, pepper);
-                // セッションにログインした従業員を設定
-                putSessionScope(AttributeConst.LOGIN_EMP, ev);
+                // セッションにログインした従業員のid・社員番号・氏名・権限のみを設定
+                putSessionScope(AttributeConst.LOGIN_EMP, LoginPrincipal.of(ev, System.currentTimeMillis()));
 
                 // ログイン完了のフラッシュメッセージを設定
                 putSessionScope(AttributeConst.FLUSH, MessageConst.I_LOGINED.getMessage());
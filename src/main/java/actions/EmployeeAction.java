@@ -1,14 +1,16 @@
 package actions;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import javax.servlet.ServletException;
 
+import actions.views.CursorPage;
 import actions.views.EmployeeView;
+import actions.views.LoginPrincipal;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import constants.MessageConst;
 import constants.PropertyConst;
 import services.EmployeeService;
@@ -23,8 +25,9 @@ public class EmployeeAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
         service = new EmployeeService();
+        routeReads(service);
         invoke();
-
+        recordWrites(service);
         service.close();
     }
 
@@ -35,18 +38,16 @@ public class EmployeeAction extends ActionBase {
         // 管理者権限チェック
         if (checkAdmin()) {
 
-            // 指定されたページのデータを取得
-            int page = getPage();
-
-            List<EmployeeView> employees = service.getPerPage(page);
+            // 指定されたカーソルの位置のデータを取得
+            CursorPage<EmployeeView> employees = service.getPerCursor(getRequestParam(AttributeConst.CURSOR));
 
             // 全ての従業員データの件数を取得
             long employeeCount = service.countAll();
 
-            putRequestScope(AttributeConst.EMPLOYEES, employees);
+            putRequestScope(AttributeConst.EMPLOYEES, employees.getItems());
             putRequestScope(AttributeConst.EMP_COUNT, employeeCount);
-            putRequestScope(AttributeConst.PAGE, page);
-            putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE);
+            putRequestScope(AttributeConst.NEXT_CURSOR, employees.getNextCursor());
+            putRequestScope(AttributeConst.PREV_CURSOR, employees.getPrevCursor());
 
             //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
             String flush = getSessionScope(AttributeConst.FLUSH);
@@ -123,8 +124,16 @@ public class EmployeeAction extends ActionBase {
     public void show() throws ServletException, IOException {
         // 管理者権限チェック
         if (checkAdmin()) {
+            int id = toNumber(getRequestParam(AttributeConst.EMP_ID));
+
+            // 更新日時のみを取得し、ブラウザのキャッシュが最新であれば従業員データを読み込まずに304を返却する
+            LocalDateTime lastModified = service.getLastModified(id);
+            if (lastModified != null && isNotModified(ForwardConst.ACT_EMP.getValue() + ":" + id, lastModified)) {
+                return;
+            }
+
             // idを条件に従業員データを取得する
-            EmployeeView ev = service.findOne(toNumber(getRequestParam(AttributeConst.EMP_ID)));
+            EmployeeView ev = service.findOne(id);
 
             if (ev == null || ev.getDeleteFlag() == AttributeConst.DEL_FLAG_TRUE.getIntegerValue()) {
                 // データが取得できなかった、または論理削除されている場合エラー画面へ
@@ -236,10 +245,10 @@ public class EmployeeAction extends ActionBase {
     private boolean checkAdmin() throws ServletException, IOException {
 
         // セッションからログイン中の従業員情報を取得
-        EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
+        LoginPrincipal ev = (LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP);
 
         // 管理者でなければエラー画面を表示
-        if (ev.getAdminFlag() != AttributeConst.ROLE_ADMIN.getIntegerValue()) {
+        if (!ev.isAdmin()) {
             forward(ForwardConst.FW_ERR_UNKNOWN);
             return false;
         }
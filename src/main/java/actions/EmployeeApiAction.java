@@ -0,0 +1,54 @@
+package actions;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import actions.views.CursorPage;
+import actions.views.EmployeeView;
+import constants.AttributeConst;
+import constants.MessageConst;
+import services.EmployeeService;
+import utils.ApiJsonWriter;
+
+/*
+ * 従業員の一覧をJSONで取得するAPIのActionクラス（管理者のみ）
+ * パラメータfieldsにカンマ区切りで項目名を指定した場合、その項目のみを返却する
+ */
+public class EmployeeApiAction extends ApiActionBase {
+
+    private EmployeeService service;
+
+    @Override
+    public void process() throws ServletException, IOException {
+        service = new EmployeeService();
+        routeReads(service);
+        invoke();
+        recordWrites(service);
+        service.close();
+    }
+
+    /*
+     * 指定されたカーソルの位置の従業員を返却する
+     */
+    public void index() throws ServletException, IOException {
+        // 管理者以外は403
+        if (!isAdmin()) {
+            sendErrors(HttpServletResponse.SC_FORBIDDEN, MessageConst.E_API_FORBIDDEN.getMessage());
+            return;
+        }
+
+        ApiJsonWriter.Fields<EmployeeView> fields = selectFields(ApiJsonWriter.EMPLOYEE);
+        if (fields == null) {
+            return;
+        }
+
+        CursorPage<EmployeeView> employees = service.getPerCursor(getRequestParam(AttributeConst.CURSOR));
+        long employeeCount = service.countAll();
+
+        try (ApiJsonWriter writer = open(HttpServletResponse.SC_OK)) {
+            writer.writePage(employees, employeeCount, fields);
+        }
+    }
+}
@@ -1,27 +1,54 @@
 package actions;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.Part;
 
+import actions.views.CursorPage;
 import actions.views.EmployeeView;
+import actions.views.LoginPrincipal;
+import actions.views.ReportImportResult;
+import actions.views.ReportImportRow;
+import actions.views.ReportSummaryView;
 import actions.views.ReportView;
 import constants.AttributeConst;
 import constants.ForwardConst;
 import constants.JpaConst;
 import constants.MessageConst;
+import constants.PropertyConst;
+import services.EmployeeService;
 import services.ReportService;
+import utils.FragmentCache;
+import utils.ReportExportWriter;
+import utils.ReportImportReader;
 
 public class ReportAction extends ActionBase {
 
+    // 描画済みの一覧画面の表・ページングのHTML（合計2MBまで保持する）
+    private static final FragmentCache LIST_CACHE = new FragmentCache(2 * 1024 * 1024);
+
+    // 描画済みの一覧の保持期間と、一覧画面の世代をDBから取得し直す間隔のデフォルト値（ミリ秒）
+    private static final long DEFAULT_LIST_CACHE_MAX_AGE = 60000;
+    private static final long DEFAULT_LIST_CACHE_REFRESH = 1000;
+
     private ReportService service;
 
     @Override
     public void process() throws ServletException, IOException {
         service = new ReportService();
+        routeReads(service);
         invoke();
+        recordWrites(service);
         service.close();
     }
 
@@ -29,18 +56,38 @@ public class ReportAction extends ActionBase {
      * 一覧画面を表示する
      */
     public void index() throws ServletException, IOException {
+        String cursor = getRequestParam(AttributeConst.CURSOR);
 
-        // 指定されたページ番号に表示する日報データを取得
-        int page = getPage();
-        List<ReportView> reports = service.getAllPerPage(page);
+        // 描画済みの一覧（表・ページング）はカーソルの位置と件数ごとに保持し、DBの更新日時（世代）が変わったものは使用しない
+        // 世代はDBから一定間隔で取得し直すため、他のサーバーでの変更はその間隔の分だけ遅れて反映される
+        // 他のサーバーでの同じ秒の更新・サーバー間の時刻のずれは世代が変わらないため、保持期間を過ぎたものも使用しない
+        // URLにセッションIDを含めて描画する場合（Cookie無効のクライアント）は共有できないため使用しない
+        long generation = service.getListGeneration(
+                getLongProperty(PropertyConst.LIST_CACHE_REFRESH, DEFAULT_LIST_CACHE_REFRESH));
+        long maxAge = getLongProperty(PropertyConst.LIST_CACHE_MAX_AGE, DEFAULT_LIST_CACHE_MAX_AGE);
 
         // 日報データの件数を取得
         long reportsCount = service.countAll();
 
-        putRequestScope(AttributeConst.REPORTS, reports);
-        putRequestScope(AttributeConst.REP_COUNT, reportsCount);
-        putRequestScope(AttributeConst.PAGE, page);
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE);
+        String key = (cursor == null ? "" : cursor) + ":" + reportsCount;
+        boolean cacheable = request.isRequestedSessionIdFromCookie();
+
+        String html = cacheable ? LIST_CACHE.get(key, generation, maxAge) : null;
+        if (html != null) {
+            putRequestScope(AttributeConst.REP_LIST_HTML, html);
+        } else {
+            // 指定されたカーソルの位置に表示する日報データを取得
+            CursorPage<ReportSummaryView> reports = service.getAllPerCursor(cursor);
+
+            putRequestScope(AttributeConst.REPORTS, reports.getItems());
+            putRequestScope(AttributeConst.REP_COUNT, reportsCount);
+            putRequestScope(AttributeConst.NEXT_CURSOR, reports.getNextCursor());
+            putRequestScope(AttributeConst.PREV_CURSOR, reports.getPrevCursor());
+
+            // 世代は一覧より先に同じ読み込み先から取得しているため、描画した内容は世代より古くならない
+            // （レプリカの反映遅れの間に描画したものも、反映後に世代が変わることで使用しなくなる）
+            putRequestScope(AttributeConst.REP_LIST_FRAGMENT, LIST_CACHE.entry(key, generation, cacheable));
+        }
 
         // セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除
         String flush = getSessionScope(AttributeConst.FLUSH);
@@ -53,6 +100,31 @@ public class ReportAction extends ActionBase {
         forward(ForwardConst.FW_REP_INDEX);
     }
 
+    /*
+     * 検索語をタイトルまたは内容に含む日報を一致度の高い順に表示する
+     */
+    public void search() throws ServletException, IOException {
+        String query = getRequestParam(AttributeConst.SEARCH_QUERY);
+        putRequestScope(AttributeConst.SEARCH_QUERY, query);
+        putRequestScope(AttributeConst.SEARCH_READY, service.isSearchReady());
+
+        if (query != null && !query.trim().equals("")) {
+            // 一致した日報のidのうち、指定されたページの分の概要を取得
+            List<Integer> ids = service.search(query);
+            int page = Math.max(getPage(), 1);
+            int from = Math.min(JpaConst.ROW_PER_PAGE * (page - 1), ids.size());
+            int to = Math.min(from + JpaConst.ROW_PER_PAGE, ids.size());
+
+            putRequestScope(AttributeConst.REPORTS, service.getSummaries(ids.subList(from, to)));
+            putRequestScope(AttributeConst.REP_COUNT, ids.size());
+            putRequestScope(AttributeConst.PAGE, page);
+            putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE);
+        }
+
+        // 検索結果画面を表示
+        forward(ForwardConst.FW_REP_SEARCH);
+    }
+
     /*
      * 新規登録画面を表示する
      */
@@ -87,7 +159,7 @@ public class ReportAction extends ActionBase {
             }
 
             // ログイン情報を取得
-            EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
+            EmployeeView ev = ((LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP)).toView();
 
             // パラメータの値をもとに日報のインスタンスを作成
             ReportView rv = new ReportView(
@@ -124,13 +196,209 @@ public class ReportAction extends ActionBase {
         }
     }
 
+    /*
+     * 一括登録画面を表示する
+     */
+    public void entryImport() throws ServletException, IOException {
+        // tokenをリクエストスコープに保管
+        putRequestScope(AttributeConst.TOKEN, getTokenId());
+
+        // 一括登録画面を表示
+        forward(ForwardConst.FW_REP_IMPORT);
+    }
+
+    /*
+     * アップロードされたファイル（CSVまたはJSON Lines）の日報を一括で登録する
+     * 登録できなかった行は行番号とエラーを一括登録画面に表示する
+     */
+    public void importReports() throws ServletException, IOException {
+        // tokenのチェック
+        if (checkToken()) {
+            putRequestScope(AttributeConst.TOKEN, getTokenId());
+
+            // アップロードされたファイルを取得
+            Part part;
+            try {
+                part = request.getPart(AttributeConst.REP_IMPORT_FILE.getValue());
+            } catch (IllegalStateException e) {
+                // ファイルのサイズが上限を超えている場合
+                putRequestScope(AttributeConst.ERR, List.of(MessageConst.E_IMPORT_TOO_LARGE.getMessage()));
+                forward(ForwardConst.FW_REP_IMPORT);
+                return;
+            }
+            if (part == null || part.getSize() == 0) {
+                putRequestScope(AttributeConst.ERR, List.of(MessageConst.E_IMPORT_NOFILE.getMessage()));
+                forward(ForwardConst.FW_REP_IMPORT);
+                return;
+            }
+
+            // ファイルを読み込む
+            List<ReportImportRow> rows;
+            try (InputStream in = part.getInputStream()) {
+                rows = ReportImportReader.read(part.getSubmittedFileName(), in);
+            } catch (IllegalArgumentException e) {
+                // CSVのヘッダーが不正な場合など
+                putRequestScope(AttributeConst.ERR, List.of(e.getMessage()));
+                forward(ForwardConst.FW_REP_IMPORT);
+                return;
+            }
+
+            // ログイン情報を取得（管理者は他の従業員の日報も登録できる）
+            LoginPrincipal principal = getSessionScope(AttributeConst.LOGIN_EMP);
+            EmployeeView ev = principal.toView();
+            boolean admin = principal.isAdmin();
+
+            // 日報を一括登録
+            ReportImportResult result = service.importReports(rows, ev, admin);
+            putRequestScope(AttributeConst.REP_IMPORT_RESULT, result);
+            if (result.getImported() > 0) {
+                putRequestScope(AttributeConst.FLUSH, MessageConst.I_IMPORTED.getMessage());
+            }
+
+            // 結果を一括登録画面に表示
+            forward(ForwardConst.FW_REP_IMPORT);
+        }
+    }
+
+    /*
+     * 出力画面を表示する
+     */
+    public void entryExport() throws ServletException, IOException {
+        // 期間の初期値は今月の初日から本日まで
+        LocalDate today = LocalDate.now();
+        putRequestScope(AttributeConst.REP_DATE_FROM, today.withDayOfMonth(1));
+        putRequestScope(AttributeConst.REP_DATE_TO, today);
+
+        // 出力画面を表示
+        forward(ForwardConst.FW_REP_EXPORT);
+    }
+
+    /*
+     * 日報日付が指定した期間内の日報をCSVまたはJSONでレスポンスに直接書き出す
+     */
+    public void export() throws ServletException, IOException {
+        // 期間のチェック
+        List<String> errors = new ArrayList<>();
+        LocalDate[] range = getDateRange(errors);
+
+        if (errors.size() > 0) {
+            // エラーの場合は出力画面を再表示
+            putRequestScope(AttributeConst.REP_DATE_FROM, getRequestParam(AttributeConst.REP_DATE_FROM));
+            putRequestScope(AttributeConst.REP_DATE_TO, getRequestParam(AttributeConst.REP_DATE_TO));
+            putRequestScope(AttributeConst.ERR, errors);
+            forward(ForwardConst.FW_REP_EXPORT);
+            return;
+        }
+        LocalDate from = range[0];
+        LocalDate to = range[1];
+
+        // 形式に応じたヘッダーを設定し、日報を書き出す
+        boolean json = AttributeConst.EXPORT_FORMAT_JSON.getValue().equals(getRequestParam(AttributeConst.EXPORT_FORMAT));
+        String fileName = String.format("reports_%s_%s.%s", from, to,
+                json ? AttributeConst.EXPORT_FORMAT_JSON.getValue() : AttributeConst.EXPORT_FORMAT_CSV.getValue());
+        response.setContentType(json ? "application/json; charset=UTF-8" : "text/csv; charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+
+        try (ReportExportWriter writer = json
+                ? ReportExportWriter.json(response.getOutputStream())
+                : ReportExportWriter.csv(response.getOutputStream())) {
+            service.exportReports(from, to, writer);
+        }
+    }
+
+    /*
+     * 日報日付が指定した期間内の日報を一覧表示する（従業員を指定した場合はその従業員の日報のみ）
+     * 期間を指定しない場合は先週（月曜日～日曜日）の日報を表示する
+     */
+    public void range() throws ServletException, IOException {
+
+        // 従業員の指定がある場合は従業員を取得する
+        EmployeeView employee = null;
+        if (getRequestParam(AttributeConst.REP_EMP_ID) != null) {
+            employee = findEmployee(toNumber(getRequestParam(AttributeConst.REP_EMP_ID)));
+            if (employee == null) {
+                // 該当の従業員が存在しない場合、エラー画面を表示
+                forward(ForwardConst.FW_ERR_UNKNOWN);
+                return;
+            }
+        }
+        putRequestScope(AttributeConst.EMPLOYEE, employee);
+
+        // 期間のチェック
+        List<String> errors = new ArrayList<>();
+        LocalDate[] range;
+        if (getRequestParam(AttributeConst.REP_DATE_FROM) == null && getRequestParam(AttributeConst.REP_DATE_TO) == null) {
+            LocalDate monday = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+            range = new LocalDate[] { monday, monday.plusDays(6) };
+        } else {
+            range = getDateRange(errors);
+        }
+
+        if (errors.size() > 0) {
+            // エラーの場合は入力された期間のまま画面を表示
+            putRequestScope(AttributeConst.REP_DATE_FROM, getRequestParam(AttributeConst.REP_DATE_FROM));
+            putRequestScope(AttributeConst.REP_DATE_TO, getRequestParam(AttributeConst.REP_DATE_TO));
+            putRequestScope(AttributeConst.ERR, errors);
+            forward(ForwardConst.FW_REP_RANGE);
+            return;
+        }
+
+        // 指定されたカーソルの位置に表示する日報の概要と件数を取得
+        CursorPage<ReportSummaryView> reports = service.getByDateRangePerCursor(range[0], range[1], employee,
+                getRequestParam(AttributeConst.CURSOR));
+        long reportsCount = service.countByDateRange(range[0], range[1], employee);
+
+        putRequestScope(AttributeConst.REP_DATE_FROM, range[0]);
+        putRequestScope(AttributeConst.REP_DATE_TO, range[1]);
+        putRequestScope(AttributeConst.REPORTS, reports.getItems());
+        putRequestScope(AttributeConst.REP_COUNT, reportsCount);
+        putRequestScope(AttributeConst.NEXT_CURSOR, reports.getNextCursor());
+        putRequestScope(AttributeConst.PREV_CURSOR, reports.getPrevCursor());
+
+        // 期間指定の一覧画面を表示
+        forward(ForwardConst.FW_REP_RANGE);
+    }
+
+    /*
+     * 従業員の1か月分の日報の提出状況をカレンダーで表示する
+     * 従業員・年月を指定しない場合はログイン中の従業員の今月の提出状況を表示する
+     */
+    public void calendar() throws ServletException, IOException {
+
+        // 対象の従業員
+        EmployeeView employee = ((LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP)).toView();
+        if (getRequestParam(AttributeConst.REP_EMP_ID) != null) {
+            employee = findEmployee(toNumber(getRequestParam(AttributeConst.REP_EMP_ID)));
+            if (employee == null) {
+                // 該当の従業員が存在しない場合、エラー画面を表示
+                forward(ForwardConst.FW_ERR_UNKNOWN);
+                return;
+            }
+        }
+
+        // 対象の年月（yyyy-MM 指定がない・不正な場合は今月）
+        YearMonth month = toYearMonth(getRequestParam(AttributeConst.CAL_MONTH));
+
+        putRequestScope(AttributeConst.CALENDAR, service.getCalendar(employee, month));
+
+        // カレンダー画面を表示
+        forward(ForwardConst.FW_REP_CALENDAR);
+    }
+
     /*
      * 詳細画面を表示する
      */
     public void show() throws ServletException, IOException {
+        int id = toNumber(getRequestParam(AttributeConst.REP_ID));
+
+        // 更新日時のみを取得し、ブラウザのキャッシュが最新であれば日報を読み込まずに304を返却する
+        LocalDateTime lastModified = service.getLastModified(id);
+        if (lastModified != null && isNotModified(ForwardConst.ACT_REP.getValue() + ":" + id, lastModified)) {
+            return;
+        }
 
         // idを条件に日報データを取得する
-        ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
+        ReportView rv = service.findOne(id);
 
         if (rv == null) {
             // 該当の日報データが存在しない場合、エラー画面を表示
@@ -153,7 +421,7 @@ public class ReportAction extends ActionBase {
         ReportView rv = service.findOne(toNumber(getRequestParam(AttributeConst.REP_ID)));
 
         // セッションからログイン中の従業員情報を取得する
-        EmployeeView ev = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
+        LoginPrincipal ev = (LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP);
 
         if ((rv == null) || (ev.getId() != rv.getEmployee().getId())) {
 
@@ -208,4 +476,48 @@ public class ReportAction extends ActionBase {
             }
         }
     }
+
+    /*
+     * リクエストパラメータの期間（開始日・終了日）をチェックする
+     * エラーがある場合はエラーのリストに追加する
+     *
+     * @param errors エラーのリスト
+     * @return 開始日と終了日の配列（エラーの場合null）
+     */
+    private LocalDate[] getDateRange(List<String> errors) {
+        String strFrom = getRequestParam(AttributeConst.REP_DATE_FROM);
+        String strTo = getRequestParam(AttributeConst.REP_DATE_TO);
+        if (strFrom == null || strTo == null) {
+            errors.add(MessageConst.E_NODATE_RANGE.getMessage());
+            return null;
+        }
+
+        try {
+            LocalDate from = LocalDate.parse(strFrom);
+            LocalDate to = LocalDate.parse(strTo);
+            if (from.isAfter(to)) {
+                errors.add(MessageConst.E_DATE_RANGE.getMessage());
+                return null;
+            }
+            return new LocalDate[] { from, to };
+
+        } catch (DateTimeParseException e) {
+            errors.add(MessageConst.E_NODATE_RANGE.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * idを条件に従業員を取得する（従業員の情報は2次キャッシュから取得される）
+     *
+     * @return 従業員のインスタンス（存在しない場合null）
+     */
+    private EmployeeView findEmployee(int id) {
+        EmployeeService employeeService = new EmployeeService();
+        try {
+            return employeeService.findOne(id);
+        } finally {
+            employeeService.close();
+        }
+    }
 }
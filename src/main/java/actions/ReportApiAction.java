@@ -0,0 +1,172 @@
+package actions;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import actions.views.CursorPage;
+import actions.views.ReportSummaryView;
+import actions.views.ReportView;
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MessageConst;
+import services.ReportService;
+import utils.ApiJsonWriter;
+
+/*
+ * 日報の一覧・詳細の取得と登録・更新をJSONで行うAPIのActionクラス
+ * パラメータfieldsにカンマ区切りで項目名を指定した場合、その項目のみを返却する
+ */
+public class ReportApiAction extends ApiActionBase {
+
+    private ReportService service;
+
+    @Override
+    public void process() throws ServletException, IOException {
+        service = new ReportService();
+        routeReads(service);
+        invoke();
+        recordWrites(service);
+        service.close();
+    }
+
+    /*
+     * 指定されたカーソルの位置の日報の概要を返却する
+     */
+    public void index() throws ServletException, IOException {
+        ApiJsonWriter.Fields<ReportSummaryView> fields = selectFields(ApiJsonWriter.REPORT_SUMMARY);
+        if (fields == null) {
+            return;
+        }
+
+        CursorPage<ReportSummaryView> reports = service.getAllPerCursor(getRequestParam(AttributeConst.CURSOR));
+        long reportsCount = service.countAll();
+
+        try (ApiJsonWriter writer = open(HttpServletResponse.SC_OK)) {
+            writer.writePage(reports, reportsCount, fields);
+        }
+    }
+
+    /*
+     * idを条件に日報を返却する
+     */
+    public void show() throws ServletException, IOException {
+        ApiJsonWriter.Fields<ReportView> fields = selectFields(ApiJsonWriter.REPORT);
+        if (fields == null) {
+            return;
+        }
+        int id = toNumber(getRequestParam(AttributeConst.REP_ID));
+
+        // 更新日時のみを取得し、クライアントのキャッシュが最新であれば日報を読み込まずに304を返却する
+        LocalDateTime lastModified = service.getLastModified(id);
+        if (lastModified == null) {
+            sendErrors(HttpServletResponse.SC_NOT_FOUND, MessageConst.E_API_NOT_FOUND.getMessage());
+            return;
+        }
+        String resource = ForwardConst.ACT_API_REP.getValue() + ":" + id + ":" + getRequestParam(AttributeConst.API_FIELDS);
+        if (isNotModified(resource, lastModified)) {
+            return;
+        }
+
+        ReportView rv = service.findOne(id);
+        if (rv == null) {
+            sendErrors(HttpServletResponse.SC_NOT_FOUND, MessageConst.E_API_NOT_FOUND.getMessage());
+            return;
+        }
+
+        try (ApiJsonWriter writer = open(HttpServletResponse.SC_OK)) {
+            writer.writeObject(rv, fields);
+        }
+    }
+
+    /*
+     * ログイン中の従業員の日報を登録し、登録した日報を返却する（201）
+     * 日報日付を指定しない場合は本日の日付とする
+     */
+    public void create() throws ServletException, IOException {
+        ApiJsonWriter.Fields<ReportView> fields = selectFields(ApiJsonWriter.REPORT);
+        if (fields == null || !checkWrite()) {
+            return;
+        }
+
+        ReportView rv = new ReportView(
+                null,
+                getLoginEmployee().toView(),
+                null,
+                getBodyParam(AttributeConst.REP_TITLE),
+                getBodyParam(AttributeConst.REP_CONTENT),
+                null,
+                null);
+        try {
+            rv.setReportDate(toLocalDate(getBodyParam(AttributeConst.REP_DATE)));
+        } catch (DateTimeParseException e) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, MessageConst.E_IMPORT_DATE.getMessage());
+            return;
+        }
+
+        List<String> errors = service.create(rv);
+        if (errors.size() > 0) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, errors);
+            return;
+        }
+
+        try (ApiJsonWriter writer = open(HttpServletResponse.SC_CREATED)) {
+            writer.writeObject(rv, fields);
+        }
+    }
+
+    /*
+     * ログイン中の従業員の日報を更新し、更新した日報を返却する
+     * 指定されなかった項目（日報日付・タイトル・内容）は更新しない
+     */
+    public void update() throws ServletException, IOException {
+        ApiJsonWriter.Fields<ReportView> fields = selectFields(ApiJsonWriter.REPORT);
+        if (fields == null || !checkWrite()) {
+            return;
+        }
+
+        ReportView rv = service.findOne(toNumber(getBodyParam(AttributeConst.REP_ID)));
+        if (rv == null) {
+            sendErrors(HttpServletResponse.SC_NOT_FOUND, MessageConst.E_API_NOT_FOUND.getMessage());
+            return;
+        }
+
+        // 他の従業員の日報は更新できない
+        if (getLoginEmployee().getId() != rv.getEmployee().getId()) {
+            sendErrors(HttpServletResponse.SC_FORBIDDEN, MessageConst.E_API_FORBIDDEN.getMessage());
+            return;
+        }
+
+        try {
+            String reportDate = getBodyParam(AttributeConst.REP_DATE);
+            if (reportDate != null) {
+                rv.setReportDate(toLocalDate(reportDate));
+            }
+        } catch (DateTimeParseException e) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, MessageConst.E_IMPORT_DATE.getMessage());
+            return;
+        }
+        String title = getBodyParam(AttributeConst.REP_TITLE);
+        if (title != null) {
+            rv.setTitle(title);
+        }
+        String content = getBodyParam(AttributeConst.REP_CONTENT);
+        if (content != null) {
+            rv.setContent(content);
+        }
+
+        List<String> errors = service.update(rv);
+        if (errors.size() > 0) {
+            sendErrors(HttpServletResponse.SC_BAD_REQUEST, errors);
+            return;
+        }
+
+        try (ApiJsonWriter writer = open(HttpServletResponse.SC_OK)) {
+            writer.writeObject(rv, fields);
+        }
+    }
+}
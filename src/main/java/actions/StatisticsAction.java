@@ -0,0 +1,120 @@
+package actions;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.List;
+
+import javax.servlet.ServletException;
+
+import actions.views.DailyStatView;
+import actions.views.EmployeeStatView;
+import actions.views.LoginPrincipal;
+import constants.AttributeConst;
+import constants.ForwardConst;
+import constants.MessageConst;
+import services.StatisticsService;
+import utils.CompressionMetrics;
+import utils.DBUtil;
+import utils.QueryMetrics;
+import utils.RequestEntityManager;
+
+/*
+ * 日報の提出状況の統計に関わる処理を行うActionクラス（管理者のみ）
+ */
+public class StatisticsAction extends ActionBase {
+
+    private StatisticsService service;
+
+    @Override
+    public void process() throws ServletException, IOException {
+        service = new StatisticsService();
+        routeReads(service);
+        invoke();
+        recordWrites(service);
+        service.close();
+    }
+
+    /*
+     * 指定した月（指定がない・不正な場合は今月）の従業員ごと・日ごとの日報の件数を表示する
+     * 件数は集計テーブルから取得し、日報テーブルは参照しない
+     */
+    public void index() throws ServletException, IOException {
+        // 管理者権限チェック
+        if (checkAdmin()) {
+
+            YearMonth month = toYearMonth(getRequestParam(AttributeConst.CAL_MONTH));
+
+            List<EmployeeStatView> employeeStats = service.getByEmployee(month);
+            List<DailyStatView> dailyStats = service.getByDate(month);
+            long total = dailyStats.stream().mapToLong(DailyStatView::getReportCount).sum();
+
+            putRequestScope(AttributeConst.CAL_MONTH, month);
+            putRequestScope(AttributeConst.STAT_EMPLOYEES, employeeStats);
+            putRequestScope(AttributeConst.STAT_DAILY, dailyStats);
+            putRequestScope(AttributeConst.STAT_TOTAL, total);
+            putRequestScope(AttributeConst.TOKEN, getTokenId());
+
+            //セッションにフラッシュメッセージが設定されている場合はリクエストスコープに移し替え、セッションからは削除する
+            String flush = getSessionScope(AttributeConst.FLUSH);
+            if (flush != null) {
+                putRequestScope(AttributeConst.FLUSH, flush);
+                removeSessionScope(AttributeConst.FLUSH);
+            }
+
+            //統計画面を表示
+            forward(ForwardConst.FW_STAT_INDEX);
+        }
+    }
+
+    /*
+     * 集計テーブルを日報テーブルから集計し直す
+     */
+    public void rebuild() throws ServletException, IOException {
+        // CSRF対策 tokenのチェック、管理者権限チェック
+        if (checkToken() && checkAdmin()) {
+            service.rebuild();
+
+            // セッションに再集計完了のフラッシュメッセージを設定
+            putSessionScope(AttributeConst.FLUSH, MessageConst.I_REBUILT.getMessage());
+
+            // 統計画面にリダイレクト
+            redirect(ForwardConst.ACT_STAT, ForwardConst.CMD_INDEX);
+        }
+    }
+
+    /*
+     * 名前付きクエリごとの実行回数・実行時間の分布・行数と、レスポンスの圧縮・EntityManager・DB接続の保持時間の統計を表示する
+     */
+    public void queries() throws ServletException, IOException {
+        // 管理者権限チェック
+        if (checkAdmin()) {
+            putRequestScope(AttributeConst.QUERY_STATS, QueryMetrics.getStatistics());
+            putRequestScope(AttributeConst.SLOW_THRESHOLD, QueryMetrics.getSlowThresholdMillis());
+            putRequestScope(AttributeConst.COMPRESSION_STATS, CompressionMetrics.getStatistics());
+            putRequestScope(AttributeConst.EM_STATS, RequestEntityManager.getStatistics());
+            putRequestScope(AttributeConst.POOL_STATS, DBUtil.getPoolStatistics());
+
+            //クエリの統計画面を表示
+            forward(ForwardConst.FW_STAT_QUERIES);
+        }
+    }
+
+    /*
+     * ログイン権限チェック
+     * 管理者以外はエラー画面に遷移
+     *
+     * @return true:管理者／false:管理者以外
+     */
+    private boolean checkAdmin() throws ServletException, IOException {
+
+        // セッションからログイン中の従業員情報を取得
+        LoginPrincipal ev = (LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP);
+
+        // 管理者でなければエラー画面を表示
+        if (!ev.isAdmin()) {
+            forward(ForwardConst.FW_ERR_UNKNOWN);
+            return false;
+        }
+        return true;
+    }
+}
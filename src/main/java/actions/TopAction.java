@@ -1,15 +1,15 @@
 package actions;
 
 import java.io.IOException;
-import java.util.List;
 
 import javax.servlet.ServletException;
 
+import actions.views.CursorPage;
 import actions.views.EmployeeView;
-import actions.views.ReportView;
+import actions.views.LoginPrincipal;
+import actions.views.ReportSummaryView;
 import constants.AttributeConst;
 import constants.ForwardConst;
-import constants.JpaConst;
 import services.ReportService;
 
 public class TopAction extends ActionBase {
@@ -19,7 +19,9 @@ public class TopAction extends ActionBase {
     @Override
     public void process() throws ServletException, IOException {
         service = new ReportService();
+        routeReads(service);
         invoke();
+        recordWrites(service);
         service.close();
     }
 
@@ -29,19 +31,18 @@ public class TopAction extends ActionBase {
     public void index() throws ServletException, IOException {
 
         // セッションからログイン中の従業員情報を取得
-        EmployeeView loginEmployee = (EmployeeView)getSessionScope(AttributeConst.LOGIN_EMP);
+        EmployeeView loginEmployee = ((LoginPrincipal)getSessionScope(AttributeConst.LOGIN_EMP)).toView();
 
         // ログイン中の従業員が作成した日報データを1ページ分取得する
-        int page = getPage();
-        List<ReportView> reports = service.getMinePerPage(loginEmployee, page);
+        CursorPage<ReportSummaryView> reports = service.getMinePerCursor(loginEmployee, getRequestParam(AttributeConst.CURSOR));
 
         // ログイン中の従業員が作成した日報の件数を取得
         long myReportCount = service.countAllMine(loginEmployee);
 
-        putRequestScope(AttributeConst.REPORTS, reports);
+        putRequestScope(AttributeConst.REPORTS, reports.getItems());
         putRequestScope(AttributeConst.REP_COUNT, myReportCount);
-        putRequestScope(AttributeConst.PAGE, page);
-        putRequestScope(AttributeConst.MAX_ROW, JpaConst.ROW_PER_PAGE);
+        putRequestScope(AttributeConst.NEXT_CURSOR, reports.getNextCursor());
+        putRequestScope(AttributeConst.PREV_CURSOR, reports.getPrevCursor());
 
         // セッションにフラッシュメッセージが設定されている場合はリクエストスコープに保持
         String flush = getSessionScope(AttributeConst.FLUSH);
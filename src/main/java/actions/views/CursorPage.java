@@ -0,0 +1,30 @@
+package actions.views;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * キーセットページネーションで取得した1ページ分のデータ
+ * 前後のページはカーソル文字列で指定する
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /*
+     * 1ページ分のデータ
+     */
+    private final List<T> items;
+
+    /*
+     * 次ページのカーソル（次ページがない場合null）
+     */
+    private final String nextCursor;
+
+    /*
+     * 前ページのカーソル（前ページがない場合null）
+     */
+    private final String prevCursor;
+}
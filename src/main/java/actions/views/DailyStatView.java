@@ -0,0 +1,34 @@
+package actions.views;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * 統計画面に表示する日ごとの日報の提出状況
+ * JPQLのコンストラクタ式で生成するため、フィールドの順序を変更しないこと
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatView {
+
+    /**
+     * 日報日付
+     */
+    private LocalDate reportDate;
+
+    /**
+     * 日報の件数
+     */
+    private Long reportCount;
+
+    /**
+     * 日報を提出した従業員数
+     */
+    private Long employeeCount;
+}
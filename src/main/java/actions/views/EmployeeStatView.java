@@ -0,0 +1,49 @@
+package actions.views;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * 統計画面に表示する従業員ごとの日報の提出状況
+ * JPQLのコンストラクタ式で生成するため、フィールドの順序を変更しないこと
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStatView {
+
+    /**
+     * 従業員のid
+     */
+    private Integer employeeId;
+
+    /**
+     * 社員番号
+     */
+    private String employeeCode;
+
+    /**
+     * 氏名
+     */
+    private String employeeName;
+
+    /**
+     * 期間内の日報の件数
+     */
+    private Long reportCount;
+
+    /**
+     * 期間内に日報を提出した日数
+     */
+    private Long reportDays;
+
+    /**
+     * 期間内の日報の最終更新日時
+     */
+    private LocalDateTime lastUpdated;
+}
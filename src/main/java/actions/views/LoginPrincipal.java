@@ -0,0 +1,192 @@
+package actions.views;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import constants.AttributeConst;
+import lombok.Getter;
+
+/*
+ * セッションに保持するログイン中の従業員（id・社員番号・氏名・権限のみ）
+ * パスワード・登録日時などは保持せず、セッションの複製・外部への保存の大きさを抑える
+ * 直列化はバージョン付きの独自のバイナリ形式で行う（Javaの直列化でも同じ形式をSerializedFormに格納する）
+ * 従業員の更新・削除は、従業員の更新日時と照合した時刻をもとにLoginFilterで再検証する
+ */
+@Getter
+public final class LoginPrincipal implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // 直列化形式のバージョン（形式を変更した場合は加算し、fromBytesで旧形式も読み込めるようにする）
+    private static final byte FORMAT_VERSION = 1;
+
+    /*
+     * id
+     */
+    private final int id;
+
+    /*
+     * 社員番号
+     */
+    private final String code;
+
+    /*
+     * 氏名
+     */
+    private final String name;
+
+    /*
+     * 権限
+     */
+    private final int adminFlag;
+
+    /*
+     * 従業員の更新日時（エポックミリ秒 再検証で従業員の更新を検出するために使用する）
+     */
+    private final long employeeUpdatedAt;
+
+    /*
+     * 従業員テーブルと最後に照合した時刻（エポックミリ秒）
+     */
+    private final long validatedAt;
+
+    private LoginPrincipal(int id, String code, String name, int adminFlag, long employeeUpdatedAt, long validatedAt) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.adminFlag = adminFlag;
+        this.employeeUpdatedAt = employeeUpdatedAt;
+        this.validatedAt = validatedAt;
+    }
+
+    /*
+     * 従業員からインスタンスを作成する
+     *
+     * @param ev 従業員テーブルから取得した従業員
+     * @param validatedAt 従業員を取得した時刻（エポックミリ秒）
+     */
+    public static LoginPrincipal of(EmployeeView ev, long validatedAt) {
+        return new LoginPrincipal(
+                ev.getId(),
+                ev.getCode(),
+                ev.getName(),
+                ev.getAdminFlag(),
+                toEpochMilli(ev.getUpdateAt()),
+                validatedAt);
+    }
+
+    /*
+     * 照合した時刻のみを変更したインスタンスを返却する
+     */
+    public LoginPrincipal validated(long validatedAt) {
+        return new LoginPrincipal(id, code, name, adminFlag, employeeUpdatedAt, validatedAt);
+    }
+
+    /*
+     * 管理者かを返却する
+     */
+    public boolean isAdmin() {
+        return adminFlag == AttributeConst.ROLE_ADMIN.getIntegerValue();
+    }
+
+    /*
+     * 従業員テーブルの更新日時が、保持している更新日時と同じかを返却する
+     */
+    public boolean isCurrent(LocalDateTime updateAt) {
+        return toEpochMilli(updateAt) == employeeUpdatedAt;
+    }
+
+    /*
+     * 日報の登録・検索の条件に使用するEmployeeViewを返却する（パスワード・登録日時などはnull）
+     */
+    public EmployeeView toView() {
+        return new EmployeeView(id, code, name, null, adminFlag, null, null, null);
+    }
+
+    /*
+     * バイナリ形式に変換する
+     * バージョン(1) id(4) 権限(1) 更新日時(8) 照合時刻(8) 社員番号・氏名(修正UTF-8 各2+長さ)
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(id);
+            out.writeByte(adminFlag);
+            out.writeLong(employeeUpdatedAt);
+            out.writeLong(validatedAt);
+            out.writeUTF(code);
+            out.writeUTF(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /*
+     * バイナリ形式から復元する
+     *
+     * @throws IllegalArgumentException 形式が不正、または対応していないバージョンの場合
+     */
+    public static LoginPrincipal fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("unsupported principal format: " + version);
+            }
+            int id = in.readInt();
+            int adminFlag = in.readByte();
+            long employeeUpdatedAt = in.readLong();
+            long validatedAt = in.readLong();
+            String code = in.readUTF();
+            String name = in.readUTF();
+            return new LoginPrincipal(id, code, name, adminFlag, employeeUpdatedAt, validatedAt);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed principal", e);
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /*
+     * Javaの直列化ではバイナリ形式を格納したSerializedFormに置き換える
+     */
+    private Object writeReplace() {
+        return new SerializedForm(toBytes());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("SerializedForm required");
+    }
+
+    /*
+     * Javaの直列化で使用する形式（バイナリ形式のみを持つ）
+     */
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+
+        SerializedForm(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private Object readResolve() throws InvalidObjectException {
+            try {
+                return fromBytes(bytes);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
+    }
+}
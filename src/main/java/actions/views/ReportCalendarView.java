@@ -0,0 +1,121 @@
+package actions.views;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 従業員の1か月分の日報の提出状況
+ * 日報がある日をビット（1日目を最下位ビット）で保持する
+ */
+@Getter
+@AllArgsConstructor
+public class ReportCalendarView {
+
+    /*
+     * 対象の従業員
+     */
+    private final EmployeeView employee;
+
+    /*
+     * 対象の年月
+     */
+    private final YearMonth month;
+
+    /*
+     * 日報がある日のビット（n日に日報がある場合、下位からn番目のビットが1）
+     */
+    private final int days;
+
+    /*
+     * 指定した日に日報があるかどうかを返却する
+     *
+     * @param day 日（1～月末日）
+     */
+    public boolean hasReport(int day) {
+        return day >= 1 && day <= month.lengthOfMonth() && (days & (1 << (day - 1))) != 0;
+    }
+
+    /*
+     * 日報がある日数を返却する
+     */
+    public int getReportDays() {
+        return Integer.bitCount(days);
+    }
+
+    /*
+     * 月の初日
+     */
+    public LocalDate getFirstDay() {
+        return month.atDay(1);
+    }
+
+    /*
+     * 月末日
+     */
+    public LocalDate getLastDay() {
+        return month.atEndOfMonth();
+    }
+
+    /*
+     * 前月
+     */
+    public YearMonth getPrevMonth() {
+        return month.minusMonths(1);
+    }
+
+    /*
+     * 翌月
+     */
+    public YearMonth getNextMonth() {
+        return month.plusMonths(1);
+    }
+
+    /*
+     * カレンダー表示用に、日曜日始まりの週ごとに日を並べたリストを返却する
+     * 月の前後の空欄は0とする
+     */
+    public List<List<Integer>> getWeeks() {
+        List<List<Integer>> weeks = new ArrayList<>();
+        List<Integer> week = new ArrayList<>();
+
+        // 初日の曜日まで空欄を入れる（日曜日を0とする）
+        int blanks = month.atDay(1).getDayOfWeek().getValue() % DayOfWeek.values().length;
+        for (int i = 0; i < blanks; i++) {
+            week.add(0);
+        }
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            week.add(day);
+            if (week.size() == DayOfWeek.values().length) {
+                weeks.add(week);
+                week = new ArrayList<>();
+            }
+        }
+        if (!week.isEmpty()) {
+            while (week.size() < DayOfWeek.values().length) {
+                week.add(0);
+            }
+            weeks.add(week);
+        }
+        return weeks;
+    }
+
+    /*
+     * 日付から日報がある日のビットを作成する
+     *
+     * @param dates 日報がある日付のリスト（対象の年月のもの）
+     * @return 日報がある日のビット
+     */
+    public static int toDays(List<LocalDate> dates) {
+        int days = 0;
+        for (LocalDate date : dates) {
+            days |= 1 << (date.getDayOfMonth() - 1);
+        }
+        return days;
+    }
+}
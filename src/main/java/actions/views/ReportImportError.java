@@ -0,0 +1,24 @@
+package actions.views;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 一括登録で登録できなかった行とそのエラー
+ */
+@Getter
+@AllArgsConstructor
+public class ReportImportError {
+
+    /*
+     * ファイル上の行番号
+     */
+    private final int line;
+
+    /*
+     * エラーのリスト
+     */
+    private final List<String> messages;
+}
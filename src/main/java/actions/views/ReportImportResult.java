@@ -0,0 +1,29 @@
+package actions.views;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 日報の一括登録の結果
+ */
+@Getter
+@AllArgsConstructor
+public class ReportImportResult {
+
+    /*
+     * ファイルから読み込んだ行数
+     */
+    private final int total;
+
+    /*
+     * 登録した件数
+     */
+    private final int imported;
+
+    /*
+     * 登録できなかった行のエラー（行番号の昇順）
+     */
+    private final List<ReportImportError> errors;
+}
@@ -0,0 +1,42 @@
+package actions.views;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 一括登録のファイルから読み込んだ1行分の値（変換・検証前の文字列）
+ */
+@Getter
+@AllArgsConstructor
+public class ReportImportRow {
+
+    /*
+     * ファイル上の行番号
+     */
+    private final int line;
+
+    /*
+     * 日報を作成した従業員の社員番号（未指定の場合はログイン中の従業員）
+     */
+    private final String employeeCode;
+
+    /*
+     * 日報日付（yyyy-MM-dd）
+     */
+    private final String reportDate;
+
+    /*
+     * 日報のタイトル
+     */
+    private final String title;
+
+    /*
+     * 日報の内容
+     */
+    private final String content;
+
+    /*
+     * 行の読み込み時に発生したエラー（エラーがない場合null）
+     */
+    private final String error;
+}
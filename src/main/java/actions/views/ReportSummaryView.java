@@ -0,0 +1,45 @@
+package actions.views;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * 一覧画面に表示する日報の概要
+ * 日報の内容(content)を含まないため、一覧取得時に内容を読み込まずに済む
+ * JPQLのコンストラクタ式で生成するため、フィールドの順序を変更しないこと
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSummaryView {
+
+    /**
+     * id
+     */
+    private Integer id;
+
+    /**
+     * 日報を登録した従業員のid
+     */
+    private Integer employeeId;
+
+    /**
+     * 日報を登録した従業員の氏名
+     */
+    private String employeeName;
+
+    /**
+     * いつの日報かを示す日付
+     */
+    private LocalDate reportDate;
+
+    /**
+     * 日報のタイトル
+     */
+    private String title;
+}
@@ -11,6 +11,9 @@ public enum AttributeConst {
     // 一覧画面共通
     MAX_ROW("maxRow"),
     PAGE("page"),
+    CURSOR("cursor"),
+    NEXT_CURSOR("nextCursor"),
+    PREV_CURSOR("prevCursor"),
 
     // 入力フォーム共通
     TOKEN("_token"),
@@ -19,6 +22,9 @@ public enum AttributeConst {
     // ログイン中の従業員
     LOGIN_EMP("login_employee"),
 
+    // 書き込み後、この時刻（ミリ秒）まではプライマリDBから読み込む
+    READ_PRIMARY_UNTIL("read_primary_until"),
+
     // ログイン画面
     LOGIN_ERR("loginError"),
 
@@ -47,7 +53,44 @@ public enum AttributeConst {
     REP_ID("id"),
     REP_DATE("report_date"),
     REP_TITLE("title"),
-    REP_CONTENT("content");
+    REP_CONTENT("content"),
+    REP_LIST_HTML("reportListHtml"),            // 描画済みの一覧部分のHTML
+    REP_LIST_FRAGMENT("reportListFragment"),    // 描画した一覧部分のHTMLを保持するエントリ
+
+    // 日報の一括登録
+    REP_IMPORT_FILE("import_file"),
+    REP_IMPORT_RESULT("importResult"),
+
+    // 日報日付の範囲
+    REP_DATE_FROM("date_from"),
+    REP_DATE_TO("date_to"),
+    REP_EMP_ID("employee_id"),
+
+    // 日報のカレンダー
+    CALENDAR("calendar"),
+    CAL_MONTH("month"),
+
+    // 日報の統計
+    STAT_EMPLOYEES("employeeStats"),
+    STAT_DAILY("dailyStats"),
+    STAT_TOTAL("statTotal"),
+    QUERY_STATS("queryStats"),
+    SLOW_THRESHOLD("slowThreshold"),
+    COMPRESSION_STATS("compressionStats"),
+    EM_STATS("entityManagerStats"),
+    POOL_STATS("poolStats"),
+
+    // 日報の出力
+    EXPORT_FORMAT("format"),
+    EXPORT_FORMAT_CSV("csv"),
+    EXPORT_FORMAT_JSON("json"),
+
+    // 日報の検索
+    SEARCH_QUERY("q"),
+    SEARCH_READY("searchReady"),
+
+    // API（出力する項目）
+    API_FIELDS("fields");
 
     private final String text;
     private final Integer i;
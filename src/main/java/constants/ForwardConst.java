@@ -11,6 +11,9 @@ public enum ForwardConst {
     ACT_EMP("Employee"),
     ACT_REP("Report"),
     ACT_AUTH("Auth"),
+    ACT_STAT("Statistics"),
+    ACT_API_REP("ReportApi"),
+    ACT_API_EMP("EmployeeApi"),
 
     // command
     CMD("command"),
@@ -25,6 +28,15 @@ public enum ForwardConst {
     CMD_EDIT("edit"),
     CMD_UPDATE("update"),
     CMD_DESTROY("destroy"),
+    CMD_IMPORT_FORM("entryImport"),
+    CMD_IMPORT("importReports"),
+    CMD_EXPORT_FORM("entryExport"),
+    CMD_EXPORT("export"),
+    CMD_SEARCH("search"),
+    CMD_RANGE("range"),
+    CMD_CALENDAR("calendar"),
+    CMD_REBUILD("rebuild"),
+    CMD_QUERIES("queries"),
 
     // jsp
     FW_ERR_UNKNOWN("error/unknown"),
@@ -37,7 +49,14 @@ public enum ForwardConst {
     FW_REP_INDEX("reports/index"),
     FW_REP_SHOW("reports/show"),
     FW_REP_NEW("reports/new"),
-    FW_REP_EDIT("reports/edit");
+    FW_REP_EDIT("reports/edit"),
+    FW_REP_IMPORT("reports/import"),
+    FW_REP_EXPORT("reports/export"),
+    FW_REP_SEARCH("reports/search"),
+    FW_REP_RANGE("reports/range"),
+    FW_REP_CALENDAR("reports/calendar"),
+    FW_STAT_INDEX("statistics/index"),
+    FW_STAT_QUERIES("statistics/queries");
 
     /*
      * 文字列
@@ -8,6 +8,7 @@ public interface JpaConst {
 
     // persistence-unit名
     String PERSISTENCE_UNIT_NAME = "daily_report_system";
+    String PERSISTENCE_UNIT_NAME_REPLICA = "daily_report_system_replica"; // 読み込み専用（レプリカ）
 
     // データ取得件数の最大値
     int ROW_PER_PAGE = 15; // 1ページに表示するレコード数
@@ -42,20 +43,96 @@ public interface JpaConst {
     String REP_COL_CREATED_AT = "created_at"; // 登録日時
     String REP_COL_UPDATED_AT = "updated_at"; // 更新日時
 
+    int REP_TITLE_LENGTH = 255; // 日報のタイトルの最大文字数
+
+    // 日報の集計テーブル
+    String TABLE_STAT = "report_daily_stats"; // テーブル名
+
+    // 日報の集計テーブルカラム
+    String STAT_COL_EMP = "employee_id"; // 日報を作成した従業員のid
+    String STAT_COL_REP_DATE = "report_date"; // 日報日付
+    String STAT_COL_COUNT = "report_count"; // 日報の件数
+    String STAT_COL_LAST_UPDATED = "last_updated"; // 最終更新日時
+
+    // 日報の一括登録
+    int IMPORT_CHUNK_SIZE = 5000; // 1トランザクションで登録する件数
+    int IMPORT_BATCH_SIZE = 500; // 1回のバッチ更新で送信する件数
+
+    // 日報の出力
+    int EXPORT_FETCH_SIZE = 1000; // DBから1回に受信する件数
+    int EXPORT_CLEAR_INTERVAL = 1000; // 永続性コンテキストをクリアする間隔（件数）
+
+    // 日報を1件登録するSQL（一括登録のバッチ更新で使用する）
+    String REP_INSERT_SQL = "INSERT INTO " + TABLE_REP + " ("
+            + REP_COL_EMP + ", " + REP_COL_REP_DATE + ", " + REP_COL_TITLE + ", " + REP_COL_CONTENT + ", "
+            + REP_COL_CREATED_AT + ", " + REP_COL_UPDATED_AT + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    // 集計テーブルに日報の件数を加算するSQL（従業員id, 日報日付, 加算する件数, 日報の更新日時）
+    String STAT_ADD_SQL = "INSERT INTO " + TABLE_STAT + " ("
+            + STAT_COL_EMP + ", " + STAT_COL_REP_DATE + ", " + STAT_COL_COUNT + ", " + STAT_COL_LAST_UPDATED + ") VALUES (?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE " + STAT_COL_COUNT + " = " + STAT_COL_COUNT + " + VALUES(" + STAT_COL_COUNT + "), "
+            + STAT_COL_LAST_UPDATED + " = GREATEST(" + STAT_COL_LAST_UPDATED + ", VALUES(" + STAT_COL_LAST_UPDATED + "))";
+
+    // 集計テーブルの日報の件数を1件減算するSQL（日報の更新日時, 従業員id, 日報日付）
+    String STAT_SUBTRACT_SQL = "UPDATE " + TABLE_STAT + " SET " + STAT_COL_COUNT + " = " + STAT_COL_COUNT + " - 1, "
+            + STAT_COL_LAST_UPDATED + " = GREATEST(" + STAT_COL_LAST_UPDATED + ", ?)"
+            + " WHERE " + STAT_COL_EMP + " = ? AND " + STAT_COL_REP_DATE + " = ?";
+
+    // 件数が0件になった集計行を削除するSQL（従業員id, 日報日付）
+    String STAT_DELETE_EMPTY_SQL = "DELETE FROM " + TABLE_STAT
+            + " WHERE " + STAT_COL_EMP + " = ? AND " + STAT_COL_REP_DATE + " = ? AND " + STAT_COL_COUNT + " <= 0";
+
+    // 日報日付が指定した範囲内の集計行を削除するSQL（開始日, 終了日）
+    String STAT_DELETE_RANGE_SQL = "DELETE FROM " + TABLE_STAT + " WHERE " + STAT_COL_REP_DATE + " BETWEEN ? AND ?";
+
+    // 集計行をすべて削除するSQL
+    String STAT_DELETE_ALL_SQL = "DELETE FROM " + TABLE_STAT;
+
+    // 日報日付が指定した範囲外の集計行を削除するSQL（開始日, 終了日）
+    String STAT_DELETE_OUTSIDE_SQL = "DELETE FROM " + TABLE_STAT + " WHERE " + STAT_COL_REP_DATE + " < ? OR " + STAT_COL_REP_DATE + " > ?";
+
+    // 日報日付が指定した範囲内の日報を日報テーブルから集計し、集計テーブルに登録するSQL（開始日, 終了日）
+    String STAT_REBUILD_SQL = "INSERT INTO " + TABLE_STAT + " ("
+            + STAT_COL_EMP + ", " + STAT_COL_REP_DATE + ", " + STAT_COL_COUNT + ", " + STAT_COL_LAST_UPDATED + ")"
+            + " SELECT " + REP_COL_EMP + ", " + REP_COL_REP_DATE + ", COUNT(*), MAX(" + REP_COL_UPDATED_AT + ")"
+            + " FROM " + TABLE_REP + " WHERE " + REP_COL_REP_DATE + " BETWEEN ? AND ?"
+            + " GROUP BY " + REP_COL_EMP + ", " + REP_COL_REP_DATE;
+
+    // 2次キャッシュのリージョン名
+    String CACHE_REGION_EMP = "employee"; // 従業員
+
     // Entity名
     String ENTITY_EMP = "employee"; // 従業員
     String ENTITY_REP = "report"; // 日報
+    String ENTITY_STAT = "reportDailyStat"; // 日報の集計
 
     // JPQL内のパラメータ
     String JPQL_PARM_CODE = "code";     // 社員番号
+    String JPQL_PARM_CODES = "codes";   // 社員番号のリスト
     String JPQL_PARM_PASSWORD = "password"; // パスワード
     String JPQL_PARM_EMPLOYEE = "employee"; // 従業員
+    String JPQL_PARM_ID = "id"; // id（キーセットページネーションの基準）
+    String JPQL_PARM_DATE_FROM = "dateFrom"; // 日報日付の範囲（開始日）
+    String JPQL_PARM_DATE_TO = "dateTo"; // 日報日付の範囲（終了日）
+    String JPQL_PARM_REP_DATE = "reportDate"; // 日報日付（キーセットページネーションの基準 idと組み合わせる）
+    String JPQL_PARM_IDS = "ids"; // idのリスト
+    String JPQL_PARM_ID_FROM = "idFrom"; // idの範囲（開始）
+    String JPQL_PARM_ID_TO = "idTo"; // idの範囲（終了）
+    String JPQL_PARM_UPDATED_AT = "updatedAt"; // 更新日時
 
     // NamedQueryのnameとquery
     // 全ての従業員をidの降順に取得する
     String Q_EMP_GET_ALL = ENTITY_EMP + ".getAll";  // name
     String Q_EMP_GET_ALL_DEF = "SELECT e FROM Employee AS e ORDER BY e.id DESC";
 
+    // 指定したidより後（idの降順で次ページ）の従業員を取得する
+    String Q_EMP_GET_ALL_AFTER = ENTITY_EMP + ".getAllAfter";
+    String Q_EMP_GET_ALL_AFTER_DEF = "SELECT e FROM Employee AS e WHERE e.id < :" + JPQL_PARM_ID + " ORDER BY e.id DESC";
+
+    // 指定したidより前（idの降順で前ページ）の従業員をidの昇順に取得する
+    String Q_EMP_GET_ALL_BEFORE = ENTITY_EMP + ".getAllBefore";
+    String Q_EMP_GET_ALL_BEFORE_DEF = "SELECT e FROM Employee AS e WHERE e.id > :" + JPQL_PARM_ID + " ORDER BY e.id ASC";
+
     // 全ての従業員の件数を取得する
     String Q_EMP_COUNT = ENTITY_EMP + ".getcount";  // name
     String Q_EMP_COUNT_DEF = "SELECT COUNT(e) FROM Employee AS e";
@@ -68,19 +145,146 @@ public interface JpaConst {
     String Q_EMP_COUNT_RESISTERED_BY_CODE = ENTITY_EMP + "countRegisteredByCode";
     String Q_EMP_COUNT_RESISTERED_BY_CODE_DEF = "SELECT COUNT(e) FROM Employee AS e WHERE e.code = :" + JPQL_PARM_CODE;
 
-    // 全ての日報をidの降順に取得する
-    String Q_REP_GET_ALL = ENTITY_REP + ".getAll";
-    String Q_REP_GET_ALL_DEF = "SELECT r FROM Report AS r ORDER BY r.id DESC ";
+    // 指定した社員番号のいずれかを保持する未削除の従業員を取得する
+    String Q_EMP_GET_BY_CODES = ENTITY_EMP + ".getByCodes";
+    String Q_EMP_GET_BY_CODES_DEF = "SELECT e FROM Employee AS e WHERE e.deleteFlag = 0 AND e.code IN :" + JPQL_PARM_CODES;
+
+    // 指定したidの未削除の従業員の更新日時のみを取得する（条件付きGETの判定用）
+    String Q_EMP_GET_UPDATE_AT = ENTITY_EMP + ".getUpdateAt";
+    String Q_EMP_GET_UPDATE_AT_DEF = "SELECT e.updateAt FROM Employee AS e WHERE e.id = :" + JPQL_PARM_ID + " AND e.deleteFlag = 0";
+
+    // 一覧画面用に日報の概要（内容を除く）を取得するSELECT句
+    String REP_SUMMARY_SELECT = "SELECT NEW actions.views.ReportSummaryView(r.id, e.id, e.name, r.reportDate, r.title) FROM Report AS r JOIN r.employee AS e ";
+
+    // 全ての日報の概要をidの降順に取得する
+    String Q_REP_GET_ALL_SUMMARY = ENTITY_REP + ".getAllSummary";
+    String Q_REP_GET_ALL_SUMMARY_DEF = REP_SUMMARY_SELECT + "ORDER BY r.id DESC";
+
+    // 指定したidより後（idの降順で次ページ）の日報の概要を取得する
+    String Q_REP_GET_ALL_SUMMARY_AFTER = ENTITY_REP + ".getAllSummaryAfter";
+    String Q_REP_GET_ALL_SUMMARY_AFTER_DEF = REP_SUMMARY_SELECT + "WHERE r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+
+    // 指定したidより前（idの降順で前ページ）の日報の概要をidの昇順に取得する
+    String Q_REP_GET_ALL_SUMMARY_BEFORE = ENTITY_REP + ".getAllSummaryBefore";
+    String Q_REP_GET_ALL_SUMMARY_BEFORE_DEF = REP_SUMMARY_SELECT + "WHERE r.id > :" + JPQL_PARM_ID + " ORDER BY r.id ASC";
 
     // 全ての日報の件数を取得する
     String Q_REP_COUNT = ENTITY_REP + ".count";
     String Q_REP_COUNT_DEF = "SELECT COUNT(r) FROM Report AS r";
 
-    // 指定した従業員が作成した日報を全件idの降順で取得する
-    String Q_REP_GET_ALL_MINE = ENTITY_REP + ".getAllMine";
-    String Q_REP_GET_ALL_MINE_DEF = "SELECT r FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
+    // 指定した従業員が作成した日報の概要を全件idの降順で取得する
+    String Q_REP_GET_ALL_MINE_SUMMARY = ENTITY_REP + ".getAllMineSummary";
+    String Q_REP_GET_ALL_MINE_SUMMARY_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " ORDER BY r.id DESC";
+
+    // 指定した従業員が作成した日報のうち、指定したidより後（次ページ）の日報の概要を取得する
+    String Q_REP_GET_ALL_MINE_SUMMARY_AFTER = ENTITY_REP + ".getAllMineSummaryAfter";
+    String Q_REP_GET_ALL_MINE_SUMMARY_AFTER_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id < :" + JPQL_PARM_ID + " ORDER BY r.id DESC";
+
+    // 指定した従業員が作成した日報のうち、指定したidより前（前ページ）の日報の概要をidの昇順に取得する
+    String Q_REP_GET_ALL_MINE_SUMMARY_BEFORE = ENTITY_REP + ".getAllMineSummaryBefore";
+    String Q_REP_GET_ALL_MINE_SUMMARY_BEFORE_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND r.id > :" + JPQL_PARM_ID + " ORDER BY r.id ASC";
+
+    // 日報日付が指定した範囲内の日報を日報日付・idの昇順で取得する（作成者の従業員も同じクエリで取得する）
+    String Q_REP_GET_BY_DATE_RANGE = ENTITY_REP + ".getByDateRange";
+    String Q_REP_GET_BY_DATE_RANGE_DEF = "SELECT r FROM Report AS r JOIN FETCH r.employee WHERE r.reportDate BETWEEN :" + JPQL_PARM_DATE_FROM + " AND :" + JPQL_PARM_DATE_TO + " ORDER BY r.reportDate ASC, r.id ASC";
+
+    // 指定したidの日報の概要を取得する（並び順は呼び出し側で指定する）
+    String Q_REP_GET_SUMMARY_BY_IDS = ENTITY_REP + ".getSummaryByIds";
+    String Q_REP_GET_SUMMARY_BY_IDS_DEF = REP_SUMMARY_SELECT + "WHERE r.id IN :" + JPQL_PARM_IDS;
+
+    // 日報のidの最小値と最大値を取得する
+    String Q_REP_GET_ID_RANGE = ENTITY_REP + ".getIdRange";
+    String Q_REP_GET_ID_RANGE_DEF = "SELECT MIN(r.id), MAX(r.id) FROM Report AS r";
+
+    // 全文検索の索引の作成に使用する項目（id, タイトル, 内容, 更新日時）を取得するSELECT句
+    String REP_SEARCH_SELECT = "SELECT r.id, r.title, r.content, r.updatedAt FROM Report AS r ";
+
+    // idが指定した範囲内の日報の索引作成用の項目を取得する
+    String Q_REP_GET_FOR_SEARCH_BY_ID_RANGE = ENTITY_REP + ".getForSearchByIdRange";
+    String Q_REP_GET_FOR_SEARCH_BY_ID_RANGE_DEF = REP_SEARCH_SELECT + "WHERE r.id BETWEEN :" + JPQL_PARM_ID_FROM + " AND :" + JPQL_PARM_ID_TO;
+
+    // 指定した日時以降に更新された日報の索引作成用の項目を取得する
+    String Q_REP_GET_FOR_SEARCH_UPDATED = ENTITY_REP + ".getForSearchUpdated";
+    String Q_REP_GET_FOR_SEARCH_UPDATED_DEF = REP_SEARCH_SELECT + "WHERE r.updatedAt >= :" + JPQL_PARM_UPDATED_AT;
+
+    // 日報日付の範囲の条件
+    String REP_DATE_RANGE_WHERE = "r.reportDate BETWEEN :" + JPQL_PARM_DATE_FROM + " AND :" + JPQL_PARM_DATE_TO;
+
+    // 日報日付が指定した範囲内の日報の概要を日報日付・idの降順で取得する
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE = ENTITY_REP + ".getSummaryByDateRange";
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE_DEF = REP_SUMMARY_SELECT + "WHERE " + REP_DATE_RANGE_WHERE + " ORDER BY r.reportDate DESC, r.id DESC";
+
+    // 日報日付・idが指定した値より後（日報日付・idの降順で次ページ）となる条件
+    String REP_DATE_ID_AFTER_WHERE = "(r.reportDate < :" + JPQL_PARM_REP_DATE
+            + " OR (r.reportDate = :" + JPQL_PARM_REP_DATE + " AND r.id < :" + JPQL_PARM_ID + "))";
+
+    // 日報日付・idが指定した値より前（日報日付・idの降順で前ページ）となる条件
+    String REP_DATE_ID_BEFORE_WHERE = "(r.reportDate > :" + JPQL_PARM_REP_DATE
+            + " OR (r.reportDate = :" + JPQL_PARM_REP_DATE + " AND r.id > :" + JPQL_PARM_ID + "))";
+
+    // 日報日付が指定した範囲内の日報のうち、指定した日報日付・idより後（次ページ）の日報の概要を取得する
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE_AFTER = ENTITY_REP + ".getSummaryByDateRangeAfter";
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE_AFTER_DEF = REP_SUMMARY_SELECT + "WHERE " + REP_DATE_RANGE_WHERE + " AND " + REP_DATE_ID_AFTER_WHERE + " ORDER BY r.reportDate DESC, r.id DESC";
+
+    // 日報日付が指定した範囲内の日報のうち、指定した日報日付・idより前（前ページ）の日報の概要を日報日付・idの昇順で取得する
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE_BEFORE = ENTITY_REP + ".getSummaryByDateRangeBefore";
+    String Q_REP_GET_SUMMARY_BY_DATE_RANGE_BEFORE_DEF = REP_SUMMARY_SELECT + "WHERE " + REP_DATE_RANGE_WHERE + " AND " + REP_DATE_ID_BEFORE_WHERE + " ORDER BY r.reportDate ASC, r.id ASC";
+
+    // 日報日付が指定した範囲内の日報の件数を取得する
+    String Q_REP_COUNT_BY_DATE_RANGE = ENTITY_REP + ".countByDateRange";
+    String Q_REP_COUNT_BY_DATE_RANGE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE " + REP_DATE_RANGE_WHERE;
+
+    // 指定した従業員が作成した日報のうち、日報日付が指定した範囲内の日報の概要を日報日付・idの降順で取得する
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE = ENTITY_REP + ".getMineSummaryByDateRange";
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + REP_DATE_RANGE_WHERE + " ORDER BY r.reportDate DESC, r.id DESC";
+
+    // 指定した従業員が作成した日報のうち、日報日付が指定した範囲内で指定した日報日付・idより後（次ページ）の日報の概要を取得する
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_AFTER = ENTITY_REP + ".getMineSummaryByDateRangeAfter";
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_AFTER_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + REP_DATE_RANGE_WHERE + " AND " + REP_DATE_ID_AFTER_WHERE + " ORDER BY r.reportDate DESC, r.id DESC";
+
+    // 指定した従業員が作成した日報のうち、日報日付が指定した範囲内で指定した日報日付・idより前（前ページ）の日報の概要を日報日付・idの昇順で取得する
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_BEFORE = ENTITY_REP + ".getMineSummaryByDateRangeBefore";
+    String Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_BEFORE_DEF = REP_SUMMARY_SELECT + "WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + REP_DATE_RANGE_WHERE + " AND " + REP_DATE_ID_BEFORE_WHERE + " ORDER BY r.reportDate ASC, r.id ASC";
+
+    // 指定した従業員が作成した日報のうち、日報日付が指定した範囲内の日報の件数を取得する
+    String Q_REP_COUNT_MINE_BY_DATE_RANGE = ENTITY_REP + ".countMineByDateRange";
+    String Q_REP_COUNT_MINE_BY_DATE_RANGE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + REP_DATE_RANGE_WHERE;
+
+    // 指定した従業員が日報を作成した日付のうち、指定した範囲内のものを重複なく取得する（カレンダー表示用）
+    String Q_REP_GET_MINE_DATES_BY_DATE_RANGE = ENTITY_REP + ".getMineDatesByDateRange";
+    String Q_REP_GET_MINE_DATES_BY_DATE_RANGE_DEF = "SELECT DISTINCT r.reportDate FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE + " AND " + REP_DATE_RANGE_WHERE;
+
+    // 従業員ごとの日報の件数を取得する（従業員id, 件数）
+    String Q_REP_COUNT_GROUP_BY_EMP = ENTITY_REP + ".countGroupByEmployee";
+    String Q_REP_COUNT_GROUP_BY_EMP_DEF = "SELECT r.employee.id, COUNT(r) FROM Report AS r GROUP BY r.employee.id";
+
+    // 日報日付の最小値と最大値を取得する（集計テーブルの再集計に使用する）
+    String Q_REP_GET_DATE_RANGE = ENTITY_REP + ".getDateRange";
+    String Q_REP_GET_DATE_RANGE_DEF = "SELECT MIN(r.reportDate), MAX(r.reportDate) FROM Report AS r";
+
+    // 指定したidの日報と作成した従業員の更新日時のみを取得する（条件付きGETの判定用 日報の内容は取得しない）
+    String Q_REP_GET_UPDATED_AT = ENTITY_REP + ".getUpdatedAt";
+    String Q_REP_GET_UPDATED_AT_DEF = "SELECT r.updatedAt, e.updateAt FROM Report AS r JOIN r.employee AS e WHERE r.id = :" + JPQL_PARM_ID;
+
+    // 日報と従業員の更新日時の最大値を取得する（一覧画面の表示内容の世代 どちらも更新日時の索引のみを参照する）
+    String Q_REP_GET_LIST_UPDATED_AT = ENTITY_REP + ".getListUpdatedAt";
+    String Q_REP_GET_LIST_UPDATED_AT_DEF = "SELECT MAX(r.updatedAt), (SELECT MAX(e.updateAt) FROM Employee AS e) FROM Report AS r";
+
+    // 日報日付の範囲の条件（集計テーブル）
+    String STAT_DATE_RANGE_WHERE = "s.reportDate BETWEEN :" + JPQL_PARM_DATE_FROM + " AND :" + JPQL_PARM_DATE_TO;
+
+    // 日報日付が指定した範囲内の従業員ごとの日報の件数・提出日数を社員番号順に取得する
+    String Q_STAT_GET_BY_EMP = ENTITY_STAT + ".getByEmployee";
+    String Q_STAT_GET_BY_EMP_DEF = "SELECT NEW actions.views.EmployeeStatView(e.id, e.code, e.name, SUM(s.reportCount), COUNT(s), MAX(s.lastUpdated))"
+            + " FROM ReportDailyStat AS s JOIN Employee AS e ON e.id = s.employeeId"
+            + " WHERE " + STAT_DATE_RANGE_WHERE + " GROUP BY e.id, e.code, e.name ORDER BY e.code ASC";
+
+    // 日報日付が指定した範囲内の日ごとの日報の件数・提出した従業員数を日付順に取得する
+    String Q_STAT_GET_BY_DATE = ENTITY_STAT + ".getByDate";
+    String Q_STAT_GET_BY_DATE_DEF = "SELECT NEW actions.views.DailyStatView(s.reportDate, SUM(s.reportCount), COUNT(s))"
+            + " FROM ReportDailyStat AS s WHERE " + STAT_DATE_RANGE_WHERE + " GROUP BY s.reportDate ORDER BY s.reportDate ASC";
 
-    // 指定した従業員が作成した日報の件数を取得する
-    String Q_REP_COUNT_ALL_MINE = ENTITY_REP + ".countAllMine";
-    String Q_REP_COUNT_ALL_MINE_DEF = "SELECT COUNT(r) FROM Report AS r WHERE r.employee = :" + JPQL_PARM_EMPLOYEE;
+    // 集計テーブルの行数を取得する
+    String Q_STAT_COUNT = ENTITY_STAT + ".count";
+    String Q_STAT_COUNT_DEF = "SELECT COUNT(s) FROM ReportDailyStat AS s";
 }
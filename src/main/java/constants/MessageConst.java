@@ -14,6 +14,8 @@ public enum MessageConst {
     I_REGISTERED("登録が完了しました"),
     I_UPDATED("更新が完了しました"),
     I_DELETED("削除が完了しました"),
+    I_IMPORTED("一括登録が完了しました"),
+    I_REBUILT("再集計が完了しました"),
 
     // バリデーション
     E_NONAME("氏名を入力してください"),
@@ -21,7 +23,32 @@ public enum MessageConst {
     E_NOEMP_CODE("社員番号を入力してください"),
     E_EMP_CODE_EXIST("入力された社員番号の情報はすでに存在しています"),
     E_NOTITLE("タイトルを入力してください"),
-    E_NOCONTENT("内容を入力してください");
+    E_TITLE_TOO_LONG("タイトルは255文字以内で入力してください"),
+    E_NOCONTENT("内容を入力してください"),
+
+    // 日報の一括登録
+    E_IMPORT_NOFILE("登録するファイルを選択してください"),
+    E_IMPORT_TOO_LARGE("ファイルのサイズが上限を超えています"),
+    E_IMPORT_FORMAT("ファイルの形式が正しくありません"),
+    E_IMPORT_ROW("行の形式が正しくありません"),
+    E_IMPORT_DATE("日付はyyyy-MM-ddの形式で入力してください"),
+    E_IMPORT_NOEMP("社員番号に該当する従業員が存在しません"),
+    E_IMPORT_OTHER_EMP("他の従業員の日報は登録できません"),
+    E_IMPORT_FAILED("登録に失敗しました"),
+
+    // 日報日付の範囲
+    E_NODATE_RANGE("期間の開始日と終了日をyyyy-MM-ddの形式で入力してください"),
+    E_DATE_RANGE("期間の開始日には終了日以前の日付を入力してください"),
+
+    // API
+    E_API_UNAUTHORIZED("ログインしてください"),
+    E_API_FORBIDDEN("この操作を行う権限がありません"),
+    E_API_NOT_FOUND("該当するデータが存在しません"),
+    E_API_METHOD("POSTで送信してください"),
+    E_API_TOKEN("tokenが正しくありません"),
+    E_API_FIELDS("指定された項目は存在しません: "),
+    E_API_BODY("JSONの形式が正しくありません"),
+    E_API_FAILED("処理中にエラーが発生しました");
 
     /*
      * 文字列
@@ -6,7 +6,58 @@ package constants;
 public enum PropertyConst {
 
     // ペッパー文字列
-    PEPPER("pepper");
+    PEPPER("pepper"),
+
+    // コネクションプール設定
+    DB_POOL_MAX_SIZE("db.pool.maxSize"),                        // 最大接続数
+    DB_POOL_MIN_IDLE("db.pool.minIdle"),                        // 最小アイドル接続数
+    DB_POOL_CONNECTION_TIMEOUT("db.pool.connectionTimeout"),    // 接続取得のタイムアウト（ミリ秒）
+    DB_POOL_VALIDATION_TIMEOUT("db.pool.validationTimeout"),    // 貸出時の接続検証のタイムアウト（ミリ秒）
+    DB_POOL_LEAK_DETECTION("db.pool.leakDetectionThreshold"),   // 接続リーク検出の閾値（ミリ秒 0:検出しない）
+    DB_POOL_IDLE_TIMEOUT("db.pool.idleTimeout"),                // アイドル接続を破棄するまでの時間（ミリ秒）
+    DB_POOL_MAX_LIFETIME("db.pool.maxLifetime"),                // 接続の最大生存時間（ミリ秒）
+    DB_POOL_LONG_HELD_MILLIS("db.pool.longHeldMillis"),         // 接続を長時間保持しているとみなしてログに出力する時間（ミリ秒）
+
+    // 読み込み専用のレプリカDBの接続設定（URLを設定した場合のみ使用する）
+    DB_REPLICA_URL("db.replica.url"),
+    DB_REPLICA_USER("db.replica.user"),
+    DB_REPLICA_PASSWORD("db.replica.password"),
+    DB_REPLICA_STICKY_MILLIS("db.replica.stickyMillis"),        // 書き込み後にプライマリから読み込む時間（ミリ秒）
+
+    // 遅いクエリのログ設定
+    DB_SLOW_QUERY_THRESHOLD("db.slowQuery.thresholdMillis"),    // 遅いクエリとみなす実行時間（ミリ秒）
+    DB_SLOW_QUERY_LOG_FILE("db.slowQuery.logFile"),             // 出力先ファイル（FileHandlerのパターン 未設定の場合はサーバーのログ）
+
+    // 件数をDBと突き合わせる間隔（秒）
+    COUNTER_RECONCILE_INTERVAL("counter.reconcileInterval"),
+
+    // 全文検索の索引の設定
+    SEARCH_INDEX_DIR("search.indexDir"),                        // 索引を保存するディレクトリ
+    SEARCH_SAVE_INTERVAL("search.saveInterval"),                // 他のサーバーの差分を取り込み、索引を保存する間隔（秒）
+
+    // リクエストの非同期処理の設定
+    ASYNC_ENABLED("async.enabled"),                             // true: Actionクラスの処理を別スレッドで実行する
+    ASYNC_VIRTUAL_THREADS("async.virtualThreads"),              // false: 仮想スレッドを使用せずスレッドプールを使用する
+    ASYNC_POOL_SIZE("async.poolSize"),                          // スレッドプールの最大スレッド数
+    ASYNC_QUEUE_SIZE("async.queueSize"),                        // スレッドプールの待ち行列の長さ
+    ASYNC_TIMEOUT("async.timeoutMillis"),                       // 処理のタイムアウト（ミリ秒 超えた場合は503 未設定の場合は接続取得のタイムアウト+5秒）
+
+    // レスポンスの圧縮の設定
+    COMPRESSION_MIN_SIZE("compression.minSize"),                // 圧縮する本文の最小バイト数
+    COMPRESSION_LEVEL("compression.level"),                     // 圧縮レベル（1:速度優先～9:圧縮率優先）
+
+    // 描画済みの日報一覧のキャッシュの設定
+    LIST_CACHE_MAX_AGE("cache.list.maxAgeMillis"),              // 保持期間（ミリ秒 他のサーバーでの同じ秒の更新はこの時間だけ遅れて表示される）
+    LIST_CACHE_REFRESH("cache.list.refreshMillis"),             // 一覧画面の世代をDBから取得し直す間隔（ミリ秒）
+
+    // セッションの設定
+    SESSION_REVALIDATE_MILLIS("session.revalidateMillis"),      // ログイン中の従業員を従業員テーブルと照合する間隔（ミリ秒）
+    SESSION_STORE_DIR("session.store.dir"),                     // セッションを保存するディレクトリ（未設定の場合はサーバーのメモリに保持する）
+    SESSION_NEAR_CACHE_SIZE("session.nearCache.size"),          // 読み込んだセッションをメモリに保持する上限数
+    SESSION_NEAR_CACHE_MILLIS("session.nearCache.millis");      // 読み込んだセッションをメモリに保持する時間（ミリ秒）
+
+    // コネクションプール設定のキーに共通する接頭辞
+    public static final String DB_POOL_PREFIX = "db.pool.";
 
     private final String text;
     private PropertyConst(final String text) {
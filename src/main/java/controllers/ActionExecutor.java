@@ -0,0 +1,111 @@
+package controllers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 非同期モードでActionクラスの処理を実行するスレッド
+ * 実行環境のJDKが仮想スレッドに対応している場合は1リクエストごとに仮想スレッドを使用し、
+ * 対応していない場合は上限のあるスレッドプールを使用する
+ * ビルドはJava 11のままとするため、仮想スレッドの生成はリフレクションで行う
+ */
+public class ActionExecutor {
+
+    // 仮想スレッドのExecutorを生成するメソッド（JDK 21以降）
+    private static final String VIRTUAL_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    // プールのスレッドが処理を待つ時間（秒 これを超えたスレッドは終了する）
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    private ActionExecutor(ExecutorService executor, boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+
+    /*
+     * 実行するスレッドを作成する
+     *
+     * @param useVirtual true: 仮想スレッドを使用できる場合は使用する false: 常にスレッドプールを使用する
+     * @param poolSize スレッドプールの最大スレッド数
+     * @param queueSize スレッドプールの待ち行列の長さ（超えた場合は受け付けない）
+     */
+    public static ActionExecutor create(boolean useVirtual, int poolSize, int queueSize) {
+        if (useVirtual) {
+            ExecutorService executor = newVirtualExecutor();
+            if (executor != null) {
+                return new ActionExecutor(executor, true);
+            }
+        }
+
+        AtomicInteger number = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "action-worker-" + number.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return new ActionExecutor(pool, false);
+    }
+
+    /*
+     * 仮想スレッドのExecutorを生成する（対応していないJDKの場合null）
+     * JDK 19・20ではプレビュー機能が無効の場合にUnsupportedOperationExceptionとなる
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            Method factory = Executors.class.getMethod(VIRTUAL_FACTORY);
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                return null;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /*
+     * 処理を実行する
+     *
+     * @throws RejectedExecutionException スレッドプールの待ち行列が一杯の場合、または停止後の場合
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /*
+     * 仮想スレッドを使用しているかを返却する
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /*
+     * 新たな処理の受け付けを停止し、実行中の処理の終了を指定した時間まで待つ
+     */
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,30 +1,107 @@
 package controllers;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
+import javax.servlet.annotation.MultipartConfig;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import actions.ActionBase;
-import actions.UnknownAction;
 import constants.ForwardConst;
+import constants.PropertyConst;
+import filters.CompressionFilter;
+import filters.EntityManagerFilter;
+import utils.DBUtil;
+import utils.PooledConnectionProvider;
+import utils.RequestEntityManager;
 
-@WebServlet(name="FrontController", urlPatterns={"/"})
+@WebServlet(name="FrontController", urlPatterns={"/"}, loadOnStartup = 1, asyncSupported = true)
+// 日報の一括登録でアップロードされるファイル（1MBを超える場合は一時ファイルに書き出す）
+@MultipartConfig(fileSizeThreshold = 1024 * 1024, maxFileSize = 20 * 1024 * 1024, maxRequestSize = 21 * 1024 * 1024)
 public class FrontController extends HttpServlet {
     private static final long serialVersionUID = 1L;
 
+    // スレッドプールの待ち行列の長さのデフォルト値
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 200;
+
+    // 停止時に実行中の処理の終了を待つ時間（ミリ秒）
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    // 非同期処理のタイムアウトのデフォルト値で、DBの接続取得のタイムアウトに加える時間（ミリ秒）
+    private static final int ASYNC_TIMEOUT_MARGIN_MILLIS = 5000;
+
+    // action・commandからActionクラスとメソッドを引く表（起動時に作成する）
+    private RouteTable routes;
+
+    // 非同期モードでActionクラスの処理を実行するスレッド（非同期モードでない場合null）
+    private ActionExecutor executor;
+
+    // 非同期処理のタイムアウト（ミリ秒）
+    private long asyncTimeout;
+
     public FrontController() {
         super();
     }
 
+    @Override
+    public void init() throws ServletException {
+        routes = RouteTable.build();
+        getServletContext().log(String.format("bootstrap: %d routes registered", routes.size()));
+
+        if (Boolean.parseBoolean(getProperty(PropertyConst.ASYNC_ENABLED, "false"))) {
+            // スレッドプールのスレッド数は、未設定の場合はDBの最大接続数の2倍とする
+            int poolSize = getIntProperty(PropertyConst.ASYNC_POOL_SIZE,
+                    DBUtil.getPoolProperty(PropertyConst.DB_POOL_MAX_SIZE, PooledConnectionProvider.DEFAULT_MAX_SIZE) * 2);
+            int queueSize = getIntProperty(PropertyConst.ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE);
+            executor = ActionExecutor.create(
+                    Boolean.parseBoolean(getProperty(PropertyConst.ASYNC_VIRTUAL_THREADS, "true")), poolSize, queueSize);
+            // タイムアウトは、未設定の場合はDBの接続取得のタイムアウトより少し長くする
+            asyncTimeout = getIntProperty(PropertyConst.ASYNC_TIMEOUT,
+                    DBUtil.getPoolProperty(PropertyConst.DB_POOL_CONNECTION_TIMEOUT, PooledConnectionProvider.DEFAULT_CONNECTION_TIMEOUT)
+                            + ASYNC_TIMEOUT_MARGIN_MILLIS);
+            getServletContext().log(executor.isVirtual()
+                    ? String.format("bootstrap: async mode on virtual threads (timeout %d ms)", asyncTimeout)
+                    : String.format("bootstrap: async mode on %d platform threads (queue %d, timeout %d ms)",
+                            poolSize, queueSize, asyncTimeout));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+    }
+
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         // パラメータに該当するActionクラスのインスタンス
         ActionBase action = getAction(request, response);
 
+        if (executor != null && request.isAsyncSupported()) {
+            // 非同期モードではコンテナのスレッドを解放し、別スレッドでActionクラスの処理を呼び出す
+            AsyncContext async = request.startAsync(request, response);
+            // タイムアウトまでに処理が終わらない場合は503を応答する
+            AtomicBoolean finished = new AtomicBoolean();
+            async.setTimeout(asyncTimeout);
+            async.addListener(new TimeoutListener(finished));
+            action.init(getServletContext(), request, response);
+            try {
+                executor.execute(() -> processAsync(action, async, finished));
+            } catch (RejectedExecutionException e) {
+                // 待ち行列が一杯の場合はコンテナのスレッドでそのまま処理する
+                processAsync(action, async, finished);
+            }
+            return;
+        }
+
         // サーブレットコンテキスト、リクエスト、レスポンスをActionインスタンスのフィールドに設定
         action.init(getServletContext(), request, response);
 
@@ -37,24 +114,128 @@ public class FrontController extends HttpServlet {
     }
 
     private ActionBase getAction(HttpServletRequest request, HttpServletResponse response) {
-        Class type = null;
-        ActionBase action = null;
+        // パラメータ"action"・"command"に該当するActionオブジェクトを作成
+        // 該当しない場合はエラー画面を表示するUnknownActionとなる
+        return routes.newAction(
+                request.getParameter(ForwardConst.ACT.getValue()),
+                request.getParameter(ForwardConst.CMD.getValue()));
+    }
+
+    /*
+     * 非同期モードでActionクラスの処理を呼び出す
+     * jspへのフォワードはprocessの終了後にAsyncContext.dispatchで行い、jspの表示後にコンテナが非同期処理を完了する
+     * それ以外（リダイレクト・ファイルの出力・例外）の場合はここで非同期処理を完了する
+     * タイムアウトで503を応答済みの場合は、レスポンスに触れずに終了する
+     */
+    private void processAsync(ActionBase action, AsyncContext async, AtomicBoolean finished) {
+        // リクエストで共有するEntityManagerをこのスレッドに関連付ける
+        RequestEntityManager previous = EntityManagerFilter.bind(async.getRequest());
+        String dispatchPath = null;
+        boolean failed = false;
+        try {
+            action.process();
+            dispatchPath = action.getDispatchPath();
+
+        } catch (ServletException | IOException | RuntimeException e) {
+            getServletContext().log("async request failed", e);
+            failed = true;
+
+        } finally {
+            RequestEntityManager.bind(previous);
+            // タイムアウトで503を応答済みの場合はレスポンスに触れない
+            if (finished.compareAndSet(false, true)) {
+                if (failed) {
+                    // フォワード後に例外が発生した場合もjspは表示せず、エラーを応答する
+                    sendError(async, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    complete(async);
+                } else if (dispatchPath != null) {
+                    // Actionクラスの処理（セッション・書き込みの記録を含む）が全て終わってからjspを呼び出す
+                    async.dispatch(dispatchPath);
+                } else {
+                    complete(async);
+                }
+            }
+        }
+    }
+
+    /*
+     * レスポンスが未送信の場合はエラーを応答する
+     */
+    private static void sendError(AsyncContext async, int status) {
+        HttpServletResponse response = (HttpServletResponse) async.getResponse();
+        if (!response.isCommitted()) {
+            try {
+                response.sendError(status);
+            } catch (IOException ignored) {
+                // クライアントが切断している場合は応答できない
+            }
+        }
+    }
 
+    /*
+     * 非同期処理を完了する（圧縮中のレスポンスは完了前に圧縮を完了する）
+     */
+    private void complete(AsyncContext async) {
         try {
-            // リクエストからパラメータ"action"の値を取得
-            String actionString = request.getParameter(ForwardConst.ACT.getValue());
+            CompressionFilter.finish(async.getRequest());
+        } catch (IOException e) {
+            getServletContext().log("async response could not be finished", e);
+        }
+        async.complete();
+    }
+
+    /*
+     * 非同期処理のタイムアウト時に503を応答する
+     * Actionクラスの処理が先に終わっている場合は何もしない（処理側でjspの表示・完了を行う）
+     * 処理中のスレッドが圧縮中のレスポンスを使用している可能性があるため、圧縮の完了は行わない
+     */
+    private class TimeoutListener implements AsyncListener {
+        private final AtomicBoolean finished;
+
+        TimeoutListener(AtomicBoolean finished) {
+            this.finished = finished;
+        }
 
-            // 該当するActionオブジェクトを作成
-            type = Class.forName(String.format("actions.%sAction", actionString));
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (finished.compareAndSet(false, true)) {
+                getServletContext().log(String.format("async request timed out after %d ms", asyncTimeout));
+                sendError(event.getAsyncContext(), HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                event.getAsyncContext().complete();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
 
-            action = (ActionBase)(type.asSubclass(ActionBase.class).getDeclaredConstructor().newInstance());
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
 
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | SecurityException
-                | IllegalArgumentException | InvocationTargetException| NoSuchMethodException e) {
-            //リクエストパラメータに設定されている"action"の値が不正の場合
-            action = new UnknownAction();
+    /*
+     * アプリケーションスコープから設定値を取得する（未設定の場合はデフォルト値）
+     */
+    private String getProperty(PropertyConst key, String defaultValue) {
+        Object value = getServletContext().getAttribute(key.getValue());
+        return value == null ? defaultValue : value.toString().trim();
+    }
+
+    /*
+     * アプリケーションスコープから正の数値の設定値を取得する（未設定・不正な場合はデフォルト値）
+     */
+    private int getIntProperty(PropertyConst key, int defaultValue) {
+        try {
+            int number = Integer.parseInt(getProperty(key, ""));
+            return number > 0 ? number : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
         }
-        return action;
     }
 
 }
@@ -0,0 +1,131 @@
+package controllers;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import actions.ActionBase;
+import actions.UnknownAction;
+import constants.ForwardConst;
+
+/*
+ * パラメータaction・commandの組み合わせから、Actionクラスの生成と実行するメソッドを引く表
+ * 起動時に1度だけ作成し、リクエストごとのクラスの検索・リフレクションによる呼び出しを行わない
+ * 該当しない組み合わせは例外を送出せずにエラー画面を表示するUnknownActionとする
+ */
+public class RouteTable {
+
+    // Actionクラスのパッケージとクラス名の形式
+    private static final String ACTION_CLASS_FORMAT = "actions.%sAction";
+
+    // Actionクラスのインスタンスを生成するメソッドの型
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(ActionBase.class);
+
+    // commandに該当するメソッドの型（ActionBaseのインスタンスを引数とし、戻り値なし）
+    private static final MethodType COMMAND_TYPE = MethodType.methodType(void.class, ActionBase.class);
+
+    // commandとして呼び出さないメソッド
+    private static final String PROCESS_METHOD = "process";
+
+    // action→経路
+    private final Map<String, Route> routes;
+
+    private RouteTable(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /*
+     * ForwardConstに定義したaction（ACT_*）ごとにActionクラスを読み込み、表を作成する
+     * 引数のない公開メソッド（process以外）をcommandとして登録する
+     */
+    public static RouteTable build() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Map<String, Route> routes = new HashMap<>();
+
+        for (ForwardConst c : ForwardConst.values()) {
+            if (!c.name().startsWith(ForwardConst.ACT.name() + "_")) {
+                continue;
+            }
+            String action = c.getValue();
+            Class<? extends ActionBase> type;
+            try {
+                type = Class.forName(String.format(ACTION_CLASS_FORMAT, action)).asSubclass(ActionBase.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("action class not found: " + action, e);
+            }
+
+            try {
+                MethodHandle factory = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(FACTORY_TYPE);
+
+                Map<String, MethodHandle> commands = new HashMap<>();
+                for (Method m : type.getDeclaredMethods()) {
+                    int modifiers = m.getModifiers();
+                    if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !m.isSynthetic()
+                            && m.getParameterCount() == 0 && m.getReturnType() == void.class
+                            && !m.getName().equals(PROCESS_METHOD)) {
+                        commands.put(m.getName(), lookup.unreflect(m).asType(COMMAND_TYPE));
+                    }
+                }
+                routes.put(action, new Route(factory, Map.copyOf(commands)));
+
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("action class is not routable: " + type.getName(), e);
+            }
+        }
+        return new RouteTable(Map.copyOf(routes));
+    }
+
+    /*
+     * action・commandに該当するActionクラスのインスタンスを生成し、実行するメソッドを設定して返却する
+     * 該当しない場合はエラー画面を表示するUnknownActionを返却する
+     *
+     * @param action パラメータactionの値
+     * @param command パラメータcommandの値
+     */
+    public ActionBase newAction(String action, String command) {
+        Route route = action == null ? null : routes.get(action);
+        MethodHandle handle = route == null || command == null ? null : route.commands.get(command);
+        if (handle == null) {
+            return new UnknownAction();
+        }
+
+        try {
+            ActionBase instance = (ActionBase) route.factory.invokeExact();
+            instance.setCommand(handle);
+            return instance;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // Actionクラスのコンストラクタは検査例外を送出しない
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * 登録しているaction・commandの組み合わせの数を返却する
+     */
+    public int size() {
+        int size = 0;
+        for (Route route : routes.values()) {
+            size += route.commands.size();
+        }
+        return size;
+    }
+
+    /*
+     * 1つのactionの経路（インスタンスの生成とcommand→メソッド）
+     */
+    private static class Route {
+        private final MethodHandle factory;
+        private final Map<String, MethodHandle> commands;
+
+        Route(MethodHandle factory, Map<String, MethodHandle> commands) {
+            this.factory = factory;
+            this.commands = commands;
+        }
+    }
+}
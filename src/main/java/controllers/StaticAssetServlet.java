@@ -0,0 +1,78 @@
+package controllers;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import filters.CompressionFilter;
+import utils.StaticAssets;
+
+/*
+ * ハッシュ値を含むURL（/assets/*）で静的ファイルを配信するサーブレット
+ * URLが内容ごとに異なるため、ブラウザには1年間・再検証なしでキャッシュさせる
+ * クライアントが対応している場合は、起動時に作成した圧縮済みの内容を返却する
+ */
+@WebServlet(name = "StaticAssetServlet", urlPatterns = { StaticAssets.URL_PREFIX + "/*" }, loadOnStartup = 0, asyncSupported = true)
+public class StaticAssetServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    // ハッシュ値を含むURLのキャッシュの指定（1年間 内容は変わらないため再検証しない）
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Override
+    public void init() throws ServletException {
+        try {
+            int count = StaticAssets.init(getServletContext());
+            getServletContext().log(String.format("bootstrap: %d static assets fingerprinted", count));
+        } catch (IOException e) {
+            // 読み込めない場合はjspから元のパスを参照させる
+            getServletContext().log("bootstrap: static asset fingerprinting failed", e);
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        StaticAssets.Asset asset = StaticAssets.get(request.getPathInfo());
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // 圧縮形式を選択する（brotli→gzip→圧縮なしの順）
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        byte[] body = asset.getContent();
+        String encoding = null;
+        if (asset.getBrotli() != null && CompressionFilter.accepts(acceptEncoding, "br")) {
+            body = asset.getBrotli();
+            encoding = "br";
+        } else if (asset.getGzip() != null && CompressionFilter.accepts(acceptEncoding, "gzip")) {
+            body = asset.getGzip();
+            encoding = "gzip";
+        }
+
+        String etag = "\"" + asset.getHash() + (encoding == null ? "" : "-" + encoding) + "\"";
+        response.setHeader("Cache-Control", CACHE_CONTROL);
+        response.setHeader("Vary", "Accept-Encoding");
+        response.setHeader("ETag", etag);
+
+        // URLが同じであれば内容も同じため、ハッシュ値が一致すれば圧縮形式によらず304を返却する
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.contains(asset.getHash())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (asset.getContentType() != null) {
+            response.setContentType(asset.getContentType());
+        }
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,167 @@
+package filters;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import constants.PropertyConst;
+import utils.StaticAssets;
+
+/**
+ * Servlet Filter implementation class CompressionFilter
+ * クライアントがgzipに対応している場合、一定以上の大きさのテキストのレスポンスをgzip圧縮する
+ * 非同期処理のjspはコンテナのスレッドにディスパッチされるため、ASYNCのディスパッチでも実行し、その終了時に圧縮を完了する
+ */
+@WebFilter(urlPatterns = "/*", asyncSupported = true, dispatcherTypes = { DispatcherType.REQUEST, DispatcherType.ASYNC })
+public class CompressionFilter implements Filter {
+
+    // 圧縮する本文の最小バイト数・圧縮レベルのデフォルト値
+    private static final int DEFAULT_MIN_SIZE = 1024;
+    private static final int DEFAULT_LEVEL = 6;
+
+    // 圧縮中のレスポンスを保持するリクエストスコープの名前
+    private static final String WRAPPER_ATTRIBUTE = CompressionFilter.class.getName() + ".wrapper";
+
+    // 圧縮する本文の最小バイト数
+    private int minSize = DEFAULT_MIN_SIZE;
+
+    // 圧縮レベル（1:速度優先～9:圧縮率優先）
+    private int level = DEFAULT_LEVEL;
+
+    /**
+     * Default constructor.
+     */
+    public CompressionFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        CompressionResponseWrapper wrapper = (CompressionResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+
+        if (wrapper == null) {
+            HttpServletRequest req = (HttpServletRequest) request;
+            if (request.getDispatcherType() != DispatcherType.REQUEST
+                    || req.getServletPath().equals(StaticAssets.URL_PREFIX)
+                    || !accepts(req.getHeader("Accept-Encoding"), "gzip")) {
+                // 圧縮済みの静的ファイル・gzip非対応のクライアントはそのまま処理する
+                chain.doFilter(request, response);
+                return;
+            }
+
+            wrapper = new CompressionResponseWrapper((HttpServletResponse) response, minSize, level);
+            wrapper.addHeader("Vary", "Accept-Encoding");
+            request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+            response = wrapper;
+        }
+
+        // 次のフィルタまたはサーブレットを呼び出し
+        chain.doFilter(request, response);
+
+        // 非同期処理を開始した場合は、ディスパッチ先の処理の終了時、または完了前に圧縮を完了する
+        if (!request.isAsyncStarted()) {
+            finish(request);
+        }
+    }
+
+    /*
+     * 圧縮中のレスポンスの送信を完了する
+     * 非同期処理でjspにディスパッチせずに完了する場合（リダイレクト・ファイルの出力など）は、AsyncContext.completeの前に呼び出す
+     */
+    public static void finish(ServletRequest request) throws IOException {
+        CompressionResponseWrapper wrapper = (CompressionResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (wrapper != null) {
+            request.removeAttribute(WRAPPER_ATTRIBUTE);
+            wrapper.finish();
+        }
+    }
+
+    /*
+     * 圧縮の対象とするContent-Typeかを返却する（テキスト・JSON・XML・JavaScript・SVG）
+     * 画像・アーカイブなど、圧縮済みの形式は対象としない
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon);
+        }
+        type = type.trim();
+        return type.startsWith("text/")
+                || type.equals("application/json")
+                || type.equals("application/javascript")
+                || type.equals("application/xml")
+                || type.endsWith("+xml")
+                || type.endsWith("+json");
+    }
+
+    /*
+     * Accept-Encodingで指定された圧縮形式を受け付けるかを返却する（q=0の場合は受け付けない）
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase(coding) && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+        minSize = getIntProperty(fConfig, PropertyConst.COMPRESSION_MIN_SIZE, DEFAULT_MIN_SIZE);
+        int configured = getIntProperty(fConfig, PropertyConst.COMPRESSION_LEVEL, DEFAULT_LEVEL);
+        level = Math.min(configured, Deflater.BEST_COMPRESSION);
+    }
+
+    /*
+     * アプリケーションスコープから正の数値の設定値を取得する（未設定・不正な場合はデフォルト値）
+     */
+    private static int getIntProperty(FilterConfig fConfig, PropertyConst key, int defaultValue) {
+        Object value = fConfig.getServletContext().getAttribute(key.getValue());
+        try {
+            int number = Integer.parseInt(value.toString().trim());
+            return number > 0 ? number : defaultValue;
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import utils.CompressionMetrics;
+
+/*
+ * レスポンスの本文をgzip圧縮するレスポンスのラッパー
+ * 本文が閾値に達するまではメモリに保持し、閾値に達した時点で圧縮するかを決める
+ * （閾値に達しないまま終了した場合は圧縮せずにそのまま送信する）
+ * Deflaterは全てのスレッドで共有する少数のプールから使い回し、レスポンスごとには生成しない
+ */
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
+
+    // gzipのヘッダー（圧縮方式deflate・フラグなし・更新日時なし・OS不明）
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    // 圧縮結果を書き出す単位（バイト）
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    // プールに保持するDeflaterの最大数（超えた分は返却時に解放する）
+    private static final int MAX_POOLED_DEFLATERS = Runtime.getRuntime().availableProcessors() * 2;
+
+    // 使い回すDeflater（使用中は取り出し、返却時に戻す）
+    private static final Queue<Deflater> DEFLATERS = new ConcurrentLinkedQueue<>();
+
+    // プールに保持しているDeflaterの数（ConcurrentLinkedQueue.sizeは要素を数えるため別に数える）
+    private static final AtomicInteger pooledDeflaters = new AtomicInteger();
+
+    // 本文の状態
+    private enum State {
+        BUFFERING,      // 圧縮するかを決める前（本文をメモリに保持している）
+        COMPRESSING,    // 圧縮して送信している
+        PASSING         // 圧縮せずにそのまま送信している
+    }
+
+    private final int minSize;
+    private final int level;
+
+    private State state = State.BUFFERING;
+
+    // 元のレスポンスにContent-Encoding: gzipを設定したかどうか
+    // resetBufferではヘッダーが残るため、設定した後は本文を破棄しても圧縮して送信する
+    private boolean encodingSet;
+    private ByteArrayOutputStream buffer;
+    private long contentLength = -1;
+
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    // 圧縮中の情報
+    private Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private byte[] output;
+    private long compressedBytes;
+    private long cpuNanos;
+
+    /*
+     * @param response 元のレスポンス
+     * @param minSize 圧縮する本文の最小バイト数
+     * @param level 圧縮レベル（0～9）
+     */
+    CompressionResponseWrapper(HttpServletResponse response, int minSize, int level) {
+        super(response);
+        this.minSize = minSize;
+        this.level = level;
+        this.buffer = new ByteArrayOutputStream(Math.min(minSize, OUTPUT_BUFFER_SIZE));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (stream == null) {
+            stream = new Stream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            stream = new Stream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // 圧縮する場合は長さが変わるため、そのまま送信すると決めるまで保持する
+        contentLength = len;
+        if (state == State.PASSING) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (interceptHeader(name, value)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (interceptHeader(name, value)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (interceptHeader(name, String.valueOf(value))) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (interceptHeader(name, String.valueOf(value))) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    /*
+     * Content-Length・Content-Encodingのヘッダーを処理する
+     *
+     * @return true: 元のレスポンスに設定する false: 設定しない
+     */
+    private boolean interceptHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            try {
+                setContentLengthLong(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                return true;
+            }
+            return false;
+        }
+        if ("Content-Encoding".equalsIgnoreCase(name) && state == State.BUFFERING) {
+            // アプリケーションが圧縮済みの本文を送信する場合は圧縮しない
+            try {
+                pass();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        discard();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        discard();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        discard();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state != State.BUFFERING) {
+            // 圧縮するかを決める前はコミットしない（閾値に達するか、終了するまで保持する）
+            flushStream();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        restart();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        contentLength = -1;
+        encodingSet = false;
+        restart();
+    }
+
+    /*
+     * 送信前の本文を破棄し、圧縮するかを決める前の状態に戻す（コミット前のreset・resetBuffer）
+     */
+    private void restart() {
+        if (deflater != null) {
+            releaseDeflater();
+        }
+        state = State.BUFFERING;
+        buffer = new ByteArrayOutputStream(Math.min(minSize, OUTPUT_BUFFER_SIZE));
+        crc.reset();
+        compressedBytes = 0;
+        cpuNanos = 0;
+    }
+
+    /*
+     * エラー・リダイレクトの場合は本文を送信しない
+     */
+    private void discard() {
+        if (deflater != null) {
+            releaseDeflater();
+        }
+        buffer = null;
+        state = State.PASSING;
+    }
+
+    /*
+     * 本文の送信を完了する（フィルタの処理の終了時、または非同期処理の完了前に呼び出す）
+     * 閾値に達しなかった本文はそのまま送信し、圧縮中の場合は圧縮を完了する
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state == State.BUFFERING && encodingSet) {
+            // 圧縮中にresetBufferした本文は、閾値に達していなくても圧縮する
+            decide();
+        }
+        switch (state) {
+        case BUFFERING:
+            CompressionMetrics.recordBelowThreshold();
+            pass();
+            break;
+        case COMPRESSING:
+            long start = CompressionMetrics.currentCpuTime();
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            cpuNanos += CompressionMetrics.currentCpuTime() - start;
+
+            byte[] trailer = new byte[8];
+            writeIntLE(trailer, 0, (int) crc.getValue());
+            writeIntLE(trailer, 4, (int) deflater.getBytesRead());
+            getResponse().getOutputStream().write(trailer);
+            compressedBytes += GZIP_HEADER.length + trailer.length;
+
+            CompressionMetrics.record(deflater.getBytesRead(), compressedBytes, cpuNanos);
+            releaseDeflater();
+            state = State.PASSING;
+            break;
+        default:
+            break;
+        }
+    }
+
+    /*
+     * 保持している本文を書き込む（閾値に達した場合に呼び出す）
+     * 圧縮するかは、状態コード・Content-Type・Content-Encodingから決める
+     */
+    private void decide() throws IOException {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        if (!encodingSet && (response.getStatus() != HttpServletResponse.SC_OK
+                || response.containsHeader("Content-Encoding")
+                || !CompressionFilter.isCompressible(getContentType()))) {
+            CompressionMetrics.recordSkippedType();
+            pass();
+            return;
+        }
+
+        state = State.COMPRESSING;
+        response.setHeader("Content-Encoding", "gzip");
+        encodingSet = true;
+        deflater = acquireDeflater(level);
+        output = new byte[OUTPUT_BUFFER_SIZE];
+        response.getOutputStream().write(GZIP_HEADER);
+
+        byte[] pending = buffer.toByteArray();
+        buffer = null;
+        compress(pending, 0, pending.length);
+    }
+
+    /*
+     * 圧縮せずにそのまま送信すると決め、保持している本文を書き込む
+     */
+    private void pass() throws IOException {
+        if (state != State.BUFFERING) {
+            return;
+        }
+        state = State.PASSING;
+        if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+        if (buffer != null && buffer.size() > 0) {
+            getResponse().getOutputStream().write(buffer.toByteArray());
+        }
+        buffer = null;
+    }
+
+    /*
+     * 本文を書き込む
+     */
+    private void write(byte[] b, int off, int len) throws IOException {
+        switch (state) {
+        case BUFFERING:
+            buffer.write(b, off, len);
+            if (buffer.size() >= minSize || contentLength >= minSize) {
+                decide();
+            }
+            break;
+        case COMPRESSING:
+            compress(b, off, len);
+            break;
+        default:
+            getResponse().getOutputStream().write(b, off, len);
+            break;
+        }
+    }
+
+    /*
+     * 本文を圧縮して書き込む
+     */
+    private void compress(byte[] b, int off, int len) throws IOException {
+        long start = CompressionMetrics.currentCpuTime();
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        cpuNanos += CompressionMetrics.currentCpuTime() - start;
+    }
+
+    /*
+     * 圧縮結果を取り出して書き込む
+     *
+     * @return 取り出したバイト数
+     */
+    private int deflate(int flush) throws IOException {
+        int n = deflater.deflate(output, 0, output.length, flush);
+        if (n > 0) {
+            getResponse().getOutputStream().write(output, 0, n);
+            compressedBytes += n;
+        }
+        return n;
+    }
+
+    /*
+     * 書き込んだ本文を送信する（圧縮中の場合はそれまでの入力を圧縮結果として出力させる）
+     */
+    private void flushStream() throws IOException {
+        if (state == State.COMPRESSING) {
+            long start = CompressionMetrics.currentCpuTime();
+            while (deflate(Deflater.SYNC_FLUSH) == output.length) {
+                // 出力し切るまで繰り返す
+            }
+            cpuNanos += CompressionMetrics.currentCpuTime() - start;
+        }
+        if (state != State.BUFFERING) {
+            getResponse().getOutputStream().flush();
+        }
+    }
+
+    /*
+     * プールからDeflaterを取り出す（プールが空の場合は新しく生成する）
+     */
+    private static Deflater acquireDeflater(int level) {
+        Deflater d = DEFLATERS.poll();
+        if (d == null) {
+            return new Deflater(level, true);
+        }
+        pooledDeflaters.decrementAndGet();
+        d.setLevel(level);
+        return d;
+    }
+
+    /*
+     * Deflaterをプールに戻す（プールが一杯の場合はネイティブのメモリを解放して破棄する）
+     */
+    private void releaseDeflater() {
+        deflater.reset();
+        if (pooledDeflaters.incrementAndGet() <= MAX_POOLED_DEFLATERS) {
+            DEFLATERS.offer(deflater);
+        } else {
+            pooledDeflaters.decrementAndGet();
+            deflater.end();
+        }
+        deflater = null;
+        output = null;
+    }
+
+    private static void writeIntLE(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+
+    /*
+     * 本文の書き込み先
+     */
+    private class Stream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            CompressionResponseWrapper.this.write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressionResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushStream();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (state != State.PASSING) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            // ノンブロッキングの書き込みでは圧縮せず、元のレスポンスにそのまま書き込む
+            if (state == State.COMPRESSING || encodingSet) {
+                throw new IllegalStateException("response is already being compressed");
+            }
+            try {
+                pass();
+                getResponse().getOutputStream().setWriteListener(listener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package filters;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import utils.RequestEntityManager;
+
+/**
+ * Servlet Filter implementation class EntityManagerFilter
+ * リクエストごとに全てのサービスで共有するEntityManagerを用意し、リクエストの終了時に必ずクローズする
+ * LoginFilter・Actionクラス・サービスで例外が発生した場合も、EntityManagerとDB接続は残らない
+ * 非同期モードではActionクラスの処理の終了後（非同期処理の完了時）にクローズする
+ * LoginFilterのサービスでも使用するため、web.xmlで登録する
+ */
+public class EntityManagerFilter implements Filter {
+
+    // リクエストで共有するEntityManagerを保持するリクエストスコープの名前
+    private static final String SCOPE_ATTRIBUTE = EntityManagerFilter.class.getName() + ".scope";
+
+    /**
+     * Default constructor.
+     */
+    public EntityManagerFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        RequestEntityManager scope = new RequestEntityManager(req.getMethod() + " " + req.getRequestURI()
+                + (req.getQueryString() == null ? "" : "?" + req.getQueryString()));
+        request.setAttribute(SCOPE_ATTRIBUTE, scope);
+
+        RequestEntityManager previous = RequestEntityManager.bind(scope);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestEntityManager.bind(previous);
+            if (request.isAsyncStarted()) {
+                // 非同期処理ではActionクラスの処理の終了後にクローズする
+                addCloseListener(request, scope);
+            } else {
+                scope.close();
+            }
+        }
+    }
+
+    /*
+     * 非同期処理の完了時にEntityManagerをクローズする
+     * 既に完了している場合はその場でクローズする
+     */
+    private void addCloseListener(ServletRequest request, RequestEntityManager scope) {
+        try {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    scope.close();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    scope.close();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    scope.close();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } catch (IllegalStateException e) {
+            scope.close();
+        }
+    }
+
+    /*
+     * リクエストで共有するEntityManagerを処理中のスレッドに関連付ける（非同期モードでActionクラスを実行するスレッドで呼び出す）
+     *
+     * @return それまで関連付けていたEntityManager（処理の終了時にRequestEntityManager.bindで関連付け直す）
+     */
+    public static RequestEntityManager bind(ServletRequest request) {
+        return RequestEntityManager.bind((RequestEntityManager) request.getAttribute(SCOPE_ATTRIBUTE));
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+    }
+
+}
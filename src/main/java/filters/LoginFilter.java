@@ -1,6 +1,7 @@
 package filters;
 
 import java.io.IOException;
+import java.util.List;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -14,16 +15,30 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
-import actions.views.EmployeeView;
+import actions.views.LoginPrincipal;
 import constants.AttributeConst;
 import constants.ForwardConst;
+import constants.MessageConst;
+import constants.PropertyConst;
+import services.EmployeeService;
+import utils.ApiJsonWriter;
+import utils.StaticAssets;
 
 /**
  * Servlet Filter implementation class LoginFilter
  */
-@WebFilter("/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class LoginFilter implements Filter {
 
+    // 認証処理から除外するCSSフォルダ
+    private static final String CSS_PATH = "/css/";
+
+    // ログイン中の従業員を従業員テーブルと照合する間隔のデフォルト値（ミリ秒）
+    private static final long DEFAULT_REVALIDATE_MILLIS = 60000;
+
+    // ログイン中の従業員を従業員テーブルと照合する間隔（ミリ秒）
+    private long revalidateMillis = DEFAULT_REVALIDATE_MILLIS;
+
     /**
      * Default constructor.
      */
@@ -43,8 +58,8 @@ public class LoginFilter implements Filter {
         String contextPath = ((HttpServletRequest) request).getContextPath();
         String servletPath = ((HttpServletRequest) request).getServletPath();
 
-        if (servletPath.matches("/css.*")) {
-            // CSSフォルダ内は認証処理から除外する
+        if (servletPath.startsWith(CSS_PATH) || servletPath.equals(StaticAssets.URL_PREFIX)) {
+            // CSSフォルダ内・ハッシュ値を含むURLの静的ファイルは認証処理から除外する（セッションも作成しない）
             chain.doFilter(request, response);
 
         } else {
@@ -55,10 +70,30 @@ public class LoginFilter implements Filter {
             String command = request.getParameter(ForwardConst.CMD.getValue());
 
             // セッションからログインしている従業員の情報を取得
-            EmployeeView ev = (EmployeeView)session.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+            LoginPrincipal ev = (LoginPrincipal)session.getAttribute(AttributeConst.LOGIN_EMP.getValue());
+
+            // 一定時間ごと、またはこのサーバーで従業員が更新・削除された場合は従業員テーブルと照合する
+            // 論理削除されている場合はログインしていないものとして扱う
+            long now = System.currentTimeMillis();
+            if (ev != null && (now - ev.getValidatedAt() >= revalidateMillis
+                    || EmployeeService.getChangedAt(ev.getId()) >= ev.getValidatedAt())) {
+                ev = revalidate(ev, now);
+                if (ev == null) {
+                    session.removeAttribute(AttributeConst.LOGIN_EMP.getValue());
+                } else {
+                    session.setAttribute(AttributeConst.LOGIN_EMP.getValue(), ev);
+                }
+            }
 
             if (ev == null) {
                 // ログインしていない場合
+                if (ForwardConst.ACT_API_REP.getValue().equals(action)
+                        || ForwardConst.ACT_API_EMP.getValue().equals(action)) {
+                    // APIはログイン画面にリダイレクトせず、401を返却する
+                    ApiJsonWriter.sendErrors((HttpServletResponse) response, HttpServletResponse.SC_UNAUTHORIZED,
+                            List.of(MessageConst.E_API_UNAUTHORIZED.getMessage()));
+                    return;
+                }
                 if (!(ForwardConst.ACT_AUTH.getValue().equals(action)
                         && (ForwardConst.CMD_SHOW_LOGIN.getValue().equals(command)
                         || ForwardConst.CMD_LOGIN.getValue().equals(command)))) {
@@ -99,10 +134,32 @@ public class LoginFilter implements Filter {
         }
     }
 
+    /*
+     * ログイン中の従業員を従業員テーブルと照合する
+     *
+     * @return 照合後の従業員（論理削除されている場合null）
+     */
+    private LoginPrincipal revalidate(LoginPrincipal principal, long now) {
+        EmployeeService service = new EmployeeService();
+        try {
+            return service.revalidate(principal, now);
+        } finally {
+            service.close();
+        }
+    }
+
     /**
      * @see Filter#init(FilterConfig)
      */
     public void init(FilterConfig fConfig) throws ServletException {
+        Object value = fConfig.getServletContext().getAttribute(PropertyConst.SESSION_REVALIDATE_MILLIS.getValue());
+        if (value != null) {
+            try {
+                revalidateMillis = Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException e) {
+                revalidateMillis = DEFAULT_REVALIDATE_MILLIS;
+            }
+        }
     }
 
 }
@@ -0,0 +1,387 @@
+package filters;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.http.HttpSession;
+
+import constants.PropertyConst;
+import utils.FileSessionStore;
+import utils.NearCachedSessionStore;
+import utils.SessionData;
+import utils.SessionStore;
+
+/**
+ * Servlet Filter implementation class SessionStoreFilter
+ * HTTPセッションをアプリケーションサーバーのメモリではなくセッションストアに保存する
+ * request.getSession()がセッションストアのセッションを返却するため、Actionクラス・LoginFilter・jspは変更せずに使用できる
+ * 属性の変更は1リクエストにつき1回だけ保存し（リダイレクト・エラーの送信前、またはリクエストの終了時）、
+ * 変更がない場合は一定時間ごとに最終アクセス日時のみを保存する
+ * LoginFilterより先に実行するため、web.xmlで登録する（session.store.dirが未設定の場合は何もしない）
+ */
+public class SessionStoreFilter implements Filter {
+
+    // セッションIDを保持するCookieの名前
+    static final String COOKIE_NAME = "SESSION";
+
+    // 変更がない場合に最終アクセス日時を保存する間隔（ミリ秒）
+    private static final long TOUCH_INTERVAL_MILLIS = 60 * 1000;
+
+    // 無効になったセッションを削除する間隔（分）
+    private static final long PURGE_INTERVAL_MINUTES = 10;
+
+    // メモリに保持するセッションの上限数・時間のデフォルト値
+    private static final int DEFAULT_NEAR_CACHE_SIZE = 10000;
+    private static final long DEFAULT_NEAR_CACHE_MILLIS = 2000;
+
+    // セッションが無効になるまでの時間のデフォルト値（秒）
+    private static final int DEFAULT_MAX_INACTIVE_INTERVAL = 30 * 60;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private ServletContext context;
+
+    // セッションストア（未設定の場合null）
+    private SessionStore store;
+
+    // 新しいセッションが無効になるまでの時間（秒）
+    private int maxInactiveInterval = DEFAULT_MAX_INACTIVE_INTERVAL;
+
+    // 無効になったセッションを削除するスレッド
+    private ScheduledExecutorService purger;
+
+    /**
+     * Default constructor.
+     */
+    public SessionStoreFilter() {
+    }
+
+    /**
+     * @see Filter#destroy()
+     */
+    public void destroy() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * @see Filter#doFilter(ServletRequest, ServletResponse, FilterChain)
+     */
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (store == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        StoreRequest req = new StoreRequest((HttpServletRequest) request, (HttpServletResponse) response);
+        StoreResponse res = new StoreResponse((HttpServletResponse) response, req);
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            if (req.isAsyncStarted()) {
+                // 非同期処理ではActionクラスの処理の終了後に保存する
+                addCommitListener(req);
+            } else {
+                req.commitSession();
+            }
+        }
+    }
+
+    /*
+     * 非同期処理の完了時にセッションの変更を保存する
+     * 既に完了している場合はその場で保存する
+     */
+    private void addCommitListener(StoreRequest req) throws IOException {
+        try {
+            req.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) throws IOException {
+                    req.commitSession();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) throws IOException {
+                    req.commitSession();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) throws IOException {
+                    req.commitSession();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } catch (IllegalStateException e) {
+            req.commitSession();
+        }
+    }
+
+    /**
+     * @see Filter#init(FilterConfig)
+     */
+    public void init(FilterConfig fConfig) throws ServletException {
+        context = fConfig.getServletContext();
+        Object dir = context.getAttribute(PropertyConst.SESSION_STORE_DIR.getValue());
+        if (dir == null || dir.toString().trim().equals("")) {
+            return;
+        }
+
+        try {
+            store = new NearCachedSessionStore(
+                    new FileSessionStore(Paths.get(dir.toString().trim())),
+                    (int) getLongProperty(PropertyConst.SESSION_NEAR_CACHE_SIZE, DEFAULT_NEAR_CACHE_SIZE),
+                    getLongProperty(PropertyConst.SESSION_NEAR_CACHE_MILLIS, DEFAULT_NEAR_CACHE_MILLIS));
+        } catch (IOException e) {
+            throw new ServletException("session store could not be opened: " + dir, e);
+        }
+        if (context.getSessionTimeout() > 0) {
+            maxInactiveInterval = context.getSessionTimeout() * 60;
+        }
+
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-purger");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(() -> {
+            try {
+                store.purgeExpired(System.currentTimeMillis());
+            } catch (IOException | RuntimeException e) {
+                context.log("session purge failed", e);
+            }
+        }, PURGE_INTERVAL_MINUTES, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+
+        context.log("bootstrap: sessions stored in " + dir);
+    }
+
+    /*
+     * アプリケーションスコープから正の数値の設定値を取得する（未設定・不正な場合はデフォルト値）
+     */
+    private long getLongProperty(PropertyConst key, long defaultValue) {
+        Object value = context.getAttribute(key.getValue());
+        try {
+            long number = Long.parseLong(value.toString().trim());
+            return number > 0 ? number : defaultValue;
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /*
+     * 推測できないセッションIDを生成する（32バイトの乱数 URLで使用できるBase64）
+     */
+    private static String newSessionId() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /*
+     * getSessionでセッションストアのセッションを返却するリクエスト
+     */
+    private class StoreRequest extends HttpServletRequestWrapper {
+        private final HttpServletResponse response;
+
+        // Cookieで送信されたセッションID（送信されていない場合null）
+        private final String requestedId;
+
+        // このリクエストで使用しているセッション（まだ使用していない場合null）
+        private StoreBackedSession session;
+        private boolean loaded;
+
+        // 削除するセッションのID（invalidate・changeSessionIdの変更前のID）
+        private final List<String> deleted = new ArrayList<>();
+
+        StoreRequest(HttpServletRequest request, HttpServletResponse response) {
+            super(request);
+            this.response = response;
+            this.requestedId = findRequestedId(request);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            if (session != null && !session.isInvalidated()) {
+                return session;
+            }
+            if (session != null) {
+                // invalidateされたセッションは削除し、必要な場合は新しいセッションを作成する
+                deleted.add(session.getId());
+                session = null;
+            } else if (!loaded) {
+                loaded = true;
+                if (requestedId != null) {
+                    try {
+                        SessionData data = store.load(requestedId);
+                        if (data != null) {
+                            session = StoreBackedSession.restore(context, data);
+                            return session;
+                        }
+                    } catch (IOException | IllegalArgumentException e) {
+                        context.log("session could not be loaded", e);
+                    }
+                }
+            }
+            if (!create) {
+                return null;
+            }
+
+            session = StoreBackedSession.create(context, newSessionId(), System.currentTimeMillis(), maxInactiveInterval);
+            sendCookie(session.getId(), -1);
+            return session;
+        }
+
+        @Override
+        public String changeSessionId() {
+            if (session == null || session.isInvalidated()) {
+                throw new IllegalStateException("no session");
+            }
+            deleted.add(session.getId());
+            session.changeId(newSessionId());
+            sendCookie(session.getId(), -1);
+            return session.getId();
+        }
+
+        @Override
+        public String getRequestedSessionId() {
+            return requestedId;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            HttpSession current = getSession(false);
+            return requestedId != null && current != null && requestedId.equals(current.getId());
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return requestedId != null;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromURL() {
+            return false;
+        }
+
+        /*
+         * セッションの変更を保存する（変更がなく、最終アクセス日時の保存も不要な場合は何もしない）
+         */
+        synchronized void commitSession() throws IOException {
+            for (String id : deleted) {
+                store.delete(id);
+            }
+            deleted.clear();
+
+            if (session == null) {
+                return;
+            }
+            if (session.isInvalidated()) {
+                store.delete(session.getId());
+                sendCookie("", 0);
+                session = null;
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (session.isDirty() || now - session.getLastAccessedTime() >= TOUCH_INTERVAL_MILLIS) {
+                store.save(session.toData(now));
+                session.markSaved(now);
+            }
+        }
+
+        /*
+         * セッションIDのCookieを送信する（送信済みのレスポンスには送信できない）
+         *
+         * @param maxAge 有効期間（秒 -1: ブラウザを閉じるまで 0: 削除）
+         */
+        private void sendCookie(String value, int maxAge) {
+            if (response.isCommitted()) {
+                return;
+            }
+            Cookie cookie = new Cookie(COOKIE_NAME, value);
+            String path = getContextPath();
+            cookie.setPath(path.equals("") ? "/" : path);
+            cookie.setHttpOnly(true);
+            cookie.setSecure(isSecure());
+            cookie.setMaxAge(maxAge);
+            response.addCookie(cookie);
+        }
+
+        private String findRequestedId(HttpServletRequest request) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (COOKIE_NAME.equals(cookie.getName()) && !cookie.getValue().equals("")) {
+                        return cookie.getValue();
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * リダイレクト・エラーの送信前にセッションの変更を保存するレスポンス
+     * （ブラウザがリダイレクト先を要求した時点で、変更が保存されているようにする）
+     */
+    private static class StoreResponse extends HttpServletResponseWrapper {
+        private final StoreRequest request;
+
+        StoreResponse(HttpServletResponse response, StoreRequest request) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            request.commitSession();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            request.commitSession();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            request.commitSession();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            request.commitSession();
+            super.flushBuffer();
+        }
+    }
+}
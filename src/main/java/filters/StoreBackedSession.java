@@ -0,0 +1,238 @@
+package filters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+
+import utils.SessionData;
+
+/*
+ * セッションストアから読み込んだHTTPセッション（1リクエストの間だけ使用する）
+ * 属性の変更はメモリ上で行い、リクエストの終了時などにまとめて1回だけ保存する
+ * 属性の値は直列化できる不変のオブジェクトとする（取得した値を変更しても保存されない）
+ */
+class StoreBackedSession implements HttpSession {
+
+    private final ServletContext context;
+    private String id;
+    private final long creationTime;
+    private long lastAccessedTime;
+    private int maxInactiveInterval;
+    private final boolean isNew;
+
+    // 属性名→値
+    private final Map<String, Object> attributes;
+
+    // 保存後に属性などを変更したか
+    private boolean dirty;
+
+    // invalidateされたか
+    private boolean invalidated;
+
+    private StoreBackedSession(ServletContext context, String id, long creationTime, long lastAccessedTime,
+            int maxInactiveInterval, Map<String, Object> attributes, boolean isNew) {
+        this.context = context;
+        this.id = id;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.attributes = attributes;
+        this.isNew = isNew;
+        this.dirty = isNew;
+    }
+
+    /*
+     * 新しいセッションを作成する
+     */
+    static StoreBackedSession create(ServletContext context, String id, long now, int maxInactiveInterval) {
+        return new StoreBackedSession(context, id, now, now, maxInactiveInterval, new LinkedHashMap<>(), true);
+    }
+
+    /*
+     * セッションストアから読み込んだセッションを復元する
+     * 復元できない属性（クラスの変更など）は破棄する
+     */
+    static StoreBackedSession restore(ServletContext context, SessionData data) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : data.getAttributes().entrySet()) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(entry.getValue()))) {
+                attributes.put(entry.getKey(), in.readObject());
+            } catch (IOException | ClassNotFoundException e) {
+                context.log("session attribute discarded: " + entry.getKey(), e);
+            }
+        }
+        return new StoreBackedSession(context, data.getId(), data.getCreationTime(), data.getLastAccessedTime(),
+                data.getMaxInactiveInterval(), attributes, false);
+    }
+
+    /*
+     * 保存する形式に変換する
+     *
+     * @param now 最終アクセス日時とする時刻
+     */
+    SessionData toData(long now) throws IOException {
+        Map<String, byte[]> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(entry.getValue());
+            }
+            values.put(entry.getKey(), bytes.toByteArray());
+        }
+        return new SessionData(id, creationTime, now, maxInactiveInterval, Collections.unmodifiableMap(values));
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /*
+     * 保存したことを記録する
+     *
+     * @param savedAt 保存した最終アクセス日時
+     */
+    void markSaved(long savedAt) {
+        lastAccessedTime = savedAt;
+        dirty = false;
+    }
+
+    boolean isInvalidated() {
+        return invalidated;
+    }
+
+    /*
+     * セッションIDを変更する（変更前のIDの削除は呼び出し元で行う）
+     */
+    void changeId(String newId) {
+        checkValid();
+        id = newId;
+        dirty = true;
+    }
+
+    @Override
+    public long getCreationTime() {
+        checkValid();
+        return creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        checkValid();
+        return lastAccessedTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return context;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+        maxInactiveInterval = interval;
+        dirty = true;
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return maxInactiveInterval;
+    }
+
+    @Override
+    @Deprecated
+    public javax.servlet.http.HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        checkValid();
+        return attributes.get(name);
+    }
+
+    @Override
+    @Deprecated
+    public Object getValue(String name) {
+        return getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        checkValid();
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    @Deprecated
+    public String[] getValueNames() {
+        checkValid();
+        return attributes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        checkValid();
+        if (value == null) {
+            removeAttribute(name);
+            return;
+        }
+        if (!(value instanceof Serializable)) {
+            throw new IllegalArgumentException("session attribute is not serializable: " + name);
+        }
+        attributes.put(name, value);
+        dirty = true;
+    }
+
+    @Override
+    @Deprecated
+    public void putValue(String name, Object value) {
+        setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        checkValid();
+        if (attributes.remove(name) != null) {
+            dirty = true;
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void removeValue(String name) {
+        removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        checkValid();
+        invalidated = true;
+        attributes.clear();
+    }
+
+    @Override
+    public boolean isNew() {
+        checkValid();
+        return isNew;
+    }
+
+    private void checkValid() {
+        if (invalidated) {
+            throw new IllegalStateException("session has been invalidated");
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package listeners;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+import constants.PropertyConst;
+import services.ReportSearchIndex;
+import services.RowCounters;
+import services.StatisticsService;
+import utils.DBUtil;
+import utils.PooledConnectionProvider;
+import utils.QueryMetrics;
+
+/*
+ * 起動時にEntityManagerFactoryを生成し、終了時に破棄するリスナー
+ * コネクションプールの設定を使用するため、web.xmlでPropertiesListenerの後に登録する
+ */
+public class DBListener implements ServletContextListener {
+
+    // 件数をDBと突き合わせる間隔のデフォルト値（秒）
+    private static final long DEFAULT_RECONCILE_INTERVAL = 300;
+
+    // 全文検索の索引を保存する間隔のデフォルト値（秒）
+    private static final long DEFAULT_SEARCH_SAVE_INTERVAL = 60;
+
+    // 件数の突き合わせを定期実行するスレッド
+    private ScheduledExecutorService scheduler;
+
+    // 全文検索の索引の読み込み・保存を行うスレッド
+    private ScheduledExecutorService searchScheduler;
+
+    public DBListener() {
+    }
+
+    /**
+     * Webアプリケーションのシャットダウン時に実行する処理
+     */
+    public void contextDestroyed(ServletContextEvent arg0) {
+        // 件数の突き合わせを停止する
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        // 全文検索の索引の読み込み・定期保存を停止し、最新の索引を保存する
+        if (searchScheduler != null) {
+            searchScheduler.shutdownNow();
+        }
+        try {
+            ReportSearchIndex.save();
+        } catch (IOException e) {
+            arg0.getServletContext().log("search index save failed", e);
+        }
+
+        // EntityManagerFactoryとコネクションプールを閉じる
+        DBUtil.close();
+        arg0.getServletContext().log("EntityManagerFactory closed");
+
+        // 遅いクエリのログファイルを閉じる
+        QueryMetrics.closeSlowLogFile();
+    }
+
+    /**
+     * Webアプリケーションの起動時に実行する処理
+     */
+    public void contextInitialized(ServletContextEvent arg0) {
+
+        ServletContext context = arg0.getServletContext();
+        long total = System.nanoTime();
+
+        // 遅いクエリのログの設定
+        configureSlowQueryLog(context);
+
+        // EntityManagerFactoryの生成
+        long start = System.nanoTime();
+        DBUtil.init();
+        context.log(String.format("bootstrap: EntityManagerFactory created in %d ms", toMillis(start)));
+
+        // マイグレーションスクリプトの適用（失敗した場合は起動を中止する）
+        start = System.nanoTime();
+        try {
+            int migrations = DBUtil.migrate();
+            context.log(String.format("bootstrap: %d schema migrations applied in %d ms", migrations, toMillis(start)));
+
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("schema migration failed", e);
+        }
+
+        // 名前付きクエリの事前解析
+        start = System.nanoTime();
+        int queries = DBUtil.warmUpNamedQueries();
+        context.log(String.format("bootstrap: %d named queries parsed in %d ms", queries, toMillis(start)));
+
+        // コネクションプールに接続を確立しておく
+        start = System.nanoTime();
+        try {
+            int connections = DBUtil.warmUpConnections(
+                    DBUtil.getPoolProperty(PropertyConst.DB_POOL_MIN_IDLE, PooledConnectionProvider.DEFAULT_MIN_IDLE));
+            context.log(String.format("bootstrap: %d connections opened in %d ms", connections, toMillis(start)));
+
+        } catch (SQLException e) {
+            // 接続できなくても起動は継続する（初回リクエスト時に再接続される）
+            context.log("bootstrap: connection warm-up failed", e);
+        }
+
+        // 一覧画面に表示する件数を集計する
+        start = System.nanoTime();
+        try {
+            reconcileCounters();
+            context.log(String.format("bootstrap: row counters loaded in %d ms", toMillis(start)));
+
+        } catch (RuntimeException e) {
+            // 集計できなかった場合は初回の件数表示時に集計される
+            context.log("bootstrap: row counter load failed", e);
+        }
+
+        // 件数を定期的にDBと突き合わせる
+        long interval = getReconcileInterval(context);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "row-counter-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcileCounters();
+            } catch (RuntimeException e) {
+                context.log("row counter reconcile failed", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+
+        // 日報の集計テーブルが空の場合は既存の日報から作成する（起動処理とは別のスレッドで行う）
+        scheduler.execute(() -> {
+            long started = System.nanoTime();
+            try {
+                int months = StatisticsService.rebuildIfEmpty();
+                if (months > 0) {
+                    context.log(String.format("report statistics: %d months aggregated in %d ms", months, toMillis(started)));
+                }
+            } catch (RuntimeException e) {
+                context.log("report statistics: initial aggregation failed", e);
+            }
+        });
+
+        // 全文検索の索引を読み込む（作成し直す場合は時間がかかるため、起動処理とは別のスレッドで行う）
+        ReportSearchIndex.setDirectory(getSearchIndexDirectory(context));
+        searchScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search-index");
+            t.setDaemon(true);
+            return t;
+        });
+        searchScheduler.execute(() -> openSearchIndex(context));
+
+        // 他のサーバーで登録・更新された日報を全文検索の索引に定期的に取り込み、保存する
+        long saveInterval = getLongProperty(context, PropertyConst.SEARCH_SAVE_INTERVAL, DEFAULT_SEARCH_SAVE_INTERVAL);
+        searchScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (ReportSearchIndex.isReady()) {
+                    ReportSearchIndex.catchUp();
+                }
+                ReportSearchIndex.save();
+            } catch (IOException | RuntimeException e) {
+                context.log("search index catch-up/save failed", e);
+            }
+        }, saveInterval, saveInterval, TimeUnit.SECONDS);
+
+        context.log(String.format("bootstrap: completed in %d ms", toMillis(total)));
+    }
+
+    /*
+     * 保持している件数をDBの件数で置き換える
+     */
+    private static void reconcileCounters() {
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            RowCounters.rebuild(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    /*
+     * 保存した全文検索の索引を読み込み、停止中の差分を取り込む
+     * 保存した索引がない、または読み込めない場合は日報テーブルから作成し直す
+     */
+    private static void openSearchIndex(ServletContext context) {
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            loaded = ReportSearchIndex.load();
+        } catch (IOException | RuntimeException e) {
+            context.log("search index: saved index is unreadable, rebuilding", e);
+        }
+
+        try {
+            if (loaded) {
+                int updated = ReportSearchIndex.catchUp();
+                context.log(String.format("search index: %d reports loaded (%d updated) in %d ms",
+                        ReportSearchIndex.size(), updated, toMillis(start)));
+            } else {
+                int reports = ReportSearchIndex.rebuild();
+                context.log(String.format("search index: %d reports indexed in %d ms", reports, toMillis(start)));
+            }
+        } catch (RuntimeException e) {
+            context.log("search index: load failed", e);
+        }
+    }
+
+    /*
+     * 遅いクエリとみなす実行時間と、ログの出力先ファイルを設定する
+     */
+    private static void configureSlowQueryLog(ServletContext context) {
+        QueryMetrics.setSlowThresholdMillis(getLongProperty(
+                context, PropertyConst.DB_SLOW_QUERY_THRESHOLD, QueryMetrics.DEFAULT_SLOW_THRESHOLD_MILLIS));
+
+        Object file = context.getAttribute(PropertyConst.DB_SLOW_QUERY_LOG_FILE.getValue());
+        if (file != null && !file.toString().trim().equals("")) {
+            try {
+                QueryMetrics.setSlowLogFile(file.toString().trim());
+            } catch (IOException e) {
+                // 出力先ファイルを開けない場合はサーバーのログに出力する
+                context.log("slow query log file could not be opened", e);
+            }
+        }
+    }
+
+    /*
+     * アプリケーションスコープから件数の突き合わせ間隔（秒）を取得する
+     */
+    private static long getReconcileInterval(ServletContext context) {
+        return getLongProperty(context, PropertyConst.COUNTER_RECONCILE_INTERVAL, DEFAULT_RECONCILE_INTERVAL);
+    }
+
+    /*
+     * アプリケーションスコープから正の数値の設定値を取得する（未設定・不正な場合はデフォルト値）
+     */
+    private static long getLongProperty(ServletContext context, PropertyConst key, long defaultValue) {
+        Object value = context.getAttribute(key.getValue());
+        try {
+            long number = Long.parseLong(value.toString().trim());
+            return number > 0 ? number : defaultValue;
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    /*
+     * 全文検索の索引を保存するディレクトリを取得する
+     * 未設定の場合は一時ディレクトリ配下とする
+     */
+    private static Path getSearchIndexDirectory(ServletContext context) {
+        Object value = context.getAttribute(PropertyConst.SEARCH_INDEX_DIR.getValue());
+        if (value != null && !value.toString().trim().equals("")) {
+            return Paths.get(value.toString().trim());
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), "daily_report_system", "search-index");
+    }
+
+    /*
+     * 開始時刻からの経過時間をミリ秒で返却する
+     */
+    private static long toMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+}
@@ -9,9 +9,13 @@ import java.util.Properties;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
-import javax.servlet.annotation.WebListener;
 
-@WebListener
+import utils.DBUtil;
+
+/*
+ * 起動時にapplication.propertiesを読み込むリスナー
+ * DBListenerより先に実行するため、web.xmlで登録する
+ */
 public class PropertiesListener implements ServletContextListener {
 
     public PropertiesListener() {
@@ -44,6 +48,9 @@ public class PropertiesListener implements ServletContextListener {
                 context.setAttribute(pname, properties.getProperty(pname));
             }
 
+            //コネクションプールの設定をDBUtilに渡す
+            DBUtil.setPoolProperties(properties);
+
         } catch (NullPointerException e) {
             e.printStackTrace();
 
@@ -2,35 +2,59 @@ package models;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.QueryHints;
+
 import constants.JpaConst;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Table(name = JpaConst.TABLE_EMP)
+@Table(name = JpaConst.TABLE_EMP, indexes = {
+        // テーブルの作成・変更はdb/migrationのスクリプトで行う（ここでの定義はスクリプトと一致させること）
+        @Index(name = "idx_employees_code_delete_flag", columnList = JpaConst.EMP_COL_CODE + ", " + JpaConst.EMP_COL_DELETE_FLAG)
+})
 @NamedQueries({
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_ALL,
             query = JpaConst.Q_EMP_GET_ALL_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_ALL_AFTER,
+            query = JpaConst.Q_EMP_GET_ALL_AFTER_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_ALL_BEFORE,
+            query = JpaConst.Q_EMP_GET_ALL_BEFORE_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT,
             query = JpaConst.Q_EMP_COUNT_DEF),
     @NamedQuery(
             name = JpaConst.Q_EMP_COUNT_RESISTERED_BY_CODE,
-            query = JpaConst.Q_EMP_COUNT_RESISTERED_BY_CODE_DEF),
+            query = JpaConst.Q_EMP_COUNT_RESISTERED_BY_CODE_DEF,
+            hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")), // 結果をクエリキャッシュに保持する
     @NamedQuery(
             name = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS,
-            query = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS_DEF)
+            query = JpaConst.Q_EMP_GET_BY_CODE_AND_PASS_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_BY_CODES,
+            query = JpaConst.Q_EMP_GET_BY_CODES_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_EMP_GET_UPDATE_AT,
+            query = JpaConst.Q_EMP_GET_UPDATE_AT_DEF)
 })
 
 @Getter
@@ -38,6 +62,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@BatchSize(size = JpaConst.ROW_PER_PAGE) // 遅延取得時は1ページ分をまとめて取得する
+@Cacheable // 2次キャッシュに保持する（上限件数・有効期限はapplication.confで設定）
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = JpaConst.CACHE_REGION_EMP)
 public class Employee {
 
     /*
@@ -5,9 +5,11 @@ import java.time.LocalDateTime;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
@@ -21,20 +23,89 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Table(name = JpaConst.TABLE_REP)
+@Table(name = JpaConst.TABLE_REP, indexes = {
+        // テーブルの作成・変更はdb/migrationのスクリプトで行う（ここでの定義はスクリプトと一致させること）
+        @Index(name = "idx_reports_employee_id_id", columnList = JpaConst.REP_COL_EMP + ", " + JpaConst.REP_COL_ID),
+        @Index(name = "idx_reports_report_date", columnList = JpaConst.REP_COL_REP_DATE),
+        @Index(name = "idx_reports_updated_at", columnList = JpaConst.REP_COL_UPDATED_AT),
+        @Index(name = "idx_reports_employee_id_report_date", columnList = JpaConst.REP_COL_EMP + ", " + JpaConst.REP_COL_REP_DATE)
+})
 @NamedQueries({
     @NamedQuery(
-            name = JpaConst.Q_REP_GET_ALL,
-            query = JpaConst.Q_REP_GET_ALL_DEF),
+            name = JpaConst.Q_REP_GET_ALL_SUMMARY,
+            query = JpaConst.Q_REP_GET_ALL_SUMMARY_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_SUMMARY_AFTER,
+            query = JpaConst.Q_REP_GET_ALL_SUMMARY_AFTER_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_SUMMARY_BEFORE,
+            query = JpaConst.Q_REP_GET_ALL_SUMMARY_BEFORE_DEF),
     @NamedQuery(
             name = JpaConst.Q_REP_COUNT,
             query = JpaConst.Q_REP_COUNT_DEF),
     @NamedQuery(
-            name = JpaConst.Q_REP_GET_ALL_MINE,
-            query = JpaConst.Q_REP_GET_ALL_MINE_DEF),
+            name = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY,
+            query = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_AFTER,
+            query = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_AFTER_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_BEFORE,
+            query = JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_COUNT_GROUP_BY_EMP,
+            query = JpaConst.Q_REP_COUNT_GROUP_BY_EMP_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_GET_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_SUMMARY_BY_IDS,
+            query = JpaConst.Q_REP_GET_SUMMARY_BY_IDS_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_ID_RANGE,
+            query = JpaConst.Q_REP_GET_ID_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_FOR_SEARCH_BY_ID_RANGE,
+            query = JpaConst.Q_REP_GET_FOR_SEARCH_BY_ID_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_FOR_SEARCH_UPDATED,
+            query = JpaConst.Q_REP_GET_FOR_SEARCH_UPDATED_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_AFTER,
+            query = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_AFTER_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_BEFORE,
+            query = JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_COUNT_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_COUNT_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_AFTER,
+            query = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_AFTER_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_BEFORE,
+            query = JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_BEFORE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_COUNT_MINE_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_COUNT_MINE_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_MINE_DATES_BY_DATE_RANGE,
+            query = JpaConst.Q_REP_GET_MINE_DATES_BY_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_DATE_RANGE,
+            query = JpaConst.Q_REP_GET_DATE_RANGE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_REP_GET_UPDATED_AT,
+            query = JpaConst.Q_REP_GET_UPDATED_AT_DEF),
     @NamedQuery(
-            name = JpaConst.Q_REP_COUNT_ALL_MINE,
-            query = JpaConst.Q_REP_COUNT_ALL_MINE_DEF)
+            name = JpaConst.Q_REP_GET_LIST_UPDATED_AT,
+            query = JpaConst.Q_REP_GET_LIST_UPDATED_AT_DEF)
 })
 
 @Getter
@@ -54,8 +125,9 @@ public class Report {
 
     /**
      * 日報を登録した従業員（作成者）
+     * 一覧取得時に1件ずつ読み込まないよう遅延取得とし、必要なクエリではJOIN FETCHで取得する
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = JpaConst.REP_COL_EMP, nullable = false)
     private Employee employee;
 
@@ -68,7 +140,7 @@ public class Report {
     /**
      * タイトル
      */
-    @Column(name = JpaConst.REP_COL_TITLE, length = 255, nullable = false)
+    @Column(name = JpaConst.REP_COL_TITLE, length = JpaConst.REP_TITLE_LENGTH, nullable = false)
     private String title;
 
     /**
@@ -0,0 +1,92 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import constants.JpaConst;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * 従業員・日報日付ごとの日報の件数（集計テーブル）
+ * 行の追加・更新は日報の登録・更新と同じトランザクションでSQLを直接発行して行うため、
+ * このエンティティは統計画面の読み込みにのみ使用する
+ */
+@Table(name = JpaConst.TABLE_STAT, indexes = {
+        // テーブルの作成・変更はdb/migrationのスクリプトで行う（ここでの定義はスクリプトと一致させること）
+        @Index(name = "idx_report_daily_stats_report_date", columnList = JpaConst.STAT_COL_REP_DATE + ", " + JpaConst.STAT_COL_EMP + ", " + JpaConst.STAT_COL_COUNT)
+})
+@NamedQueries({
+    @NamedQuery(
+            name = JpaConst.Q_STAT_GET_BY_EMP,
+            query = JpaConst.Q_STAT_GET_BY_EMP_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STAT_GET_BY_DATE,
+            query = JpaConst.Q_STAT_GET_BY_DATE_DEF),
+    @NamedQuery(
+            name = JpaConst.Q_STAT_COUNT,
+            query = JpaConst.Q_STAT_COUNT_DEF)
+})
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ReportDailyStat.Key.class)
+public class ReportDailyStat {
+
+    /**
+     * 日報を作成した従業員のid
+     */
+    @Id
+    @Column(name = JpaConst.STAT_COL_EMP)
+    private Integer employeeId;
+
+    /**
+     * 日報日付
+     */
+    @Id
+    @Column(name = JpaConst.STAT_COL_REP_DATE)
+    private LocalDate reportDate;
+
+    /**
+     * 日報の件数
+     */
+    @Column(name = JpaConst.STAT_COL_COUNT, nullable = false)
+    private Integer reportCount;
+
+    /**
+     * 最終更新日時（集計対象の日報の登録・更新日時のうち最新のもの）
+     */
+    @Column(name = JpaConst.STAT_COL_LAST_UPDATED, nullable = false)
+    private LocalDateTime lastUpdated;
+
+    /*
+     * 主キー（従業員id・日報日付）
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer employeeId;
+        private LocalDate reportDate;
+    }
+}
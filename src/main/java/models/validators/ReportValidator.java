@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import actions.views.ReportView;
+import constants.JpaConst;
 import constants.MessageConst;
 
 /*
@@ -45,6 +46,11 @@ public class ReportValidator {
             return MessageConst.E_NOTITLE.getMessage();
         }
 
+        //DBのカラムの長さを超える場合はエラー
+        if (title.length() > JpaConst.REP_TITLE_LENGTH) {
+            return MessageConst.E_TITLE_TOO_LONG.getMessage();
+        }
+
         //入力値がある場合は空文字を返却
         return "";
     }
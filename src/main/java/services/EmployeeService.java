@@ -2,29 +2,50 @@ package services;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.NoResultException;
 
+import actions.views.CursorPage;
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
+import actions.views.LoginPrincipal;
 import constants.JpaConst;
 import models.Employee;
 import models.validators.EmployeeValidator;
 import utils.EncryptUtil;
+import utils.QueryMetrics;
 
 public class EmployeeService extends ServiceBase {
 
+    // 従業員id→このサーバーで最後に更新・削除した時刻（ミリ秒 ログイン中の従業員の再検証に使用する）
+    private static final Map<Integer, Long> changedAt = new ConcurrentHashMap<>();
+
+    /**
+     * このサーバーで従業員を最後に更新・削除した時刻を返却する
+     *
+     * @return 時刻（ミリ秒 起動後に更新・削除していない場合0）
+     */
+    public static long getChangedAt(int id) {
+        return changedAt.getOrDefault(id, 0L);
+    }
+
     /*
-     * 指定されたページに表示するデータを取得し、EmployeeViewのリストで返却
+     * カーソルが示す1ページ分のデータを取得し、EmployeeViewのリストで返却
      *
-     * @return 表示するデータのリスト
+     * @param cursor 前後のページを示すカーソル（nullの場合は先頭ページ）
+     * @return 表示するデータと前後のページのカーソル
      */
-    public List<EmployeeView> getPerPage(int page) {
-        List<Employee> employees = em.createNamedQuery(JpaConst.Q_EMP_GET_ALL, Employee.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
-        return EmployeeConverter.toViewList(employees);
+    public CursorPage<EmployeeView> getPerCursor(String cursor) {
+        CursorPage<Employee> employees = getPerCursorInternal(cursor,
+                name -> QueryMetrics.createNamedQuery(readEm(), name, Employee.class),
+                JpaConst.Q_EMP_GET_ALL,
+                JpaConst.Q_EMP_GET_ALL_AFTER,
+                JpaConst.Q_EMP_GET_ALL_BEFORE,
+                Employee::getId);
+        return new CursorPage<>(EmployeeConverter.toViewList(employees.getItems()),
+                employees.getNextCursor(), employees.getPrevCursor());
     }
 
     /**
@@ -33,10 +54,10 @@ public class EmployeeService extends ServiceBase {
      * @return 従業員テーブルのデータの件数
      */
     public long countAll() {
-        long empCount = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT, Long.class)
-                .getSingleResult();
 
-        return empCount;
+        // COUNTクエリは発行せず、保持している件数を返却する
+        RowCounters.ensureLoaded(this::em);
+        return RowCounters.getEmployeeCount();
     }
 
     /**
@@ -52,7 +73,7 @@ public class EmployeeService extends ServiceBase {
             String pass = EncryptUtil.getPasswordEncrypt(plainPass, pepper);
 
             //社員番号とハッシュ化済パスワードを条件に未削除の従業員を1件取得する
-            e = em.createNamedQuery(JpaConst.Q_EMP_GET_BY_CODE_AND_PASS, Employee.class)
+            e = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_EMP_GET_BY_CODE_AND_PASS, Employee.class)
                     .setParameter(JpaConst.JPQL_PARM_CODE, code)
                     .setParameter(JpaConst.JPQL_PARM_PASSWORD, pass)
                     .getSingleResult();
@@ -69,10 +90,46 @@ public class EmployeeService extends ServiceBase {
      * @return 取得データEmployeeView
      */
     public EmployeeView findOne(int id) {
+        // 2次キャッシュから取得できるため、レプリカではなくプライマリのEntityManagerを使用する
         Employee e = findOneInternal(id);
         return EmployeeConverter.toView(e);
     }
 
+    /*
+     * idを条件に未削除の従業員の更新日時のみを取得する（詳細画面の条件付きGETの判定に使用する）
+     *
+     * @return 更新日時（該当する従業員がいない、または論理削除されている場合null）
+     */
+    public LocalDateTime getLastModified(int id) {
+        // findOneと同じくプライマリから取得する
+        List<LocalDateTime> rows = QueryMetrics.createNamedQuery(em(), JpaConst.Q_EMP_GET_UPDATE_AT, LocalDateTime.class)
+                .setParameter(JpaConst.JPQL_PARM_ID, id)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * セッションに保持しているログイン中の従業員を従業員テーブルと照合する
+     * 更新日時のみを取得し、更新されていない場合は従業員を読み込まない
+     *
+     * @param principal ログイン中の従業員
+     * @param now 照合する時刻（ミリ秒）
+     * @return 照合後の従業員（論理削除されている場合null）
+     */
+    public LoginPrincipal revalidate(LoginPrincipal principal, long now) {
+        LocalDateTime updateAt = getLastModified(principal.getId());
+        if (updateAt == null) {
+            return null;
+        }
+        if (principal.isCurrent(updateAt)) {
+            return principal.validated(now);
+        }
+
+        // 氏名・権限などが更新されている場合は読み込み直す
+        EmployeeView ev = findOne(principal.getId());
+        return ev == null ? null : LoginPrincipal.of(ev, now);
+    }
+
     /**
      * 社員番号を条件に該当するデータの件数を取得し、返却
      *
@@ -81,7 +138,7 @@ public class EmployeeService extends ServiceBase {
     public long countByCode(String code) {
 
         //指定した社員番号を保持する従業員の件数を取得する
-        long employees_count = (long) em.createNamedQuery(JpaConst.Q_EMP_COUNT_RESISTERED_BY_CODE, Long.class)
+        long employees_count = (long) QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_EMP_COUNT_RESISTERED_BY_CODE, Long.class)
                 .setParameter(JpaConst.JPQL_PARM_CODE, code)
                 .getSingleResult();
         return employees_count;
@@ -122,8 +179,8 @@ public class EmployeeService extends ServiceBase {
      */
     public List<String> update(EmployeeView ev, String pepper) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(ev.getId());
+        //idを条件に登録済みの従業員情報を取得する（更新に使用するためプライマリから取得する）
+        EmployeeView savedEmp = EmployeeConverter.toView(findOneInternal(ev.getId()));
 
         boolean validateCode = false;
 
@@ -172,8 +229,8 @@ public class EmployeeService extends ServiceBase {
      */
     public void destroy(Integer id) {
 
-        //idを条件に登録済みの従業員情報を取得する
-        EmployeeView savedEmp = findOne(id);
+        //idを条件に登録済みの従業員情報を取得する（更新に使用するためプライマリから取得する）
+        EmployeeView savedEmp = EmployeeConverter.toView(findOneInternal(id));
 
         //更新日時に現在時刻を設定する
         LocalDateTime today = LocalDateTime.now();
@@ -183,6 +240,7 @@ public class EmployeeService extends ServiceBase {
         savedEmp.setDeleteFlag(JpaConst.EMP_DEL_TRUE);
 
         //更新処理を行う
+        //（論理削除のため、削除済みを含む従業員の件数は変わらない）
         update(savedEmp);
     }
 
@@ -214,7 +272,7 @@ public class EmployeeService extends ServiceBase {
      * @return 取得データのインスタンス
      */
     private Employee findOneInternal(int id) {
-        Employee e = em.find(Employee.class, id);
+        Employee e = em().find(Employee.class, id);
 
         return e;
     }
@@ -226,9 +284,11 @@ public class EmployeeService extends ServiceBase {
      */
     private void create(EmployeeView ev) {
 
-        em.getTransaction().begin();
-        em.persist(EmployeeConverter.toModel(ev));
-        em.getTransaction().commit();
+        em().getTransaction().begin();
+        em().persist(EmployeeConverter.toModel(ev));
+        // コミットと同時に件数を加算する
+        RowCounters.commit(em().getTransaction(), RowCounters::employeeCreated);
+        markWritten();
 
     }
 
@@ -237,10 +297,20 @@ public class EmployeeService extends ServiceBase {
      */
     private void update(EmployeeView ev) {
 
-        em.getTransaction().begin();
+        em().getTransaction().begin();
         Employee e = findOneInternal(ev.getId());
         EmployeeConverter.copyViewToModel(e, ev);
-        em.getTransaction().commit();
+        em().getTransaction().commit();
+        markWritten();
+
+        // コミット後に2次キャッシュから更新前のデータを破棄する
+        em().getEntityManagerFactory().getCache().evict(Employee.class, ev.getId());
+
+        // 日報の一覧画面には氏名を表示するため、一覧画面の世代に反映する
+        ReportService.listChanged();
+
+        // ログイン中の従業員は次のリクエストで再検証する
+        changedAt.put(ev.getId(), System.currentTimeMillis());
 
     }
 }
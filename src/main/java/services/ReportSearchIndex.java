@@ -0,0 +1,326 @@
+package services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import actions.views.ReportView;
+import constants.JpaConst;
+import constants.PropertyConst;
+import utils.BigramTokenizer;
+import utils.DBUtil;
+import utils.InvertedIndex;
+import utils.PooledConnectionProvider;
+import utils.QueryMetrics;
+
+/*
+ * 日報のタイトルと内容の全文検索用の索引を保持するクラス
+ * 起動時にディスクに保存した索引を読み込み（なければ日報テーブルから並列に作成し）、
+ * 日報の登録・更新のコミット時に差分を反映する。他のサーバーで登録・更新された日報は定期的に取り込み、
+ * 索引は定期的にディスクに保存する
+ */
+public class ReportSearchIndex {
+
+    // 索引を保存するファイル名
+    private static final String FILE_NAME = "reports.idx";
+
+    // タイトルの語の重み（内容の語を1とする）
+    private static final int TITLE_WEIGHT = 3;
+
+    // 再作成時に1スレッドが1回に読み込む日報のidの範囲
+    private static final int REBUILD_SLICE = 5000;
+
+    // 差分の取り込み時に遡る時間（秒 他のサーバーとの時刻のずれを考慮する）
+    private static final long CATCH_UP_MARGIN_SECONDS = 60;
+
+    // 差分の取り込み時に永続性コンテキストをクリアする間隔（件数）
+    private static final int CATCH_UP_CLEAR_INTERVAL = 1000;
+
+    // 検索語の最大数（これを超える分は無視する）
+    private static final int MAX_QUERY_TERMS = 32;
+
+    // 索引（再作成時は作成後に置き換える）
+    private static volatile InvertedIndex index = new InvertedIndex();
+
+    // 索引の読み込み・作成が済んでいるかどうか
+    private static volatile boolean ready = false;
+
+    // 最後に保存してから索引が変更されたかどうか
+    private static volatile boolean dirty = false;
+
+    // 索引を保存するディレクトリ
+    private static volatile Path directory;
+
+    /*
+     * 索引を保存するディレクトリを設定する
+     */
+    public static void setDirectory(Path dir) {
+        directory = dir;
+    }
+
+    /*
+     * ディスクに保存した索引を読み込む
+     *
+     * @return 読み込んだ場合true、保存した索引がない場合false
+     * @throws IOException 索引の形式が不正な場合
+     */
+    public static synchronized boolean load() throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            index = InvertedIndex.readFrom(in);
+        }
+        ready = true;
+        dirty = false;
+        return true;
+    }
+
+    /*
+     * 変更があれば索引をディスクに保存する
+     * 一時ファイルに書き出してから置き換えるため、保存中に停止しても前回の索引は失われない
+     */
+    public static synchronized void save() throws IOException {
+        if (!ready || !dirty) {
+            return;
+        }
+        dirty = false;
+
+        Files.createDirectories(directory);
+        Path tmp = directory.resolve(FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            index.writeTo(out);
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        Files.move(tmp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * 日報テーブルから索引を作成し直す
+     * idの範囲ごとに読み込みと語の分割を複数のスレッドで並列に行い、作成後に現在の索引と置き換える
+     * 作成中に登録・更新された日報は、置き換え後に差分として取り込む
+     *
+     * @return 索引に登録した日報の件数
+     */
+    public static synchronized int rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+
+        Object[] range;
+        EntityManager em = DBUtil.createReadOnlyEntityManager();
+        try {
+            range = QueryMetrics.createNamedQuery(em, JpaConst.Q_REP_GET_ID_RANGE, Object[].class).getSingleResult();
+        } finally {
+            em.close();
+        }
+
+        InvertedIndex rebuilt = new InvertedIndex();
+        if (range[0] != null) {
+            int min = (Integer) range[0];
+            int max = (Integer) range[1];
+
+            // 通常のリクエストが使用する接続を残すため、スレッド数はプールの最大接続数の半分までとする
+            int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                    DBUtil.getPoolProperty(PropertyConst.DB_POOL_MAX_SIZE, PooledConnectionProvider.DEFAULT_MAX_SIZE) / 2));
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "search-index-rebuild");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<?>> slices = new ArrayList<>();
+                for (long from = min; from <= max; from += REBUILD_SLICE) {
+                    int sliceFrom = (int) from;
+                    int sliceTo = (int) Math.min(from + REBUILD_SLICE - 1, max);
+                    slices.add(pool.submit(() -> indexRange(rebuilt, sliceFrom, sliceTo)));
+                }
+                for (Future<?> slice : slices) {
+                    slice.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("search index rebuild failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("search index rebuild interrupted", e);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        index = rebuilt;
+        ready = true;
+        dirty = true;
+
+        catchUp(started);
+        return rebuilt.size();
+    }
+
+    /*
+     * 索引済みの日報より後に更新された日報を索引に取り込む
+     * 保存した索引を読み込んだ後と定期的な保存の前に、停止中や他のサーバーで登録・更新された日報を反映するために使用する
+     *
+     * @return 取り込んだ日報の件数
+     */
+    public static synchronized int catchUp() {
+        long version = index.getMaxVersion();
+        if (version == Long.MIN_VALUE) {
+            return 0;
+        }
+        return catchUp(new Timestamp(version).toLocalDateTime());
+    }
+
+    /*
+     * 登録・更新した日報を索引に反映する（コミット後に呼び出す）
+     */
+    public static void reportSaved(ReportView rv) {
+        index.put(rv.getId(), analyze(rv.getTitle(), rv.getContent(), rv.getUpdatedAt()));
+        dirty = true;
+    }
+
+    /*
+     * 一括で登録した日報を索引に反映する（コミット後に呼び出す）
+     * 語の分割は並列に行い、索引への反映は1回で行う
+     */
+    public static void reportsSaved(List<ReportView> views) {
+        Map<Integer, InvertedIndex.Document> documents = views.parallelStream()
+                .filter(rv -> rv.getId() != null)
+                .collect(Collectors.toMap(
+                        ReportView::getId,
+                        rv -> analyze(rv.getTitle(), rv.getContent(), rv.getUpdatedAt())));
+        index.putAll(documents);
+        dirty = true;
+    }
+
+    /*
+     * 検索語を含む日報のidをスコアの降順で返却する
+     *
+     * @param query 検索語（空白区切りで複数指定した場合はすべてを含む日報）
+     * @return 日報のidのリスト
+     */
+    public static List<Integer> search(String query) {
+        List<String> terms = BigramTokenizer.tokenize(query);
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        return index.search(terms).stream()
+                .map(InvertedIndex.Hit::getId)
+                .collect(Collectors.toList());
+    }
+
+    /*
+     * 索引の読み込み・作成が済んでいるかどうかを返却する
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /*
+     * 索引済みの日報の件数を返却する
+     */
+    public static int size() {
+        return index.size();
+    }
+
+    /*
+     * 指定した日時以降に更新された日報を索引に取り込む
+     * 書き込み直後の日報を確実に取り込むため、プライマリDBから読み込む
+     */
+    private static int catchUp(LocalDateTime since) {
+        InvertedIndex target = index;
+        int count = 0;
+        EntityManager em = DBUtil.createEntityManager();
+        Session session = em.unwrap(Session.class);
+
+        // 日報の出力と同じく、カーソルによる読み込みをこの接続にのみ設定する
+        em.getTransaction().begin();
+        session.doWork(DBUtil::enableCursorFetch);
+        try (ScrollableResults results = session
+                .createNamedQuery(JpaConst.Q_REP_GET_FOR_SEARCH_UPDATED, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_UPDATED_AT, since.minusSeconds(CATCH_UP_MARGIN_SECONDS))
+                .setFetchSize(JpaConst.EXPORT_FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            Map<Integer, InvertedIndex.Document> documents = new HashMap<>();
+            while (results.next()) {
+                Object[] row = results.get();
+                documents.put((Integer) row[0], analyze((String) row[1], (String) row[2], (LocalDateTime) row[3]));
+                if (++count % CATCH_UP_CLEAR_INTERVAL == 0) {
+                    target.putAll(documents);
+                    documents.clear();
+                    em.clear();
+                }
+            }
+            target.putAll(documents);
+        } finally {
+            try {
+                session.doWork(DBUtil::resetCursorFetch);
+                em.getTransaction().rollback();
+            } finally {
+                em.close();
+            }
+        }
+
+        if (count > 0) {
+            dirty = true;
+        }
+        return count;
+    }
+
+    /*
+     * idが指定した範囲内の日報を読み込み、索引に登録する（再作成時に各スレッドで実行する）
+     */
+    private static void indexRange(InvertedIndex target, int from, int to) {
+        EntityManager em = DBUtil.createReadOnlyEntityManager();
+        try {
+            List<Object[]> rows = QueryMetrics.createNamedQuery(em, JpaConst.Q_REP_GET_FOR_SEARCH_BY_ID_RANGE, Object[].class)
+                    .setParameter(JpaConst.JPQL_PARM_ID_FROM, from)
+                    .setParameter(JpaConst.JPQL_PARM_ID_TO, to)
+                    .getResultList();
+
+            Map<Integer, InvertedIndex.Document> documents = new HashMap<>();
+            for (Object[] row : rows) {
+                documents.put((Integer) row[0], analyze((String) row[1], (String) row[2], (LocalDateTime) row[3]));
+            }
+            target.putAll(documents);
+        } finally {
+            em.close();
+        }
+    }
+
+    /*
+     * 日報のタイトルと内容を解析する（更新日時を文書のバージョンとする）
+     */
+    private static InvertedIndex.Document analyze(String title, String content, LocalDateTime updatedAt) {
+        return InvertedIndex.analyze(
+                Timestamp.valueOf(updatedAt).getTime(),
+                new String[] { title, content },
+                new int[] { TITLE_WEIGHT, 1 });
+    }
+}
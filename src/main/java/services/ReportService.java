@@ -1,34 +1,167 @@
 package services;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import actions.views.CursorPage;
 import actions.views.EmployeeConverter;
 import actions.views.EmployeeView;
+import actions.views.ReportCalendarView;
 import actions.views.ReportConverter;
+import actions.views.ReportImportError;
+import actions.views.ReportImportResult;
+import actions.views.ReportImportRow;
+import actions.views.ReportSummaryView;
 import actions.views.ReportView;
 import constants.JpaConst;
+import constants.MessageConst;
+import models.Employee;
 import models.Report;
 import models.validators.ReportValidator;
+import utils.DBUtil;
+import utils.QueryMetrics;
+import utils.ReportExportWriter;
 
 /*
  * 日報テーブルの操作に関わる処理を行うクラス
  */
 public class ReportService extends ServiceBase {
 
+    /*
+     * 期間指定の一覧のキー（日報日付・id カーソルには「日報日付.id」の形で格納する）
+     */
+    private static final CursorKey<ReportSummaryView, ReportSummaryView> DATE_ID_KEY = new CursorKey<>() {
+        @Override
+        public ReportSummaryView parse(String value) {
+            int dot = value.indexOf('.');
+            ReportSummaryView key = new ReportSummaryView();
+            key.setReportDate(LocalDate.parse(value.substring(0, dot)));
+            key.setId(Integer.parseInt(value.substring(dot + 1)));
+            return key;
+        }
+
+        @Override
+        public String format(ReportSummaryView item) {
+            return item.getReportDate() + "." + item.getId();
+        }
+
+        @Override
+        public void bind(TypedQuery<ReportSummaryView> query, ReportSummaryView key) {
+            query.setParameter(JpaConst.JPQL_PARM_REP_DATE, key.getReportDate())
+                    .setParameter(JpaConst.JPQL_PARM_ID, key.getId());
+        }
+    };
+
+    // 読み込み先ごとに、DBから取得した一覧画面の世代（プライマリ・レプリカ 未取得の場合null）
+    private static volatile ListGeneration primaryGeneration;
+    private static volatile ListGeneration replicaGeneration;
+
+    // このサーバーで一覧画面の表示内容を最後に変更した時刻（ミリ秒 変更のたびに必ず増やす）
+    private static volatile long listChangedAt = 0;
+
     /**
-     * 指定されたページに表示するデータを取得し、ReportViewのリストで返却
+     * 一覧画面の表示内容の世代（日報と従業員の更新日時のうち最新のもの エポックミリ秒）を返却する
+     * 全てのサーバーが参照するDBから取得するため、他のサーバーでの登録・更新でも世代が変わる
+     * DBからは一覧と同じ読み込み先から取得し、指定した間隔の間は前回取得した値を使用する
+     * （他のサーバーでの変更は、この間隔の分だけ遅れて反映される）
+     * このサーバーでの変更の後は間隔によらず取得し直し、プライマリの世代には変更した時刻も反映する
+     * （同じ秒に行った変更は更新日時が変わらないため）
      *
-     * @return 一覧画面に表示するデータのリスト
+     * @param refreshMillis DBから取得し直すまでの間隔（ミリ秒）
+     * @return 世代（日報・従業員がない場合0）
      */
-    public List<ReportView> getMinePerPage(EmployeeView employee, int page) {
+    public long getListGeneration(long refreshMillis) {
+        boolean primary = readsFromPrimary();
+        ListGeneration cached = primary ? primaryGeneration : replicaGeneration;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.fetchedAt < refreshMillis && cached.fetchedAt > listChangedAt) {
+            return cached.value;
+        }
 
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL_MINE, Report.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
-        return ReportConverter.toViewList(reports);
+        Object[] row = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_GET_LIST_UPDATED_AT, Object[].class)
+                .getSingleResult();
+        long generation = 0;
+        for (Object updatedAt : row) {
+            if (updatedAt != null) {
+                generation = Math.max(generation,
+                        ((LocalDateTime) updatedAt).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+
+        // レプリカには反映されていない可能性があるため、変更した時刻はプライマリの世代にのみ反映する
+        if (primary) {
+            generation = Math.max(generation, listChangedAt);
+            primaryGeneration = new ListGeneration(generation, now);
+        } else {
+            replicaGeneration = new ListGeneration(generation, now);
+        }
+        return generation;
+    }
+
+    /*
+     * 一覧画面の表示内容を変更したことを記録する（日報・従業員の登録・更新のコミット後に呼び出す）
+     */
+    static synchronized void listChanged() {
+        listChangedAt = Math.max(System.currentTimeMillis(), listChangedAt + 1);
+    }
+
+    /*
+     * DBから取得した一覧画面の世代と、取得を開始した時刻
+     */
+    private static class ListGeneration {
+        private final long value;
+        private final long fetchedAt;
+
+        ListGeneration(long value, long fetchedAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    /**
+     * 指定した従業員が作成した日報データのうち、カーソルが示す1ページ分を取得し返却する
+     *
+     * @param cursor 前後のページを示すカーソル（nullの場合は先頭ページ）
+     * @return 一覧画面に表示するデータと前後のページのカーソル
+     */
+    public CursorPage<ReportSummaryView> getMinePerCursor(EmployeeView employee, String cursor) {
+
+        // 一覧画面に表示する項目のみを取得する（日報の内容は取得しない）
+        Employee e = EmployeeConverter.toModel(employee);
+        return getPerCursorInternal(cursor,
+                name -> QueryMetrics.createNamedQuery(readEm(), name, ReportSummaryView.class).setParameter(JpaConst.JPQL_PARM_EMPLOYEE, e),
+                JpaConst.Q_REP_GET_ALL_MINE_SUMMARY,
+                JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_AFTER,
+                JpaConst.Q_REP_GET_ALL_MINE_SUMMARY_BEFORE,
+                ReportSummaryView::getId);
     }
 
     /**
@@ -38,25 +171,26 @@ public class ReportService extends ServiceBase {
      */
     public long countAllMine(EmployeeView employee) {
 
-        long count = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT_ALL_MINE, Long.class)
-                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
-                .getSingleResult();
-
-        return count;
+        // COUNTクエリは発行せず、保持している件数を返却する
+        RowCounters.ensureLoaded(this::em);
+        return RowCounters.getReportCount(employee.getId());
     }
 
     /**
-     * 指定されたページ数の一覧画面に表示する日報データを取得し、ReportViewのリストで返却する
+     * カーソルが示す1ページ分の日報データを取得し、返却する
      *
-     * @return 一覧画面に表示するデータのリスト
+     * @param cursor 前後のページを示すカーソル（nullの場合は先頭ページ）
+     * @return 一覧画面に表示するデータと前後のページのカーソル
      */
-    public List<ReportView> getAllPerPage(int page) {
+    public CursorPage<ReportSummaryView> getAllPerCursor(String cursor) {
 
-        List<Report> reports = em.createNamedQuery(JpaConst.Q_REP_GET_ALL, Report.class)
-                .setFirstResult(JpaConst.ROW_PER_PAGE * (page - 1))
-                .setMaxResults(JpaConst.ROW_PER_PAGE)
-                .getResultList();
-        return ReportConverter.toViewList(reports);
+        // 一覧画面に表示する項目のみを取得する（日報の内容は取得しない）
+        return getPerCursorInternal(cursor,
+                name -> QueryMetrics.createNamedQuery(readEm(), name, ReportSummaryView.class),
+                JpaConst.Q_REP_GET_ALL_SUMMARY,
+                JpaConst.Q_REP_GET_ALL_SUMMARY_AFTER,
+                JpaConst.Q_REP_GET_ALL_SUMMARY_BEFORE,
+                ReportSummaryView::getId);
     }
 
     /**
@@ -65,9 +199,55 @@ public class ReportService extends ServiceBase {
      * @return データの件数
      */
     public long countAll() {
-        long reports_count = (long) em.createNamedQuery(JpaConst.Q_REP_COUNT, Long.class)
-                .getSingleResult();
-        return reports_count;
+
+        // COUNTクエリは発行せず、保持している件数を返却する
+        RowCounters.ensureLoaded(this::em);
+        return RowCounters.getReportCount();
+    }
+
+    /**
+     * 検索語をタイトルまたは内容に含む日報のidを、一致度の高い順に返却する
+     *
+     * @param query 検索語（空白区切りで複数指定した場合はすべてを含む日報）
+     * @return 日報のidのリスト
+     */
+    public List<Integer> search(String query) {
+        return ReportSearchIndex.search(query);
+    }
+
+    /**
+     * 全文検索の索引の読み込み・作成が済んでいるかどうかを返却する
+     *
+     * @return 検索できる場合true
+     */
+    public boolean isSearchReady() {
+        return ReportSearchIndex.isReady();
+    }
+
+    /**
+     * 指定したidの日報の概要を、指定したidの順に返却する
+     *
+     * @param ids 日報のidのリスト
+     * @return 日報の概要のリスト（削除済みなどで存在しない日報は含まない）
+     */
+    public List<ReportSummaryView> getSummaries(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, ReportSummaryView> byId = new HashMap<>();
+        for (ReportSummaryView summary : QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_GET_SUMMARY_BY_IDS, ReportSummaryView.class)
+                .setParameter(JpaConst.JPQL_PARM_IDS, ids)
+                .getResultList()) {
+            byId.put(summary.getId(), summary);
+        }
+
+        List<ReportSummaryView> summaries = new ArrayList<>();
+        for (Integer id : ids) {
+            if (byId.containsKey(id)) {
+                summaries.add(byId.get(id));
+            }
+        }
+        return summaries;
     }
 
     /**
@@ -76,7 +256,26 @@ public class ReportService extends ServiceBase {
      * @return 取得データのインスタンス
      */
     public ReportView findOne(int id) {
-        return ReportConverter.toView(findOneInternal(id));
+        return ReportConverter.toView(readEm().find(Report.class, id));
+    }
+
+    /**
+     * idを条件に、日報と作成した従業員の更新日時のうち新しい方を取得する
+     * 詳細画面の条件付きGETの判定に使用するため、日報の内容は取得しない
+     *
+     * @param id 日報のid
+     * @return 更新日時（該当する日報がない場合null）
+     */
+    public LocalDateTime getLastModified(int id) {
+        List<Object[]> rows = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_GET_UPDATED_AT, Object[].class)
+                .setParameter(JpaConst.JPQL_PARM_ID, id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        LocalDateTime reportUpdatedAt = (LocalDateTime) rows.get(0)[0];
+        LocalDateTime employeeUpdatedAt = (LocalDateTime) rows.get(0)[1];
+        return employeeUpdatedAt.isAfter(reportUpdatedAt) ? employeeUpdatedAt : reportUpdatedAt;
     }
 
     /**
@@ -120,33 +319,374 @@ public class ReportService extends ServiceBase {
         return errors;
     }
 
+    /**
+     * ファイルから読み込んだ行をもとに日報データを一括で登録する
+     * 行ごとの変換・バリデーションは並列に行い、エラーのない行のみを一定件数ごとのトランザクションで登録する
+     *
+     * @param rows ファイルから読み込んだ行のリスト
+     * @param loginEmployee ログイン中の従業員（社員番号が未指定の行はこの従業員の日報とする）
+     * @param admin 管理者かどうか（管理者のみ社員番号で他の従業員の日報を登録できる）
+     * @return 登録件数と登録できなかった行のエラー
+     */
+    public ReportImportResult importReports(List<ReportImportRow> rows, EmployeeView loginEmployee, boolean admin) {
+
+        // 行に指定された社員番号の従業員をまとめて取得する
+        Map<String, EmployeeView> employees = admin ? findEmployeesByCode(rows) : Collections.emptyMap();
+
+        // 各行を日報に変換し、バリデーションを行う（行ごとに独立しているため並列に処理する）
+        LocalDateTime now = LocalDateTime.now();
+        ReportView[] views = new ReportView[rows.size()];
+        List<List<String>> errors = new ArrayList<>(IntStream.range(0, rows.size())
+                .parallel()
+                .mapToObj(i -> {
+                    views[i] = new ReportView();
+                    return toReportView(rows.get(i), views[i], loginEmployee, admin, employees, now);
+                })
+                .collect(Collectors.toList()));
+
+        List<Integer> valid = IntStream.range(0, rows.size())
+                .filter(i -> errors.get(i).isEmpty())
+                .boxed()
+                .collect(Collectors.toList());
+
+        // エラーのない行を一定件数ごとにコミットする（失敗した場合はその範囲の行のみエラーとする）
+        int imported = 0;
+        Session session = em().unwrap(Session.class);
+        for (int from = 0; from < valid.size(); from += JpaConst.IMPORT_CHUNK_SIZE) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + JpaConst.IMPORT_CHUNK_SIZE, valid.size()));
+            try {
+                em().getTransaction().begin();
+                session.doWork(conn -> insertBatch(conn, chunk, views));
+                // コミットと同時に件数を加算する
+                RowCounters.commit(em().getTransaction(),
+                        () -> chunk.forEach(i -> RowCounters.reportCreated(views[i].getEmployee().getId())));
+            } catch (PersistenceException e) {
+                if (em().getTransaction().isActive()) {
+                    em().getTransaction().rollback();
+                }
+                for (int i : chunk) {
+                    errors.set(i, List.of(MessageConst.E_IMPORT_FAILED.getMessage()));
+                }
+                continue;
+            }
+            imported += chunk.size();
+
+            // コミット後に全文検索の索引に反映
+            List<ReportView> committed = new ArrayList<>();
+            for (int i : chunk) {
+                committed.add(views[i]);
+            }
+            ReportSearchIndex.reportsSaved(committed);
+        }
+        if (imported > 0) {
+            markWritten();
+            listChanged();
+        }
+
+        List<ReportImportError> importErrors = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (!errors.get(i).isEmpty()) {
+                importErrors.add(new ReportImportError(rows.get(i).getLine(), errors.get(i)));
+            }
+        }
+        return new ReportImportResult(rows.size(), imported, importErrors);
+    }
+
+    /**
+     * 日報日付が指定した範囲内の日報データのうち、カーソルが示す1ページ分を日報日付・idの降順で取得する
+     * 日報日付・idをキーとするため、reportsの(report_date)・(employee_id, report_date)の索引の順に読み込める
+     *
+     * @param from 期間の開始日
+     * @param to 期間の終了日
+     * @param employee 日報を作成した従業員（nullの場合は全従業員）
+     * @param cursor 前後のページを示すカーソル（nullの場合は先頭ページ）
+     * @return 一覧画面に表示する日報の概要と前後のページのカーソル
+     */
+    public CursorPage<ReportSummaryView> getByDateRangePerCursor(LocalDate from, LocalDate to, EmployeeView employee, String cursor) {
+        if (employee == null) {
+            return getPerCursorInternal(cursor,
+                    name -> QueryMetrics.createNamedQuery(readEm(), name, ReportSummaryView.class)
+                            .setParameter(JpaConst.JPQL_PARM_DATE_FROM, from)
+                            .setParameter(JpaConst.JPQL_PARM_DATE_TO, to),
+                    JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE,
+                    JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_AFTER,
+                    JpaConst.Q_REP_GET_SUMMARY_BY_DATE_RANGE_BEFORE,
+                    DATE_ID_KEY);
+        }
+
+        Employee e = EmployeeConverter.toModel(employee);
+        return getPerCursorInternal(cursor,
+                name -> QueryMetrics.createNamedQuery(readEm(), name, ReportSummaryView.class)
+                        .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, e)
+                        .setParameter(JpaConst.JPQL_PARM_DATE_FROM, from)
+                        .setParameter(JpaConst.JPQL_PARM_DATE_TO, to),
+                JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE,
+                JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_AFTER,
+                JpaConst.Q_REP_GET_MINE_SUMMARY_BY_DATE_RANGE_BEFORE,
+                DATE_ID_KEY);
+    }
+
+    /**
+     * 日報日付が指定した範囲内の日報データの件数を取得する
+     *
+     * @param from 期間の開始日
+     * @param to 期間の終了日
+     * @param employee 日報を作成した従業員（nullの場合は全従業員）
+     * @return 日報データの件数
+     */
+    public long countByDateRange(LocalDate from, LocalDate to, EmployeeView employee) {
+        TypedQuery<Long> query;
+        if (employee == null) {
+            query = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_COUNT_BY_DATE_RANGE, Long.class);
+        } else {
+            query = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_COUNT_MINE_BY_DATE_RANGE, Long.class)
+                    .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee));
+        }
+        return query
+                .setParameter(JpaConst.JPQL_PARM_DATE_FROM, from)
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, to)
+                .getSingleResult();
+    }
+
+    /**
+     * 指定した従業員の1か月分の日報の提出状況を取得する
+     * 日報がある日付を1回のクエリでまとめて取得し、日ごとのビットに変換する
+     *
+     * @param employee 対象の従業員
+     * @param month 対象の年月
+     * @return 1か月分の日報の提出状況
+     */
+    public ReportCalendarView getCalendar(EmployeeView employee, YearMonth month) {
+        List<LocalDate> dates = QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_REP_GET_MINE_DATES_BY_DATE_RANGE, LocalDate.class)
+                .setParameter(JpaConst.JPQL_PARM_EMPLOYEE, EmployeeConverter.toModel(employee))
+                .setParameter(JpaConst.JPQL_PARM_DATE_FROM, month.atDay(1))
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, month.atEndOfMonth())
+                .getResultList();
+        return new ReportCalendarView(employee, month, ReportCalendarView.toDays(dates));
+    }
+
+    /**
+     * 日報日付が指定した範囲内の日報データを日付順に1件ずつ出力する
+     * 結果は前方向のみのカーソルで少しずつ受信し、一定件数ごとに永続性コンテキストをクリアするため、
+     * 件数によらずメモリの使用量は一定となる
+     *
+     * @param from 期間の開始日
+     * @param to 期間の終了日
+     * @param writer 出力先
+     * @return 出力した件数
+     */
+    public long exportReports(LocalDate from, LocalDate to, ReportExportWriter writer) throws IOException {
+        EntityManager reader = readEm();
+        Session session = reader.unwrap(Session.class);
+
+        // カーソルによる読み込みは出力に使用する接続にのみ設定するため、トランザクション内で同じ接続を保持する
+        boolean began = !reader.getTransaction().isActive();
+        if (began) {
+            reader.getTransaction().begin();
+        }
+        session.doWork(DBUtil::enableCursorFetch);
+        long count = 0;
+        try (ScrollableResults results = session
+                .createNamedQuery(JpaConst.Q_REP_GET_BY_DATE_RANGE, Report.class)
+                .setParameter(JpaConst.JPQL_PARM_DATE_FROM, from)
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, to)
+                .setFetchSize(JpaConst.EXPORT_FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE) // 出力のみのため2次キャッシュには格納しない
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+
+            while (results.next()) {
+                writer.write(ReportConverter.toView((Report) results.get(0)));
+
+                // 出力済みのエンティティを解放する
+                if (++count % JpaConst.EXPORT_CLEAR_INTERVAL == 0) {
+                    reader.clear();
+                }
+            }
+        } finally {
+            try {
+                session.doWork(DBUtil::resetCursorFetch);
+            } finally {
+                // 読み込みのみのためロールバックで終了する
+                if (began) {
+                    reader.getTransaction().rollback();
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * idを条件にデータを1件取得する
      *
      * @return 取得データのインスタンス
      */
     private Report findOneInternal(int id) {
-        return em.find(Report.class, id);
+        return em().find(Report.class, id);
     }
 
     /**
      * 日報データを登録する
      */
     private void createInternal(ReportView rv) {
-        em.getTransaction().begin();
-        em.persist(ReportConverter.toModel(rv));
-        em.getTransaction().commit();
+        Report r = ReportConverter.toModel(rv);
+        em().getTransaction().begin();
+
+        // 同じトランザクションで集計テーブルの件数を加算する（再集計とのロックの順序を揃えるため日報より先に更新する）
+        em().unwrap(Session.class).doWork(conn -> StatisticsService.addReports(conn, List.of(rv)));
+        em().persist(r);
+        // コミットと同時に件数を加算する
+        RowCounters.commit(em().getTransaction(), () -> RowCounters.reportCreated(rv.getEmployee().getId()));
+        markWritten();
+        rv.setId(r.getId());
+
+        // コミット後に全文検索の索引・一覧画面の世代に反映
+        ReportSearchIndex.reportSaved(rv);
+        listChanged();
     }
 
     /**
      * 日報データを更新する
      */
     private void updateInternal(ReportView rv) {
-        em.getTransaction().begin();
+        em().getTransaction().begin();
         Report r = findOneInternal(rv.getId());
+
+        // 日報日付が変更された場合は、同じトランザクションで集計テーブルの件数を移す
+        LocalDate oldDate = r.getReportDate();
+        if (!oldDate.equals(rv.getReportDate())) {
+            em().unwrap(Session.class).doWork(conn -> StatisticsService.moveReport(
+                    conn, r.getEmployee().getId(), oldDate, rv.getReportDate(), rv.getUpdatedAt()));
+        }
         ReportConverter.copyViewToModel(r, rv);
-        em.getTransaction().commit();
+        em().getTransaction().commit();
+        markWritten();
+
+        // コミット後に全文検索の索引・一覧画面の世代に反映
+        ReportSearchIndex.reportSaved(rv);
+        listChanged();
     }
 
+    /**
+     * 行に指定された社員番号をもとに、未削除の従業員を1回のクエリで取得する
+     *
+     * @return 社員番号をキーとした従業員のマップ
+     */
+    private Map<String, EmployeeView> findEmployeesByCode(List<ReportImportRow> rows) {
+        Set<String> codes = rows.stream()
+                .map(ReportImportRow::getEmployeeCode)
+                .filter(code -> code != null && !code.trim().equals(""))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+
+        Map<String, EmployeeView> employees = new HashMap<>();
+        if (codes.isEmpty()) {
+            return employees;
+        }
+        for (Employee e : QueryMetrics.createNamedQuery(em(), JpaConst.Q_EMP_GET_BY_CODES, Employee.class)
+                .setParameter(JpaConst.JPQL_PARM_CODES, codes)
+                .getResultList()) {
+            employees.put(e.getCode(), EmployeeConverter.toView(e));
+        }
+        return employees;
+    }
+
+    /**
+     * 読み込んだ1行の値を日報のインスタンスに設定し、バリデーションを行う
+     *
+     * @param row 読み込んだ行
+     * @param rv 値を設定する日報のインスタンス
+     * @return エラーのリスト
+     */
+    private static List<String> toReportView(ReportImportRow row, ReportView rv, EmployeeView loginEmployee,
+            boolean admin, Map<String, EmployeeView> employees, LocalDateTime now) {
+        List<String> errors = new ArrayList<>();
+        if (row.getError() != null) {
+            errors.add(row.getError());
+            return errors;
+        }
+
+        // 日報を作成した従業員（社員番号が未指定、またはログイン中の従業員の社員番号の場合はログイン中の従業員）
+        String code = row.getEmployeeCode() == null ? "" : row.getEmployeeCode().trim();
+        if (code.equals("") || code.equals(loginEmployee.getCode())) {
+            rv.setEmployee(loginEmployee);
+        } else if (!admin) {
+            errors.add(MessageConst.E_IMPORT_OTHER_EMP.getMessage());
+        } else if (employees.containsKey(code)) {
+            rv.setEmployee(employees.get(code));
+        } else {
+            errors.add(MessageConst.E_IMPORT_NOEMP.getMessage());
+        }
+
+        // 日報日付
+        try {
+            rv.setReportDate(LocalDate.parse(row.getReportDate() == null ? "" : row.getReportDate().trim()));
+        } catch (DateTimeParseException e) {
+            errors.add(MessageConst.E_IMPORT_DATE.getMessage());
+        }
 
+        rv.setTitle(row.getTitle());
+        rv.setContent(row.getContent());
+        rv.setCreatedAt(now);
+        rv.setUpdatedAt(now);
+        errors.addAll(ReportValidator.validate(rv));
+
+        return errors;
+    }
+
+    /**
+     * 指定した行の日報をJDBCのバッチ更新で登録する
+     * 日報のidはIDENTITYで採番するためHibernateのバッチ挿入が使えず、接続を直接使用する
+     * 採番されたidは日報のインスタンスに設定する
+     * 集計テーブルの件数も同じトランザクションで加算する
+     *
+     * @param conn 現在のトランザクションの接続
+     * @param chunk 登録する行の位置のリスト
+     * @param views 行ごとの日報のインスタンス
+     */
+    private static void insertBatch(Connection conn, List<Integer> chunk, ReportView[] views) throws SQLException {
+        List<ReportView> rows = new ArrayList<>(chunk.size());
+        for (int i : chunk) {
+            rows.add(views[i]);
+        }
+        StatisticsService.addReports(conn, rows);
+
+        try (PreparedStatement ps = conn.prepareStatement(JpaConst.REP_INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            List<ReportView> pending = new ArrayList<>();
+            for (int i : chunk) {
+                ReportView rv = views[i];
+                ps.setInt(1, rv.getEmployee().getId());
+                ps.setDate(2, Date.valueOf(rv.getReportDate()));
+                ps.setString(3, rv.getTitle());
+                ps.setString(4, rv.getContent());
+                ps.setTimestamp(5, Timestamp.valueOf(rv.getCreatedAt()));
+                ps.setTimestamp(6, Timestamp.valueOf(rv.getUpdatedAt()));
+                ps.addBatch();
+                pending.add(rv);
+
+                if (pending.size() == JpaConst.IMPORT_BATCH_SIZE) {
+                    executeBatch(ps, pending);
+                }
+            }
+            executeBatch(ps, pending);
+        }
+    }
+
+    /**
+     * 蓄積したバッチ更新を実行し、採番されたidを登録順に日報のインスタンスに設定する
+     */
+    private static void executeBatch(PreparedStatement ps, List<ReportView> pending) throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        ps.executeBatch();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (ReportView rv : pending) {
+                if (keys.next()) {
+                    rv.setId(keys.getInt(1));
+                }
+            }
+        }
+        pending.clear();
+    }
 }
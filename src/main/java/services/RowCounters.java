@@ -0,0 +1,147 @@
+package services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import constants.JpaConst;
+import utils.QueryMetrics;
+
+/*
+ * 一覧画面で表示する件数を保持するクラス
+ * 起動時にDBから集計し、登録処理のコミット時に加算、定期的にDBの件数で置き換える
+ * 件数表示のたびにCOUNTクエリを発行しないために使用する
+ */
+public class RowCounters {
+
+    // 日報の全件数
+    private static final AtomicLong reportCount = new AtomicLong();
+
+    // 従業員ごとの日報の件数（キー：従業員id）
+    private static final Map<Integer, AtomicLong> reportCountByEmployee = new ConcurrentHashMap<>();
+
+    // 従業員の全件数（論理削除済みを含む）
+    private static final AtomicLong employeeCount = new AtomicLong();
+
+    // 登録のコミットと件数の加算（読み込みロック）と、DBからの集計（書き込みロック）を排他する
+    private static final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    // DBからの集計が済んでいるかどうか
+    private static volatile boolean loaded = false;
+
+    /*
+     * DBの件数を集計し、保持している件数を置き換える
+     * 集計中はこのサーバーでの登録のコミットを待たせるため、コミット済みで加算前の登録はなく、
+     * 集計した件数にはそれまでの加算が全て含まれ、以降の加算は集計した件数に対して行われる
+     * 3つのCOUNTクエリは1つのトランザクションで実行し、全件数と従業員ごとの件数を揃える
+     * （他のサーバーでの登録は、次回の集計で反映する）
+     *
+     * @param em 集計に使用するEntityManager
+     */
+    public static void rebuild(EntityManager em) {
+        commitLock.writeLock().lock();
+        try {
+            EntityTransaction tx = em.getTransaction();
+            boolean started = !tx.isActive();
+            if (started) {
+                tx.begin();
+            }
+            try {
+                long reports = QueryMetrics.createNamedQuery(em, JpaConst.Q_REP_COUNT, Long.class).getSingleResult();
+                long employees = QueryMetrics.createNamedQuery(em, JpaConst.Q_EMP_COUNT, Long.class).getSingleResult();
+                List<Object[]> rows = QueryMetrics.createNamedQuery(em, JpaConst.Q_REP_COUNT_GROUP_BY_EMP, Object[].class)
+                        .getResultList();
+
+                reportCount.set(reports);
+                employeeCount.set(employees);
+                // DBに日報がなくなった従業員は0件とする
+                reportCountByEmployee.values().forEach(count -> count.set(0));
+                for (Object[] row : rows) {
+                    reportCountByEmployee.computeIfAbsent((Integer) row[0], k -> new AtomicLong()).set((Long) row[1]);
+                }
+                loaded = true;
+            } finally {
+                if (started) {
+                    tx.rollback();
+                }
+            }
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * 未集計の場合のみDBから集計する
+     * 集計済みの場合はEntityManagerを取得しない（レプリカから読み込むリクエストでプライマリに接続しない）
+     *
+     * @param em 集計に使用するEntityManagerを返却する関数（未集計の場合のみ呼び出す）
+     */
+    public static void ensureLoaded(Supplier<EntityManager> em) {
+        if (!loaded) {
+            rebuild(em.get());
+        }
+    }
+
+    /*
+     * 登録のトランザクションをコミットし、コミットした件数を加算する
+     * DBからの集計中はコミットを待たせ、集計した件数とコミット後の加算が重複・欠落しないようにする
+     *
+     * @param tx コミットするトランザクション
+     * @param counted コミット後に件数を加算する処理（reportCreated・employeeCreatedを呼び出す）
+     */
+    public static void commit(EntityTransaction tx, Runnable counted) {
+        commitLock.readLock().lock();
+        try {
+            tx.commit();
+            counted.run();
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 日報の登録がコミットされたときに件数を加算する（commitに渡す処理から呼び出す）
+     *
+     * @param employeeId 日報を作成した従業員のid
+     */
+    public static void reportCreated(Integer employeeId) {
+        reportCount.incrementAndGet();
+        reportCountByEmployee.computeIfAbsent(employeeId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /*
+     * 従業員の登録がコミットされたときに件数を加算する（commitに渡す処理から呼び出す）
+     */
+    public static void employeeCreated() {
+        employeeCount.incrementAndGet();
+    }
+
+    /*
+     * 日報の全件数を返却する
+     */
+    public static long getReportCount() {
+        return reportCount.get();
+    }
+
+    /*
+     * 指定した従業員が作成した日報の件数を返却する
+     */
+    public static long getReportCount(Integer employeeId) {
+        AtomicLong count = reportCountByEmployee.get(employeeId);
+        return count == null ? 0 : count.get();
+    }
+
+    /*
+     * 従業員の全件数を返却する
+     */
+    public static long getEmployeeCount() {
+        return employeeCount.get();
+    }
+}
@@ -1,25 +1,254 @@
 package services;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 
+import actions.views.CursorPage;
+import constants.JpaConst;
 import utils.DBUtil;
+import utils.RequestEntityManager;
 
 /*
  * DB接続に関わる共通処理を行うクラス
  */
 public class ServiceBase {
 
+    // カーソルの向き（a:次ページ方向 b:前ページ方向）
+    private static final char CURSOR_AFTER = 'a';
+    private static final char CURSOR_BEFORE = 'b';
+
+    /*
+     * リクエストで共有するEntityManager（リクエストの外で生成した場合null）
+     */
+    private final RequestEntityManager shared = RequestEntityManager.current();
+
     /*
-     * EntityManagerインスタンス
+     * EntityManagerインスタンス（プライマリDB 書き込みに使用する 初回の使用時にem()で取得する）
      */
-    protected EntityManager em = DBUtil.createEntityManager();
+    private EntityManager em;
+
+    /*
+     * 読み込み専用のEntityManagerインスタンス（レプリカDB 初回の読み込み時に取得する）
+     */
+    private EntityManager readOnlyEm;
+
+    /*
+     * 読み込みもプライマリDBで行うかどうか
+     */
+    private boolean readFromPrimary = false;
+
+    /*
+     * このインスタンスで書き込みを行ったかどうか
+     */
+    private boolean written = false;
 
     /*
      * EntityManagerのクローズ
+     * リクエストで共有するEntityManagerは、リクエストの終了時にEntityManagerFilterがクローズする
      */
     public void close() {
-        if (em.isOpen()) {
+        if (shared != null) {
+            return;
+        }
+        if (readOnlyEm != null && readOnlyEm.isOpen()) {
+            readOnlyEm.close();
+        }
+        if (em != null && em.isOpen()) {
             em.close();
         }
     }
+
+    /*
+     * プライマリDBのEntityManagerを返却する（初回は取得する）
+     * リクエスト内ではリクエストで共有するものを使用し、同じリクエストの他のサービスと同じ永続性コンテキストとなる
+     * レプリカのみから読み込むリクエストでは取得しないため、プライマリのEntityManager・DB接続を使用しない
+     */
+    protected EntityManager em() {
+        if (em == null) {
+            em = shared != null ? shared.getPrimary() : DBUtil.createEntityManager();
+        }
+        return em;
+    }
+
+    /*
+     * 読み込みもプライマリDBで行うかどうかを設定する
+     * 書き込みを行うリクエストや、書き込み直後のリダイレクト先ではtrueとし、
+     * レプリカへの反映遅れで書き込んだ内容が見えなくなることを防ぐ
+     */
+    public void setReadFromPrimary(boolean readFromPrimary) {
+        this.readFromPrimary = readFromPrimary;
+    }
+
+    /*
+     * このインスタンスで書き込みを行ったかどうかを返却する
+     */
+    public boolean hasWritten() {
+        return written;
+    }
+
+    /*
+     * 書き込みを行ったことを記録する（書き込みのコミット後に呼び出す）
+     * 以降の読み込みはプライマリDBで行う
+     */
+    protected void markWritten() {
+        written = true;
+    }
+
+    /*
+     * 読み込みをプライマリDBで行うかどうかを返却する（レプリカを設定していない場合もtrue）
+     */
+    public boolean readsFromPrimary() {
+        return readFromPrimary || written || !DBUtil.hasReplica();
+    }
+
+    /*
+     * 一覧・件数・詳細の読み込みに使用するEntityManagerを返却する
+     * レプリカを設定していない場合、またはプライマリから読み込む場合はプライマリのEntityManagerを返却する
+     */
+    protected EntityManager readEm() {
+        if (readsFromPrimary()) {
+            return em();
+        }
+        if (readOnlyEm == null) {
+            readOnlyEm = shared != null ? shared.getReadOnly() : DBUtil.createReadOnlyEntityManager();
+        }
+        return readOnlyEm;
+    }
+
+    /*
+     * カーソルが示す位置から1ページ分のデータをidの降順で取得する（キーセットページネーション）
+     * OFFSETを使わずidで範囲を絞り込むため、何ページ目でも取得コストは変わらない
+     *
+     * @param cursor 前回取得時に返却したカーソル（nullまたは不正な値の場合は先頭ページ）
+     * @param query クエリ名からパラメータ設定済みのクエリを作成する関数
+     * @param firstQuery 先頭ページを取得するクエリ名
+     * @param afterQuery 指定idより後をidの降順で取得するクエリ名
+     * @param beforeQuery 指定idより前をidの昇順で取得するクエリ名
+     * @param idOf データからidを取り出す関数
+     * @return 1ページ分のデータと前後のページのカーソル
+     */
+    protected <E> CursorPage<E> getPerCursorInternal(String cursor, Function<String, TypedQuery<E>> query,
+            String firstQuery, String afterQuery, String beforeQuery, ToIntFunction<E> idOf) {
+
+        return getPerCursorInternal(cursor, query, firstQuery, afterQuery, beforeQuery, new CursorKey<E, Integer>() {
+            @Override
+            public Integer parse(String value) {
+                return Integer.parseInt(value);
+            }
+
+            @Override
+            public String format(E item) {
+                return Integer.toString(idOf.applyAsInt(item));
+            }
+
+            @Override
+            public void bind(TypedQuery<E> q, Integer id) {
+                q.setParameter(JpaConst.JPQL_PARM_ID, id);
+            }
+        });
+    }
+
+    /*
+     * カーソルが示す位置から1ページ分のデータを、キーの降順で取得する（キーセットページネーション）
+     * 日報日付・idのように複数の項目を組み合わせたキーで並べる一覧で使用する
+     *
+     * @param cursor 前回取得時に返却したカーソル（nullまたは不正な値の場合は先頭ページ）
+     * @param query クエリ名からパラメータ設定済みのクエリを作成する関数
+     * @param firstQuery 先頭ページを取得するクエリ名
+     * @param afterQuery 指定したキーより後をキーの降順で取得するクエリ名
+     * @param beforeQuery 指定したキーより前をキーの昇順で取得するクエリ名
+     * @param key カーソルに格納するキーの変換とパラメータの設定
+     * @return 1ページ分のデータと前後のページのカーソル
+     */
+    protected <E, K> CursorPage<E> getPerCursorInternal(String cursor, Function<String, TypedQuery<E>> query,
+            String firstQuery, String afterQuery, String beforeQuery, CursorKey<E, K> key) {
+
+        char direction = 0;
+        K value = null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            direction = decoded.charAt(0);
+            value = key.parse(decoded.substring(1));
+        } catch (Exception e) {
+            // カーソルの指定がない、または不正な場合は先頭ページを取得する
+            direction = 0;
+        }
+
+        // 次ページの有無を判定するため1件多く取得する
+        TypedQuery<E> q;
+        if (direction == CURSOR_AFTER) {
+            q = query.apply(afterQuery);
+            key.bind(q, value);
+        } else if (direction == CURSOR_BEFORE) {
+            q = query.apply(beforeQuery);
+            key.bind(q, value);
+        } else {
+            q = query.apply(firstQuery);
+        }
+        List<E> rows = q.setMaxResults(JpaConst.ROW_PER_PAGE + 1).getResultList();
+
+        boolean more = rows.size() > JpaConst.ROW_PER_PAGE;
+        List<E> items = new ArrayList<>(more ? rows.subList(0, JpaConst.ROW_PER_PAGE) : rows);
+
+        boolean hasNext;
+        boolean hasPrev;
+        if (direction == CURSOR_BEFORE) {
+            // 昇順で取得しているため降順に並べ替える
+            Collections.reverse(items);
+            hasNext = true;
+            hasPrev = more;
+        } else {
+            hasNext = more;
+            hasPrev = direction == CURSOR_AFTER;
+        }
+
+        if (items.isEmpty()) {
+            return new CursorPage<>(items, null, null);
+        }
+
+        return new CursorPage<>(
+                items,
+                hasNext ? encodeCursor(CURSOR_AFTER, key.format(items.get(items.size() - 1))) : null,
+                hasPrev ? encodeCursor(CURSOR_BEFORE, key.format(items.get(0))) : null);
+    }
+
+    /*
+     * カーソルの向きとキーの文字列表現からカーソル文字列を作成する
+     */
+    private static String encodeCursor(char direction, String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((direction + value).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /*
+     * キーセットページネーションのキー（カーソルに格納する値とクエリのパラメータの対応）
+     *
+     * @param <E> 一覧のデータの型
+     * @param <K> キーの型
+     */
+    protected interface CursorKey<E, K> {
+
+        /*
+         * カーソルに格納した文字列からキーを復元する（不正な値の場合は例外を送出する）
+         */
+        K parse(String value);
+
+        /*
+         * データのキーをカーソルに格納する文字列（ASCII）に変換する
+         */
+        String format(E item);
+
+        /*
+         * キーをクエリのパラメータに設定する
+         */
+        void bind(TypedQuery<E> query, K key);
+    }
 }
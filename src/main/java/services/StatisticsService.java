@@ -0,0 +1,273 @@
+package services;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+
+import actions.views.DailyStatView;
+import actions.views.EmployeeStatView;
+import actions.views.ReportView;
+import constants.JpaConst;
+import constants.PropertyConst;
+import models.ReportDailyStat;
+import utils.DBUtil;
+import utils.PooledConnectionProvider;
+import utils.QueryMetrics;
+
+/*
+ * 日報の集計テーブル（従業員・日報日付ごとの件数）の操作に関わる処理を行うクラス
+ * 集計テーブルは日報の登録・更新と同じトランザクションで更新し、統計画面はこのテーブルのみを参照する
+ */
+public class StatisticsService extends ServiceBase {
+
+    /**
+     * 指定した月の従業員ごとの日報の件数・提出日数を取得する
+     *
+     * @param month 対象の年月
+     * @return 従業員ごとの提出状況のリスト（社員番号順）
+     */
+    public List<EmployeeStatView> getByEmployee(YearMonth month) {
+        return QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_STAT_GET_BY_EMP, EmployeeStatView.class)
+                .setParameter(JpaConst.JPQL_PARM_DATE_FROM, month.atDay(1))
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, month.atEndOfMonth())
+                .getResultList();
+    }
+
+    /**
+     * 指定した月の日ごとの日報の件数・提出した従業員数を取得する
+     *
+     * @param month 対象の年月
+     * @return 日ごとの提出状況のリスト（日付順 日報がない日は含まない）
+     */
+    public List<DailyStatView> getByDate(YearMonth month) {
+        return QueryMetrics.createNamedQuery(readEm(), JpaConst.Q_STAT_GET_BY_DATE, DailyStatView.class)
+                .setParameter(JpaConst.JPQL_PARM_DATE_FROM, month.atDay(1))
+                .setParameter(JpaConst.JPQL_PARM_DATE_TO, month.atEndOfMonth())
+                .getResultList();
+    }
+
+    /**
+     * 集計テーブルを日報テーブルから集計し直す
+     *
+     * @return 集計し直した月数
+     */
+    public int rebuild() {
+        int months = rebuildAll();
+        markWritten();
+        return months;
+    }
+
+    /*
+     * 集計テーブルが空で、日報テーブルに日報がある場合に集計テーブルを作成する
+     * 集計テーブルを追加した直後の起動時に、既存の日報を取り込むために使用する
+     *
+     * @return 集計した月数（集計が不要な場合0）
+     */
+    public static int rebuildIfEmpty() {
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            if (QueryMetrics.createNamedQuery(em, JpaConst.Q_STAT_COUNT, Long.class).getSingleResult() > 0) {
+                return 0;
+            }
+        } finally {
+            em.close();
+        }
+        return rebuildAll();
+    }
+
+    /*
+     * 日報テーブルから集計テーブルを作成し直す
+     * 月ごとに1トランザクションで「範囲内の集計行の削除→日報テーブルからの集計結果の登録」を行い、
+     * 月ごとの処理は複数のスレッドで並列に行う
+     *
+     * @return 集計し直した月数
+     */
+    private static synchronized int rebuildAll() {
+        Object[] range;
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            range = QueryMetrics.createNamedQuery(em, JpaConst.Q_REP_GET_DATE_RANGE, Object[].class).getSingleResult();
+        } finally {
+            em.close();
+        }
+
+        if (range[0] == null) {
+            // 日報がない場合は集計行をすべて削除する
+            inTransaction(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(JpaConst.STAT_DELETE_ALL_SQL)) {
+                    ps.executeUpdate();
+                }
+            });
+            return 0;
+        }
+        LocalDate min = (LocalDate) range[0];
+        LocalDate max = (LocalDate) range[1];
+
+        // 日報日付の範囲外の集計行を削除する
+        inTransaction(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(JpaConst.STAT_DELETE_OUTSIDE_SQL)) {
+                ps.setDate(1, Date.valueOf(min));
+                ps.setDate(2, Date.valueOf(max));
+                ps.executeUpdate();
+            }
+        });
+
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth m = YearMonth.from(min); !m.isAfter(YearMonth.from(max)); m = m.plusMonths(1)) {
+            months.add(m);
+        }
+
+        // 通常のリクエストが使用する接続を残すため、スレッド数はプールの最大接続数の半分までとする
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+                DBUtil.getPoolProperty(PropertyConst.DB_POOL_MAX_SIZE, PooledConnectionProvider.DEFAULT_MAX_SIZE) / 2));
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, months.size()), r -> {
+            Thread t = new Thread(r, "report-stats-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (YearMonth month : months) {
+                tasks.add(pool.submit(() -> rebuildMonth(month)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("report statistics rebuild failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("report statistics rebuild interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return months.size();
+    }
+
+    /*
+     * 指定した月の集計行を日報テーブルから集計し直す（再集計時に各スレッドで実行する）
+     * 集計行の削除を先に行うため、同じ月の日報の登録は再集計のコミットまで待たされ、件数の重複・漏れは生じない
+     */
+    private static void rebuildMonth(YearMonth month) {
+        Date from = Date.valueOf(month.atDay(1));
+        Date to = Date.valueOf(month.atEndOfMonth());
+        inTransaction(conn -> {
+            try (PreparedStatement delete = conn.prepareStatement(JpaConst.STAT_DELETE_RANGE_SQL);
+                    PreparedStatement insert = conn.prepareStatement(JpaConst.STAT_REBUILD_SQL)) {
+                delete.setDate(1, from);
+                delete.setDate(2, to);
+                delete.executeUpdate();
+                insert.setDate(1, from);
+                insert.setDate(2, to);
+                insert.executeUpdate();
+            }
+        });
+    }
+
+    /*
+     * 新しいEntityManagerのトランザクション内で接続を使用した処理を行う
+     */
+    private static void inTransaction(Work work) {
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.unwrap(Session.class).doWork(work);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /*
+     * 登録する日報の件数を集計テーブルに加算する（日報の登録と同じトランザクションで、日報の登録より前に呼び出す）
+     * 従業員・日報日付が同じ日報はまとめて1行として加算する
+     *
+     * @param conn 現在のトランザクションの接続
+     * @param views 登録する日報のリスト
+     */
+    static void addReports(Connection conn, List<ReportView> views) throws SQLException {
+        Map<ReportDailyStat.Key, ReportDailyStat> stats = new LinkedHashMap<>();
+        for (ReportView rv : views) {
+            ReportDailyStat.Key key = new ReportDailyStat.Key(rv.getEmployee().getId(), rv.getReportDate());
+            ReportDailyStat stat = stats.get(key);
+            if (stat == null) {
+                stats.put(key, new ReportDailyStat(key.getEmployeeId(), key.getReportDate(), 1, rv.getUpdatedAt()));
+            } else {
+                stat.setReportCount(stat.getReportCount() + 1);
+                if (rv.getUpdatedAt().isAfter(stat.getLastUpdated())) {
+                    stat.setLastUpdated(rv.getUpdatedAt());
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(JpaConst.STAT_ADD_SQL)) {
+            int pending = 0;
+            for (ReportDailyStat stat : stats.values()) {
+                ps.setInt(1, stat.getEmployeeId());
+                ps.setDate(2, Date.valueOf(stat.getReportDate()));
+                ps.setInt(3, stat.getReportCount());
+                ps.setTimestamp(4, Timestamp.valueOf(stat.getLastUpdated()));
+                ps.addBatch();
+                if (++pending == JpaConst.IMPORT_BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
+
+    /*
+     * 日報日付が変更された日報の件数を、変更前の日付から変更後の日付に移す（日報の更新と同じトランザクションで呼び出す）
+     *
+     * @param conn 現在のトランザクションの接続
+     * @param employeeId 日報を作成した従業員のid
+     * @param oldDate 変更前の日報日付
+     * @param newDate 変更後の日報日付
+     * @param updatedAt 日報の更新日時
+     */
+    static void moveReport(Connection conn, int employeeId, LocalDate oldDate, LocalDate newDate, LocalDateTime updatedAt)
+            throws SQLException {
+        try (PreparedStatement subtract = conn.prepareStatement(JpaConst.STAT_SUBTRACT_SQL);
+                PreparedStatement deleteEmpty = conn.prepareStatement(JpaConst.STAT_DELETE_EMPTY_SQL);
+                PreparedStatement add = conn.prepareStatement(JpaConst.STAT_ADD_SQL)) {
+            subtract.setTimestamp(1, Timestamp.valueOf(updatedAt));
+            subtract.setInt(2, employeeId);
+            subtract.setDate(3, Date.valueOf(oldDate));
+            subtract.executeUpdate();
+
+            deleteEmpty.setInt(1, employeeId);
+            deleteEmpty.setDate(2, Date.valueOf(oldDate));
+            deleteEmpty.executeUpdate();
+
+            add.setInt(1, employeeId);
+            add.setDate(2, Date.valueOf(newDate));
+            add.setInt(3, 1);
+            add.setTimestamp(4, Timestamp.valueOf(updatedAt));
+            add.executeUpdate();
+        }
+    }
+}
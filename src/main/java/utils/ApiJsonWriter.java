@@ -0,0 +1,208 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import actions.views.CursorPage;
+import actions.views.EmployeeView;
+import actions.views.ReportSummaryView;
+import actions.views.ReportView;
+
+/*
+ * APIのレスポンス（JSON）をレスポンスに直接書き出すクラス
+ * 日報・従業員は1件ずつ書き出し、レスポンス全体を文字列やオブジェクトのツリーとして保持しない
+ * 書き出す項目は項目の定義（Fields）から、リクエストで指定されたものだけを選んで使用する
+ */
+public class ApiJsonWriter implements Closeable {
+
+    // APIのレスポンスのContent-Type
+    public static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /*
+     * 日報の概要（一覧）の項目
+     */
+    public static final Fields<ReportSummaryView> REPORT_SUMMARY = new Fields<ReportSummaryView>()
+            .add("id", (g, r) -> number(g, r.getId()))
+            .add("employeeId", (g, r) -> number(g, r.getEmployeeId()))
+            .add("employeeName", (g, r) -> string(g, r.getEmployeeName()))
+            .add("reportDate", (g, r) -> string(g, r.getReportDate()))
+            .add("title", (g, r) -> string(g, r.getTitle()));
+
+    /*
+     * 日報（詳細・登録・更新）の項目
+     */
+    public static final Fields<ReportView> REPORT = new Fields<ReportView>()
+            .add("id", (g, r) -> number(g, r.getId()))
+            .add("employeeId", (g, r) -> number(g, r.getEmployee().getId()))
+            .add("employeeCode", (g, r) -> string(g, r.getEmployee().getCode()))
+            .add("employeeName", (g, r) -> string(g, r.getEmployee().getName()))
+            .add("reportDate", (g, r) -> string(g, r.getReportDate()))
+            .add("title", (g, r) -> string(g, r.getTitle()))
+            .add("content", (g, r) -> string(g, r.getContent()))
+            .add("createdAt", (g, r) -> string(g, r.getCreatedAt()))
+            .add("updatedAt", (g, r) -> string(g, r.getUpdatedAt()));
+
+    /*
+     * 従業員の項目（パスワードは出力しない）
+     */
+    public static final Fields<EmployeeView> EMPLOYEE = new Fields<EmployeeView>()
+            .add("id", (g, e) -> number(g, e.getId()))
+            .add("code", (g, e) -> string(g, e.getCode()))
+            .add("name", (g, e) -> string(g, e.getName()))
+            .add("adminFlag", (g, e) -> number(g, e.getAdminFlag()))
+            .add("deleteFlag", (g, e) -> number(g, e.getDeleteFlag()))
+            .add("createdAt", (g, e) -> string(g, e.getCreateAt()))
+            .add("updatedAt", (g, e) -> string(g, e.getUpdateAt()));
+
+    private final JsonGenerator generator;
+
+    public ApiJsonWriter(OutputStream out) throws IOException {
+        generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+    }
+
+    /*
+     * 1件のデータをオブジェクトとして書き出す
+     */
+    public <T> void writeObject(T item, Fields<T> fields) throws IOException {
+        fields.write(generator, item);
+    }
+
+    /*
+     * 1ページ分のデータを書き出す
+     * {"items": [...], "count": 件数, "nextCursor": ..., "prevCursor": ...}
+     */
+    public <T> void writePage(CursorPage<T> page, long count, Fields<T> fields) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("items");
+        for (T item : page.getItems()) {
+            fields.write(generator, item);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("count", count);
+        generator.writeStringField("nextCursor", page.getNextCursor());
+        generator.writeStringField("prevCursor", page.getPrevCursor());
+        generator.writeEndObject();
+    }
+
+    /*
+     * エラーを書き出す
+     * {"errors": ["メッセージ", ...]}
+     */
+    public void writeErrors(List<String> errors) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("errors");
+        for (String error : errors) {
+            generator.writeString(error);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    /*
+     * 状態コードとエラーをレスポンスに書き出す
+     */
+    public static void sendErrors(HttpServletResponse response, int status, List<String> errors) throws IOException {
+        response.setStatus(status);
+        response.setContentType(CONTENT_TYPE);
+        try (ApiJsonWriter writer = new ApiJsonWriter(response.getOutputStream())) {
+            writer.writeErrors(errors);
+        }
+    }
+
+    private static void number(JsonGenerator g, Integer value) throws IOException {
+        if (value == null) {
+            g.writeNull();
+        } else {
+            g.writeNumber(value);
+        }
+    }
+
+    private static void string(JsonGenerator g, Object value) throws IOException {
+        if (value == null) {
+            g.writeNull();
+        } else {
+            g.writeString(value.toString());
+        }
+    }
+
+    /*
+     * 1項目の値を書き出す処理
+     */
+    @FunctionalInterface
+    public interface FieldWriter<T> {
+        void write(JsonGenerator generator, T item) throws IOException;
+    }
+
+    /*
+     * 書き出す項目の定義（項目名→値を書き出す処理 定義した順に書き出す）
+     */
+    public static class Fields<T> {
+        private final Map<String, FieldWriter<T>> writers = new LinkedHashMap<>();
+
+        private Fields<T> add(String name, FieldWriter<T> writer) {
+            writers.put(name, writer);
+            return this;
+        }
+
+        /*
+         * 指定された項目のみを書き出す定義を返却する
+         *
+         * @param names カンマ区切りの項目名（nullまたは空の場合はすべての項目）
+         * @return 項目の定義
+         * @throws IllegalArgumentException 定義にない項目名が含まれる場合
+         */
+        public Fields<T> select(String names) {
+            if (names == null || names.trim().equals("")) {
+                return this;
+            }
+            Set<String> requested = new HashSet<>();
+            for (String name : names.split(",")) {
+                String trimmed = name.trim();
+                if (!writers.containsKey(trimmed)) {
+                    throw new IllegalArgumentException(trimmed);
+                }
+                requested.add(trimmed);
+            }
+
+            // 指定の順序・重複によらず、定義した順に書き出す
+            Fields<T> selected = new Fields<>();
+            for (Map.Entry<String, FieldWriter<T>> entry : writers.entrySet()) {
+                if (requested.contains(entry.getKey())) {
+                    selected.add(entry.getKey(), entry.getValue());
+                }
+            }
+            return selected;
+        }
+
+        /*
+         * 1件のデータをオブジェクトとして書き出す
+         */
+        private void write(JsonGenerator generator, T item) throws IOException {
+            generator.writeStartObject();
+            for (Map.Entry<String, FieldWriter<T>> entry : writers.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                entry.getValue().write(generator, item);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * 全文検索用に文字列を語に分割するクラス
+ * 日本語（漢字・ひらがな・カタカナ）は分かち書きをせず、連続する2文字ずつの組（バイグラム）に分割する
+ * 英数字などその他の文字は連続する部分を1語とする
+ */
+public class BigramTokenizer {
+
+    // 1語の最大文字数（これを超える英数字の並びは切り詰める）
+    private static final int MAX_WORD_LENGTH = 64;
+
+    /*
+     * 文字列を語に分割する
+     * 全角・半角の違いと大文字・小文字の違いは正規化して同一視する
+     *
+     * @param text 分割する文字列（nullの場合は空のリストを返却）
+     * @return 出現順の語のリスト（重複を含む）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                // 日本語の並びはバイグラムに分割する（1文字のみの場合はその1文字）
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(new String(codePoints, start, 1));
+                } else {
+                    for (int j = start; j < i - 1; j++) {
+                        tokens.add(new String(codePoints, j, 2));
+                    }
+                }
+
+            } else if (Character.isLetterOrDigit(codePoints[i])) {
+                // 英数字などの並びは1語とする
+                while (i < codePoints.length && !isCjk(codePoints[i]) && Character.isLetterOrDigit(codePoints[i])) {
+                    i++;
+                }
+                tokens.add(new String(codePoints, start, Math.min(i - start, MAX_WORD_LENGTH)));
+
+            } else {
+                // 記号・空白は区切りとする
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /*
+     * 日本語の文字（漢字・ひらがな・カタカナ・長音記号）かどうかを判定する
+     */
+    public static boolean isCjk(int codePoint) {
+        if (codePoint == 'ー' || codePoint == '々') {
+            return true;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,46 @@
+package utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 2次キャッシュのリージョンごとの統計情報（取得時点のスナップショット）
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStatistics {
+
+    /*
+     * リージョン名
+     */
+    private final String region;
+
+    /*
+     * キャッシュから取得できた回数
+     */
+    private final long hits;
+
+    /*
+     * キャッシュに存在しなかった回数
+     */
+    private final long misses;
+
+    /*
+     * 上限件数・有効期限により破棄された件数
+     */
+    private final long evictions;
+
+    /*
+     * ヒット率（%）
+     */
+    public float getHitPercentage() {
+        long gets = hits + misses;
+        return gets == 0 ? 0 : hits * 100f / gets;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("region=%s hits=%d misses=%d evictions=%d hitRate=%.1f%%",
+                region, hits, misses, evictions, getHitPercentage());
+    }
+}
@@ -0,0 +1,93 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * レスポンスの圧縮の件数・圧縮率・CPU時間を記録するクラス
+ * 記録した統計は管理者のクエリの統計画面から参照できる
+ */
+public class CompressionMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // 1レスポンスあたりの圧縮にかかったCPU時間（マイクロ秒）
+    private static volatile LatencyHistogram cpu = new LatencyHistogram();
+
+    private static final LongAdder originalBytes = new LongAdder();
+    private static final LongAdder compressedBytes = new LongAdder();
+    private static final LongAdder belowThreshold = new LongAdder();
+    private static final LongAdder skippedType = new LongAdder();
+
+    /*
+     * 圧縮したレスポンス1件分を記録する
+     *
+     * @param original 圧縮前のバイト数
+     * @param compressed 圧縮後のバイト数
+     * @param cpuNanos 圧縮にかかったCPU時間（ナノ秒）
+     */
+    public static void record(long original, long compressed, long cpuNanos) {
+        cpu.record(cpuNanos / 1000);
+        originalBytes.add(original);
+        compressedBytes.add(compressed);
+    }
+
+    /*
+     * 閾値より小さいため圧縮しなかったレスポンスを記録する
+     */
+    public static void recordBelowThreshold() {
+        belowThreshold.increment();
+    }
+
+    /*
+     * 圧縮の対象外の形式のため圧縮しなかったレスポンスを記録する
+     */
+    public static void recordSkippedType() {
+        skippedType.increment();
+    }
+
+    /*
+     * 現在のスレッドのCPU時間（ナノ秒）を返却する
+     * 計測できない環境（仮想スレッドなど）では経過時間で代用する
+     */
+    public static long currentCpuTime() {
+        if (THREADS.isCurrentThreadCpuTimeSupported()) {
+            long nanos = THREADS.getCurrentThreadCpuTime();
+            if (nanos >= 0) {
+                return nanos;
+            }
+        }
+        return System.nanoTime();
+    }
+
+    /*
+     * 記録した統計を返却する
+     */
+    public static CompressionStatistics getStatistics() {
+        LatencyHistogram h = cpu;
+        long original = originalBytes.sum();
+        long compressed = compressedBytes.sum();
+        return new CompressionStatistics(
+                h.getCount(),
+                belowThreshold.sum(),
+                skippedType.sum(),
+                original,
+                compressed,
+                original == 0 ? 0 : compressed * 100 / original,
+                h.getMean(),
+                h.getValueAtPercentile(99),
+                h.getMax());
+    }
+
+    /*
+     * 記録した統計を破棄する
+     */
+    public static void reset() {
+        cpu = new LatencyHistogram();
+        originalBytes.reset();
+        compressedBytes.reset();
+        belowThreshold.reset();
+        skippedType.reset();
+    }
+}
@@ -0,0 +1,45 @@
+package utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * レスポンスの圧縮の統計情報（取得時点のスナップショット）
+ */
+@Getter
+@AllArgsConstructor
+public class CompressionStatistics {
+
+    /*
+     * 圧縮したレスポンス数
+     */
+    private final long compressed;
+
+    /*
+     * 閾値より小さいため圧縮しなかったレスポンス数
+     */
+    private final long belowThreshold;
+
+    /*
+     * 圧縮の対象外の形式（画像・圧縮済みなど）または200以外の状態コードのため圧縮しなかったレスポンス数
+     */
+    private final long skippedType;
+
+    /*
+     * 圧縮したレスポンスの圧縮前・圧縮後のバイト数の合計
+     */
+    private final long originalBytes;
+    private final long compressedBytes;
+
+    /*
+     * 圧縮率（圧縮後÷圧縮前 パーセント）
+     */
+    private final long ratioPercent;
+
+    /*
+     * 1レスポンスあたりの圧縮にかかったCPU時間の平均・99パーセンタイル・最大（マイクロ秒）
+     */
+    private final long meanCpuMicros;
+    private final long p99CpuMicros;
+    private final long maxCpuMicros;
+}
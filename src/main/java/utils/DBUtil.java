@@ -1,25 +1,282 @@
 package utils;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Persistence;
+import javax.servlet.ServletContext;
+
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcPropertySet;
 
 import constants.JpaConst;
+import constants.PropertyConst;
+import models.Employee;
+import models.Report;
+import models.ReportDailyStat;
 
 public class DBUtil {
 
-    private static EntityManagerFactory emf;
+    // 名前付きクエリを定義しているEntityクラス
+    private static final Class<?>[] ENTITY_CLASSES = { Employee.class, Report.class, ReportDailyStat.class };
+
+    private static volatile EntityManagerFactory emf;
+
+    // 読み込み専用（レプリカ）のEntityManagerFactory レプリカを設定していない場合はnull
+    private static volatile EntityManagerFactory replicaEmf;
+
+    // persistence.xmlの設定に上書きする値（コネクションプール設定）
+    private static Map<String, Object> overrides = new HashMap<>();
+
+    // レプリカのpersistence.xmlの設定に上書きする値（接続先とコネクションプール設定）
+    private static Map<String, Object> replicaOverrides = new HashMap<>();
+
+    // レプリカの接続先が設定されているかどうか
+    private static volatile boolean replicaConfigured = false;
 
     // EntityManagerインスタンスを生成
     public static EntityManager createEntityManager() {
         return _getEntityManagerFactory().createEntityManager();
     }
 
-    // EntityManagerFactoryインスタンスを生成
+    // 読み込み専用のEntityManagerインスタンスを生成（レプリカを設定していない場合はプライマリ）
+    public static EntityManager createReadOnlyEntityManager() {
+        EntityManagerFactory factory = replicaEmf;
+        if (factory == null) {
+            _getEntityManagerFactory();
+            factory = replicaEmf != null ? replicaEmf : emf;
+        }
+        EntityManager em = factory.createEntityManager();
+
+        // 更新しないため、変更検知用のスナップショットを保持しない
+        em.unwrap(Session.class).setDefaultReadOnly(true);
+        return em;
+    }
+
+    // レプリカを使用しているかどうか
+    public static boolean hasReplica() {
+        return replicaConfigured;
+    }
+
+    // EntityManagerFactoryインスタンスを取得（未生成の場合は生成する）
     public static EntityManagerFactory _getEntityManagerFactory() {
+        EntityManagerFactory factory = emf;
+        if (factory == null) {
+            factory = init();
+        }
+        return factory;
+    }
+
+    // EntityManagerFactoryインスタンスを生成（複数スレッドから呼ばれても1度だけ生成する）
+    public static synchronized EntityManagerFactory init() {
         if (emf == null) {
-            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME);
+            emf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME, overrides);
+            if (replicaConfigured) {
+                replicaEmf = Persistence.createEntityManagerFactory(JpaConst.PERSISTENCE_UNIT_NAME_REPLICA, replicaOverrides);
+            }
         }
         return emf;
     }
+
+    // EntityManagerFactoryインスタンスを破棄（コネクションプールも閉じられる）
+    public static synchronized void close() {
+        if (replicaEmf != null && replicaEmf.isOpen()) {
+            replicaEmf.close();
+        }
+        replicaEmf = null;
+        if (emf != null && emf.isOpen()) {
+            emf.close();
+        }
+        emf = null;
+    }
+
+    // 全ての名前付きクエリを事前に解析し、クエリプランをキャッシュさせる
+    // @return 解析したクエリの件数
+    public static int warmUpNamedQueries() {
+        int count = 0;
+        EntityManager em = createEntityManager();
+        try {
+            for (String name : getNamedQueryNames()) {
+                em.createNamedQuery(name);
+                count++;
+            }
+        } finally {
+            em.close();
+        }
+        return count;
+    }
+
+    // コネクションプールから指定数の接続を同時に取得・返却し、接続を確立させておく
+    // @return 確立した接続数
+    public static int warmUpConnections(int count) throws SQLException {
+        ConnectionProvider provider = getConnectionProvider();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(provider.getConnection());
+            }
+        } finally {
+            for (Connection conn : connections) {
+                provider.closeConnection(conn);
+            }
+        }
+        return connections.size();
+    }
+
+    // クラスパス上のマイグレーションスクリプトのうち未適用のものを適用する
+    // @return 適用したスクリプトの件数
+    public static int migrate() throws SQLException, IOException {
+        ConnectionProvider provider = getConnectionProvider();
+        Connection conn = provider.getConnection();
+        try {
+            return SchemaMigrator.migrate(conn);
+        } finally {
+            provider.closeConnection(conn);
+        }
+    }
+
+    // 接続でサーバーサイドカーソルによる読み込み（MySQLのuseCursorFetch）を有効にする
+    // 接続URLでは有効にせず、大量のデータを順に読み込む処理の接続にのみ設定する（MySQL以外の接続では何もしない）
+    // 使用後はresetCursorFetchで接続時の設定に戻してからコネクションプールに返却する
+    public static void enableCursorFetch(Connection conn) throws SQLException {
+        if (!conn.isWrapperFor(JdbcConnection.class)) {
+            return;
+        }
+        JdbcPropertySet properties = conn.unwrap(JdbcConnection.class).getPropertySet();
+
+        // カーソルはサーバーサイドのプリペアドステートメントでのみ使用される
+        properties.getBooleanProperty(PropertyKey.useServerPrepStmts).setValue(true);
+        properties.getBooleanProperty(PropertyKey.useCursorFetch).setValue(true);
+    }
+
+    // enableCursorFetchで変更した設定を接続時の値に戻す
+    public static void resetCursorFetch(Connection conn) throws SQLException {
+        if (!conn.isWrapperFor(JdbcConnection.class)) {
+            return;
+        }
+        JdbcPropertySet properties = conn.unwrap(JdbcConnection.class).getPropertySet();
+        properties.getBooleanProperty(PropertyKey.useCursorFetch).resetValue();
+        properties.getBooleanProperty(PropertyKey.useServerPrepStmts).resetValue();
+    }
+
+    // application.propertiesからコネクションプールの設定(db.pool.*)とレプリカの接続先(db.replica.*)を取り込む
+    public static void setPoolProperties(Properties properties) {
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(PropertyConst.DB_POOL_PREFIX)) {
+                overrides.put(name, properties.getProperty(name));
+                replicaOverrides.put(name, properties.getProperty(name));
+            }
+        }
+
+        String replicaUrl = properties.getProperty(PropertyConst.DB_REPLICA_URL.getValue());
+        if (replicaUrl != null && !replicaUrl.trim().equals("")) {
+            replicaOverrides.put(AvailableSettings.JPA_JDBC_URL, replicaUrl.trim());
+            putIfPresent(properties, PropertyConst.DB_REPLICA_USER, AvailableSettings.JPA_JDBC_USER);
+            putIfPresent(properties, PropertyConst.DB_REPLICA_PASSWORD, AvailableSettings.JPA_JDBC_PASSWORD);
+            replicaConfigured = true;
+        }
+    }
+
+    // persistence.xmlの設定に任意の値を上書きする（テストで組み込みDBに接続する場合などに使用する）
+    // EntityManagerFactoryの生成前に呼び出す
+    // @param primary プライマリの設定に上書きする値
+    // @param replica レプリカの設定に上書きする値（nullの場合はレプリカを使用しない）
+    public static synchronized void overrideSettings(Map<String, Object> primary, Map<String, Object> replica) {
+        overrides.putAll(primary);
+        if (replica != null) {
+            replicaOverrides.putAll(replica);
+        }
+        replicaConfigured = replica != null;
+    }
+
+    // application.propertiesに値がある場合のみレプリカの設定に上書きする
+    private static void putIfPresent(Properties properties, PropertyConst key, String setting) {
+        String value = properties.getProperty(key.getValue());
+        if (value != null) {
+            replicaOverrides.put(setting, value);
+        }
+    }
+
+    // コネクションプールの設定値を取得（設定がない場合はデフォルト値を返却）
+    public static int getPoolProperty(PropertyConst key, int defaultValue) {
+        Object value = overrides.get(key.getValue());
+        if (value == null || value.toString().trim().equals("")) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.toString().trim());
+    }
+
+    // コネクションプールの統計情報を取得
+    public static PoolStatistics getPoolStatistics() {
+        return getConnectionProvider()
+                .unwrap(PooledConnectionProvider.class)
+                .getStatistics();
+    }
+
+    // 2次キャッシュの指定したリージョンの統計情報を取得（JCacheの統計MBeanから取得する）
+    // MBeanから取得できない場合は、アプリケーションのログに記録しnullを返却する
+    // @return 統計情報（リージョンが存在しない・取得できない場合null）
+    public static CacheStatistics getCacheStatistics(ServletContext context, String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(new ObjectName(
+                    "javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region), null);
+            for (ObjectName name : names) {
+                return new CacheStatistics(
+                        region,
+                        (Long) server.getAttribute(name, "CacheHits"),
+                        (Long) server.getAttribute(name, "CacheMisses"),
+                        (Long) server.getAttribute(name, "CacheEvictions"));
+            }
+        } catch (JMException e) {
+            context.log("cache statistics unavailable: " + region, e);
+        }
+        return null;
+    }
+
+    // Hibernateが使用しているConnectionProviderを取得
+    private static ConnectionProvider getConnectionProvider() {
+        return _getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+    }
+
+    // Entityクラスに定義されている名前付きクエリの名前を取得
+    private static List<String> getNamedQueryNames() {
+        List<String> names = new ArrayList<>();
+        for (Class<?> entity : ENTITY_CLASSES) {
+            NamedQueries queries = entity.getAnnotation(NamedQueries.class);
+            if (queries != null) {
+                for (NamedQuery q : queries.value()) {
+                    names.add(q.name());
+                }
+            }
+            NamedQuery query = entity.getAnnotation(NamedQuery.class);
+            if (query != null) {
+                names.add(query.name());
+            }
+        }
+        return names;
+    }
 }
@@ -0,0 +1,32 @@
+package utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * リクエストで共有するEntityManagerの統計情報（取得時点のスナップショット）
+ */
+@Getter
+@AllArgsConstructor
+public class EntityManagerStatistics {
+
+    /*
+     * EntityManagerを生成したリクエストのうち、クローズしたものの数
+     */
+    private final long closed;
+
+    /*
+     * EntityManagerを生成し、まだクローズしていないリクエストの数
+     */
+    private final int open;
+
+    /*
+     * クローズしていないもののうち、最も長く保持しているものの保持時間（ミリ秒）
+     */
+    private final long oldestOpenMillis;
+
+    /*
+     * コミット・ロールバックされずに残っていたため、クローズ時にロールバックしたトランザクションの数
+     */
+    private final long leakedTransactions;
+}
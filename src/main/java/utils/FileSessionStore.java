@@ -0,0 +1,127 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/*
+ * セッションを1件ずつファイルに保存するセッションストア
+ * 複数のサーバーで共有するディレクトリ（NFSなど）を指定すれば、サーバー間でセッションを共有できる
+ * 書き込みは一時ファイルに書き出してから置き換えるため、読み込み中に書きかけのファイルを読むことはない
+ * セッションの版はファイルの更新日時とファイルの識別子（inode）の組み合わせとする（保存のたびにファイルが置き換わる）
+ */
+public class FileSessionStore implements SessionStore {
+
+    // セッションのファイルの拡張子
+    private static final String SUFFIX = ".session";
+
+    // ファイル名に使用できるセッションID（英数字・-・_のみ）
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private final Path dir;
+
+    /*
+     * @param dir セッションを保存するディレクトリ（存在しない場合は作成する）
+     */
+    public FileSessionStore(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    @Override
+    public SessionData load(String id) throws IOException {
+        Path file = file(id);
+        SessionData data;
+        try {
+            data = SessionData.fromBytes(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            // 読み込めないファイル（旧形式・破損）は削除する
+            Files.deleteIfExists(file);
+            return null;
+        }
+
+        if (data.isExpired(System.currentTimeMillis())) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+        return data;
+    }
+
+    @Override
+    public Object save(SessionData data) throws IOException {
+        Path file = file(data.getId());
+        Path temp = Files.createTempFile(dir, "write-", ".tmp");
+        try {
+            Files.write(temp, data.toBytes());
+
+            // 移動しても更新日時・識別子は変わらないため、置き換える前に版を取得する
+            Object version = version(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return version;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Object version(String id) throws IOException {
+        try {
+            return version(file(id));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /*
+     * ファイルの更新日時と識別子を版として返却する（識別子を取得できないファイルシステムでは更新日時のみ）
+     */
+    private static Object version(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return Arrays.asList(attributes.lastModifiedTime(), attributes.fileKey());
+    }
+
+    @Override
+    public void delete(String id) throws IOException {
+        Files.deleteIfExists(file(id));
+    }
+
+    @Override
+    public int purgeExpired(long now) throws IOException {
+        int purged = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    if (SessionData.fromBytes(Files.readAllBytes(file)).isExpired(now)) {
+                        Files.deleteIfExists(file);
+                        purged++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // 他のサーバーが先に削除した
+                } catch (IllegalArgumentException e) {
+                    Files.deleteIfExists(file);
+                    purged++;
+                }
+            }
+        }
+        return purged;
+    }
+
+    /*
+     * セッションIDに該当するファイルを返却する
+     *
+     * @throws IllegalArgumentException ファイル名に使用できない文字を含む場合
+     */
+    private Path file(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("invalid session id");
+        }
+        return dir.resolve(id + SUFFIX);
+    }
+}
@@ -0,0 +1,131 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/*
+ * jspで描画した画面の一部（HTML）を保持するキャッシュ
+ * 表示内容の世代（データの登録・更新のたびに変わる値）とともに保持し、世代が異なるもの・保持期間を過ぎたものは使用しない
+ * HTMLはUTF-8のバイト列で保持し、合計が上限を超えた場合は最も長く参照されていないものから破棄する
+ */
+public class FragmentCache {
+
+    // 保持するHTMLの合計の上限（バイト）
+    private final long maxBytes;
+
+    // キー→HTML（参照順）
+    private final LinkedHashMap<String, Fragment> fragments = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 保持しているHTMLの合計（バイト）
+    private long bytes;
+
+    public FragmentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /*
+     * 保持しているHTMLを返却する
+     *
+     * @param key 画面の一部を示すキー
+     * @param generation 現在の表示内容の世代
+     * @param maxAgeMillis 保持期間（ミリ秒 保持してから経過したものは使用しない）
+     * @return HTML（保持していない、世代が異なる、または保持期間を過ぎた場合null）
+     */
+    public synchronized String get(String key, long generation, long maxAgeMillis) {
+        Fragment fragment = fragments.get(key);
+        if (fragment == null) {
+            return null;
+        }
+        if (fragment.generation != generation || System.currentTimeMillis() - fragment.storedAt > maxAgeMillis) {
+            fragments.remove(key);
+            bytes -= fragment.html.length;
+            return null;
+        }
+        return new String(fragment.html, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * 描画したHTMLを保持するためのエントリを返却する（jspで描画後にEntry.storeを呼び出す）
+     *
+     * @param key 画面の一部を示すキー
+     * @param generation 描画に使用するデータを取得する前の表示内容の世代
+     * @param storable false: 保持しない（描画したHTMLをそのまま返却するのみ）
+     */
+    public Entry entry(String key, long generation, boolean storable) {
+        return new Entry(storable ? this : null, key, generation);
+    }
+
+    /*
+     * 保持しているHTMLをすべて破棄する
+     */
+    public synchronized void clear() {
+        fragments.clear();
+        bytes = 0;
+    }
+
+    /*
+     * HTMLを保持し、上限を超えた場合は最も長く参照されていないものから破棄する
+     */
+    private synchronized void put(String key, long generation, byte[] html) {
+        if (html.length > maxBytes) {
+            return;
+        }
+        Fragment old = fragments.get(key);
+        if (old != null && old.generation > generation) {
+            // より新しい世代のHTMLを保持している場合は置き換えない
+            return;
+        }
+        if (old != null) {
+            bytes -= old.html.length;
+        }
+        fragments.put(key, new Fragment(generation, html, System.currentTimeMillis()));
+        bytes += html.length;
+
+        Iterator<Fragment> eldest = fragments.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().html.length;
+            eldest.remove();
+        }
+    }
+
+    /*
+     * 保持しているHTMLと世代
+     */
+    private static class Fragment {
+        private final long generation;
+        private final byte[] html;
+        private final long storedAt; // 保持した時刻（ミリ秒）
+
+        Fragment(long generation, byte[] html, long storedAt) {
+            this.generation = generation;
+            this.html = html;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /*
+     * 描画したHTMLを保持するエントリ（リクエストスコープに設定し、jspから呼び出す）
+     */
+    public static class Entry {
+        private final FragmentCache cache;
+        private final String key;
+        private final long generation;
+
+        Entry(FragmentCache cache, String key, long generation) {
+            this.cache = cache;
+            this.key = key;
+            this.generation = generation;
+        }
+
+        /*
+         * 描画したHTMLを保持し、そのまま返却する
+         */
+        public String store(String html) {
+            if (cache != null && html != null) {
+                cache.put(key, generation, html.getBytes(StandardCharsets.UTF_8));
+            }
+            return html;
+        }
+    }
+}
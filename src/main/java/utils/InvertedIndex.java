@@ -0,0 +1,344 @@
+package utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 全文検索用の転置索引（語→文書idと出現回数）
+ * 文書の追加・置き換えと検索を並行して行えるよう、読み書きロックで保護する
+ * 検索結果はBM25でスコアを付け、スコアの降順に返却する
+ */
+public class InvertedIndex {
+
+    // 保存ファイルの識別子と形式のバージョン
+    private static final int MAGIC = 0x52494458; // "RIDX"
+    private static final int FORMAT_VERSION = 1;
+
+    // BM25のパラメータ
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // 文書id→解析済みの文書
+    private final Map<Integer, Document> documents = new HashMap<>();
+
+    // 語→（文書id→出現回数）
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+    // 全文書の語数の合計（平均文書長の計算に使用する）
+    private long totalLength = 0;
+
+    // 索引済みの文書のバージョンの最大値
+    private long maxVersion = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /*
+     * 文書のフィールドを語に分割し、語ごとの出現回数を数える
+     * ロックを取得しないため、複数のスレッドから並行して呼び出すことができる
+     *
+     * @param version 文書のバージョン（更新日時など 差分の取り込みに使用する）
+     * @param fields 文書のフィールドの値
+     * @param weights フィールドごとの重み（出現回数にこの値を掛ける）
+     * @return 解析済みの文書
+     */
+    public static Document analyze(long version, String[] fields, int[] weights) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (int i = 0; i < fields.length; i++) {
+            for (String term : BigramTokenizer.tokenize(fields[i])) {
+                frequencies.merge(term, weights[i], Integer::sum);
+                length += weights[i];
+            }
+        }
+
+        String[] terms = new String[frequencies.size()];
+        int[] counts = new int[frequencies.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+            terms[n] = e.getKey();
+            counts[n] = e.getValue();
+            n++;
+        }
+        return new Document(version, length, terms, counts);
+    }
+
+    /*
+     * 文書を追加する（同じidの文書がある場合は置き換える）
+     */
+    public void put(int id, Document document) {
+        lock.writeLock().lock();
+        try {
+            putInternal(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * 複数の文書をまとめて追加する（ロックの取得は1回のみ）
+     */
+    public void putAll(Map<Integer, Document> documents) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Integer, Document> e : documents.entrySet()) {
+                putInternal(e.getKey(), e.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * 索引済みの文書数を返却する
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 索引済みの文書のバージョンの最大値を返却する（文書がない場合はLong.MIN_VALUE）
+     */
+    public long getMaxVersion() {
+        lock.readLock().lock();
+        try {
+            return maxVersion;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 検索語をすべて含む文書をスコアの降順（同点の場合はidの降順）で返却する
+     * 1文字の日本語の検索語は、その文字を含むバイグラムのいずれかを含む文書に一致させる
+     *
+     * @param terms 検索語（BigramTokenizerで分割したもの）
+     * @return 一致した文書のidとスコアのリスト
+     */
+    public List<Hit> search(List<String> terms) {
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || documents.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            // 検索語ごとに、一致する索引上の語のグループを作成する
+            List<List<String>> groups = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                List<String> group = expand(term);
+                if (group.isEmpty()) {
+                    // 1つでも一致しない検索語があれば結果はない
+                    return Collections.emptyList();
+                }
+                groups.add(group);
+            }
+
+            // 該当する文書が少ないグループから絞り込む
+            groups.sort(Comparator.comparingInt(this::countPostings));
+
+            double averageLength = (double) totalLength / documents.size();
+            Map<Integer, Double> scores = null;
+            for (List<String> group : groups) {
+                Map<Integer, Double> groupScores = new HashMap<>();
+                for (String term : group) {
+                    Map<Integer, Integer> docs = postings.get(term);
+                    double idf = idf(docs.size());
+                    for (Map.Entry<Integer, Integer> e : docs.entrySet()) {
+                        if (scores != null && !scores.containsKey(e.getKey())) {
+                            continue;
+                        }
+                        double score = bm25(idf, e.getValue(), documents.get(e.getKey()).getLength(), averageLength);
+                        groupScores.merge(e.getKey(), score, Double::sum);
+                    }
+                }
+
+                if (scores != null) {
+                    for (Map.Entry<Integer, Double> e : groupScores.entrySet()) {
+                        e.setValue(e.getValue() + scores.get(e.getKey()));
+                    }
+                }
+                scores = groupScores;
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                hits.add(new Hit(e.getKey(), e.getValue()));
+            }
+            hits.sort(Comparator.comparingDouble(Hit::getScore).reversed()
+                    .thenComparing(Comparator.comparingInt(Hit::getId).reversed()));
+            return hits;
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * 索引を出力先に書き出す（語→文書の対応は読み込み時に再構築するため、文書のみを書き出す）
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(documents.size());
+            for (Map.Entry<Integer, Document> e : documents.entrySet()) {
+                Document doc = e.getValue();
+                out.writeInt(e.getKey());
+                out.writeLong(doc.getVersion());
+                out.writeInt(doc.getLength());
+                out.writeInt(doc.getTerms().length);
+                for (int i = 0; i < doc.getTerms().length; i++) {
+                    out.writeUTF(doc.getTerms()[i]);
+                    out.writeInt(doc.getCounts()[i]);
+                }
+            }
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * writeToで書き出した索引を読み込む
+     *
+     * @throws IOException 形式が不正な場合
+     */
+    public static InvertedIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("unsupported search index format");
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        int size = in.readInt();
+        for (int n = 0; n < size; n++) {
+            int id = in.readInt();
+            long version = in.readLong();
+            int length = in.readInt();
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            int[] counts = new int[termCount];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+                counts[i] = in.readInt();
+            }
+            index.putInternal(id, new Document(version, length, terms, counts));
+        }
+        return index;
+    }
+
+    /*
+     * 文書を追加する（書き込みロックを取得した状態で呼び出す）
+     */
+    private void putInternal(int id, Document document) {
+        // 置き換える文書の語を取り除く
+        Document old = documents.put(id, document);
+        if (old != null) {
+            totalLength -= old.getLength();
+            for (String term : old.getTerms()) {
+                Map<Integer, Integer> docs = postings.get(term);
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        totalLength += document.getLength();
+        for (int i = 0; i < document.getTerms().length; i++) {
+            postings.computeIfAbsent(document.getTerms()[i], k -> new HashMap<>()).put(id, document.getCounts()[i]);
+        }
+        maxVersion = Math.max(maxVersion, document.getVersion());
+    }
+
+    /*
+     * 検索語に一致する索引上の語のリストを返却する
+     * 1文字の日本語はバイグラムに含まれるため、その文字を含む語をすべて対象とする
+     */
+    private List<String> expand(String term) {
+        List<String> group = new ArrayList<>();
+        if (term.codePointCount(0, term.length()) == 1 && BigramTokenizer.isCjk(term.codePointAt(0))) {
+            for (String indexed : postings.keySet()) {
+                if (indexed.contains(term) && indexed.codePointCount(0, indexed.length()) <= 2) {
+                    group.add(indexed);
+                }
+            }
+        } else if (postings.containsKey(term)) {
+            group.add(term);
+        }
+        return group;
+    }
+
+    /*
+     * グループの語のいずれかを含む文書数（重複を含む概算）を返却する
+     */
+    private int countPostings(List<String> group) {
+        int count = 0;
+        for (String term : group) {
+            count += postings.get(term).size();
+        }
+        return count;
+    }
+
+    /*
+     * 語を含む文書数から逆文書頻度を求める
+     */
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /*
+     * BM25による語のスコアを求める
+     */
+    private static double bm25(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    /*
+     * 解析済みの文書（語と出現回数）
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Document {
+
+        // 文書のバージョン
+        private final long version;
+
+        // 語数（重みを掛けた出現回数の合計）
+        private final int length;
+
+        // 語と出現回数（同じ位置のものが対応する）
+        private final String[] terms;
+        private final int[] counts;
+    }
+
+    /*
+     * 検索結果の1件（文書idとスコア）
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Hit {
+        private final int id;
+        private final double score;
+    }
+}
@@ -0,0 +1,121 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * 処理時間（マイクロ秒）の分布を記録するヒストグラム
+ * HdrHistogramと同じく、2のべき乗ごとの区間をさらに32等分した区間で件数を数えるため、
+ * 記録する値の大きさによらず誤差は約3%以内で、メモリの使用量は一定（区間数1024）となる
+ * 記録はロックを取得せずに行うため、複数のスレッドから並行して呼び出すことができる
+ */
+public class LatencyHistogram {
+
+    // 2のべき乗ごとの区間を分割する数（2^SUB_BITS）
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    // 記録できる最大値（これを超える値はこの値として記録する 約19時間）
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    // 区間数
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    // 区間ごとの件数
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    // 記録した件数・値の合計・最大値
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /*
+     * 値を記録する
+     *
+     * @param micros 処理時間（マイクロ秒）
+     */
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /*
+     * 記録した件数を返却する
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /*
+     * 記録した値の平均を返却する（記録がない場合0）
+     */
+    public long getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / n;
+    }
+
+    /*
+     * 記録した値の最大値を返却する
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /*
+     * 指定した百分位の値を返却する（その値が属する区間の上限 記録がない場合0）
+     *
+     * @param percentile 百分位（0～100）
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(n * Math.min(percentile, 100) / 100));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /*
+     * 値が属する区間の番号を返却する
+     * 0～31はそのままの値、それ以上は最上位ビットの位置と続く5ビットで区間を決める
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) ((value >>> shift) & (SUB_COUNT - 1));
+        return SUB_COUNT + shift * SUB_COUNT + sub;
+    }
+
+    /*
+     * 区間に属する値の上限を返却する
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_COUNT) / SUB_COUNT;
+        int sub = (index - SUB_COUNT) % SUB_COUNT;
+        long lower = (long) (SUB_COUNT + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
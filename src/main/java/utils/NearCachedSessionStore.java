@@ -0,0 +1,139 @@
+package utils;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * 読み込んだセッションを一定時間メモリに保持し、保存先からのセッションの読み込みを省くセッションストア
+ * 保存・削除は保存先に反映してからメモリの内容を置き換える（書き込みは常に保存先まで行う）
+ * 保持しているセッションは、保存先の版（ファイルの更新日時など）が変わっていない場合のみ使用する
+ * （他のサーバーで保存・削除されたセッションを古い内容のまま使用・保存しない）
+ */
+public class NearCachedSessionStore implements SessionStore {
+
+    private final SessionStore delegate;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // セッションID→読み込んだセッションと版・読み込んだ時刻（参照順 件数が上限を超えた場合は最も長く参照されていないものから破棄する）
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    /*
+     * @param delegate 保存先
+     * @param maxEntries メモリに保持するセッションの上限数
+     * @param ttlMillis メモリに保持する時間（ミリ秒）
+     */
+    public NearCachedSessionStore(SessionStore delegate, int maxEntries, long ttlMillis) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > NearCachedSessionStore.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public SessionData load(String id) throws IOException {
+        long now = System.currentTimeMillis();
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+        }
+        if (entry != null && now - entry.cachedAt < ttlMillis) {
+            if (entry.data.isExpired(now)) {
+                remove(id, entry);
+                return null;
+            }
+
+            // 保存先の版のみを確認し、変わっていない場合は保持しているセッションを使用する
+            Object version = delegate.version(id);
+            if (version != null && version.equals(entry.version)) {
+                return entry.data;
+            }
+            remove(id, entry);
+        }
+
+        // 版は読み込みの前に取得する（間に保存された場合は次回の確認で版が異なり、読み込み直す）
+        Object version = delegate.version(id);
+        if (version == null) {
+            return null;
+        }
+        SessionData data = delegate.load(id);
+        if (data != null) {
+            cache(data, version, now);
+        }
+        return data;
+    }
+
+    @Override
+    public Object save(SessionData data) throws IOException {
+        Object version = delegate.save(data);
+        cache(data, version, System.currentTimeMillis());
+        return version;
+    }
+
+    @Override
+    public Object version(String id) throws IOException {
+        return delegate.version(id);
+    }
+
+    @Override
+    public void delete(String id) throws IOException {
+        delegate.delete(id);
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    @Override
+    public int purgeExpired(long now) throws IOException {
+        synchronized (entries) {
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().data.isExpired(now)) {
+                    it.remove();
+                }
+            }
+        }
+        return delegate.purgeExpired(now);
+    }
+
+    private void cache(SessionData data, Object version, long now) {
+        synchronized (entries) {
+            entries.put(data.getId(), new CacheEntry(data, version, now));
+        }
+    }
+
+    /*
+     * 保持しているセッションを破棄する（他のスレッドが置き換えた場合は破棄しない）
+     */
+    private void remove(String id, CacheEntry entry) {
+        synchronized (entries) {
+            if (entries.get(id) == entry) {
+                entries.remove(id);
+            }
+        }
+    }
+
+    /*
+     * メモリに保持しているセッションと版・読み込んだ時刻
+     */
+    private static class CacheEntry {
+        private final SessionData data;
+        private final Object version;
+        private final long cachedAt;
+
+        CacheEntry(SessionData data, Object version, long cachedAt) {
+            this.data = data;
+            this.version = version;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
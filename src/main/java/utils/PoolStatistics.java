@@ -0,0 +1,79 @@
+package utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * コネクションプールの統計情報（取得時点のスナップショット）
+ */
+@Getter
+@AllArgsConstructor
+public class PoolStatistics {
+
+    /*
+     * 使用中の接続数
+     */
+    private final int active;
+
+    /*
+     * アイドル状態の接続数
+     */
+    private final int idle;
+
+    /*
+     * プール内の全接続数
+     */
+    private final int total;
+
+    /*
+     * 接続の空きを待っているスレッド数
+     */
+    private final int waiters;
+
+    /*
+     * 最大接続数
+     */
+    private final int maxSize;
+
+    /*
+     * 接続取得の回数
+     */
+    private final long acquireCount;
+
+    /*
+     * 接続取得がタイムアウトした回数
+     */
+    private final long acquireTimeouts;
+
+    /*
+     * 接続取得にかかった平均時間（マイクロ秒）
+     */
+    private final long averageAcquireMicros;
+
+    /*
+     * 接続取得にかかった最大時間（マイクロ秒）
+     */
+    private final long maxAcquireMicros;
+
+    /*
+     * 閾値以上の時間保持していた接続の数と、その閾値（ミリ秒）
+     */
+    private final long longHeld;
+    private final long longHeldMillis;
+
+    /*
+     * 接続をプールから取得してから返却するまでの時間（ミリ秒）
+     */
+    private final long meanHeldMillis;
+    private final long p99HeldMillis;
+    private final long maxHeldMillis;
+
+    @Override
+    public String toString() {
+        return String.format(
+                "active=%d idle=%d total=%d/%d waiters=%d acquired=%d timeouts=%d avgAcquire=%dus maxAcquire=%dus"
+                        + " longHeld=%d avgHeld=%dms p99Held=%dms maxHeld=%dms",
+                active, idle, total, maxSize, waiters, acquireCount, acquireTimeouts,
+                averageAcquireMicros, maxAcquireMicros, longHeld, meanHeldMillis, p99HeldMillis, maxHeldMillis);
+    }
+}
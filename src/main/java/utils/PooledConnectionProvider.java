@@ -0,0 +1,235 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import constants.PropertyConst;
+
+/*
+ * HikariCPによるコネクションプールをHibernateに提供するクラス
+ * persistence.xmlのhibernate.connection.provider_classに指定して使用する
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    private static final long serialVersionUID = 1L;
+
+    // プール名（persistence-unit名が取得できない場合に使用する）
+    private static final String POOL_NAME = "daily_report_system-pool";
+
+    // 各設定値のデフォルト値
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final int DEFAULT_MIN_IDLE = 2;
+    public static final int DEFAULT_CONNECTION_TIMEOUT = 30000;
+    private static final long DEFAULT_VALIDATION_TIMEOUT = 5000;
+    private static final long DEFAULT_LEAK_DETECTION = 60000;
+    private static final long DEFAULT_IDLE_TIMEOUT = 600000;
+    private static final long DEFAULT_MAX_LIFETIME = 1800000;
+    private static final long DEFAULT_LONG_HELD_MILLIS = 5000;
+
+    private static final Logger LOG = Logger.getLogger(PooledConnectionProvider.class.getName());
+
+    private transient HikariDataSource dataSource;
+
+    // 接続取得の計測値
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder acquireTimeouts = new LongAdder();
+
+    // 接続の保持時間（プールから取得してから返却するまで マイクロ秒）の計測値
+    private final LatencyHistogram held = new LatencyHistogram();
+    private final LongAdder longHeld = new LongAdder();
+    private long longHeldMillis = DEFAULT_LONG_HELD_MILLIS;
+
+    /*
+     * Hibernateから渡された設定値をもとにプールを作成する
+     * プールの大きさ等はapplication.propertiesのdb.pool.*の値を使用する
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        HikariConfig config = new HikariConfig();
+        // persistence-unitごとに別のプールとなるため、プール名はpersistence-unit名から作成する
+        Object unitName = configurationValues.get(AvailableSettings.PERSISTENCE_UNIT_NAME);
+        config.setPoolName(unitName == null ? POOL_NAME : unitName + "-pool");
+
+        // 接続先（JPA標準のキーを優先し、なければHibernateのキーを使用）
+        config.setDriverClassName(getString(configurationValues, AvailableSettings.JPA_JDBC_DRIVER, AvailableSettings.DRIVER));
+        config.setJdbcUrl(getString(configurationValues, AvailableSettings.JPA_JDBC_URL, AvailableSettings.URL));
+        config.setUsername(getString(configurationValues, AvailableSettings.JPA_JDBC_USER, AvailableSettings.USER));
+        config.setPassword(getString(configurationValues, AvailableSettings.JPA_JDBC_PASSWORD, AvailableSettings.PASS));
+
+        // トランザクションはHibernate側で開始するため自動コミットは無効にする
+        config.setAutoCommit(false);
+
+        // プールの大きさ
+        config.setMaximumPoolSize(getInt(configurationValues, PropertyConst.DB_POOL_MAX_SIZE, DEFAULT_MAX_SIZE));
+        config.setMinimumIdle(getInt(configurationValues, PropertyConst.DB_POOL_MIN_IDLE, DEFAULT_MIN_IDLE));
+
+        // タイムアウト・接続検証・リーク検出
+        config.setConnectionTimeout(getLong(configurationValues, PropertyConst.DB_POOL_CONNECTION_TIMEOUT, DEFAULT_CONNECTION_TIMEOUT));
+        config.setValidationTimeout(getLong(configurationValues, PropertyConst.DB_POOL_VALIDATION_TIMEOUT, DEFAULT_VALIDATION_TIMEOUT));
+        config.setLeakDetectionThreshold(getLong(configurationValues, PropertyConst.DB_POOL_LEAK_DETECTION, DEFAULT_LEAK_DETECTION));
+        config.setIdleTimeout(getLong(configurationValues, PropertyConst.DB_POOL_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT));
+        config.setMaxLifetime(getLong(configurationValues, PropertyConst.DB_POOL_MAX_LIFETIME, DEFAULT_MAX_LIFETIME));
+        longHeldMillis = getLong(configurationValues, PropertyConst.DB_POOL_LONG_HELD_MILLIS, DEFAULT_LONG_HELD_MILLIS);
+
+        // 接続取得時間・保持時間の計測、およびJMXからの統計情報の参照
+        config.setMetricsTrackerFactory(new AcquireTrackerFactory());
+        config.setRegisterMbeans(true);
+
+        dataSource = new HikariDataSource(config);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        // プールに返却する
+        conn.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || PooledConnectionProvider.class.isAssignableFrom(unwrapType)
+                || HikariDataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType)
+                || PooledConnectionProvider.class.isAssignableFrom(unwrapType)) {
+            return (T) this;
+        } else if (HikariDataSource.class.isAssignableFrom(unwrapType)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    /*
+     * プールを閉じる（EntityManagerFactoryのクローズ時に呼び出される）
+     */
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /*
+     * 現在のプールの統計情報を返却する
+     *
+     * @return プールの統計情報
+     */
+    public PoolStatistics getStatistics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        long count = acquireCount.sum();
+
+        return new PoolStatistics(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                dataSource.getMaximumPoolSize(),
+                count,
+                acquireTimeouts.sum(),
+                count == 0 ? 0 : acquireNanos.sum() / count / 1000,
+                maxAcquireNanos.get() / 1000,
+                longHeld.sum(),
+                longHeldMillis,
+                held.getMean() / 1000,
+                held.getValueAtPercentile(99) / 1000,
+                held.getMax() / 1000);
+    }
+
+    /*
+     * 設定値を文字列で取得する
+     * 第1キーに値がなければ第2キーの値を返却する
+     */
+    @SuppressWarnings("rawtypes")
+    private static String getString(Map values, String key, String fallbackKey) {
+        Object value = values.get(key);
+        if (value == null) {
+            value = values.get(fallbackKey);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    /*
+     * 設定値を数値(int)で取得する 設定がなければデフォルト値を返却する
+     */
+    @SuppressWarnings("rawtypes")
+    private static int getInt(Map values, PropertyConst key, int defaultValue) {
+        return (int) getLong(values, key, defaultValue);
+    }
+
+    /*
+     * 設定値を数値(long)で取得する 設定がなければデフォルト値を返却する
+     */
+    @SuppressWarnings("rawtypes")
+    private static long getLong(Map values, PropertyConst key, long defaultValue) {
+        Object value = values.get(key.getValue());
+        if (value == null || value.toString().trim().equals("")) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
+    /*
+     * HikariCPから接続取得の所要時間と、接続の保持時間（取得から返却まで）を受け取り集計するクラス
+     */
+    private class AcquireTrackerFactory implements MetricsTrackerFactory {
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats poolStats) {
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquireCount.increment();
+                    acquireNanos.add(elapsedAcquiredNanos);
+                    maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    held.record(elapsedBorrowedMillis * 1000);
+                    if (elapsedBorrowedMillis >= longHeldMillis) {
+                        longHeld.increment();
+                        LOG.warning(String.format("connection held for %d ms: %s", elapsedBorrowedMillis, poolName));
+                    }
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    acquireTimeouts.increment();
+                }
+            };
+        }
+    }
+}
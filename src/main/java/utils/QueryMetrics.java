@@ -0,0 +1,305 @@
+package utils;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.Parameter;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.query.Query;
+
+/*
+ * 名前付きクエリの実行時間と行数をクエリ名ごとに記録するクラス
+ * 閾値より遅いクエリは、パラメータの値を伏せた上で専用のログ（slow_query）に出力する
+ * 記録した統計は管理者の統計画面から参照できる
+ */
+public class QueryMetrics {
+
+    // 遅いクエリを出力するロガー名
+    public static final String SLOW_LOG_NAME = "slow_query";
+
+    // 遅いクエリとみなす実行時間のデフォルト値（ミリ秒）
+    public static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 200;
+
+    // 専用のログファイルの1ファイルの上限サイズ（バイト）と世代数
+    private static final int SLOW_LOG_LIMIT = 10 * 1024 * 1024;
+    private static final int SLOW_LOG_COUNT = 5;
+
+    private static final Logger SLOW_LOG = Logger.getLogger(SLOW_LOG_NAME);
+
+    // クエリ名→統計
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    // 遅いクエリとみなす実行時間（ナノ秒）
+    private static volatile long slowThresholdNanos = DEFAULT_SLOW_THRESHOLD_MILLIS * 1000000;
+
+    /*
+     * 名前付きクエリを作成し、実行時間を記録するクエリを返却する
+     * 返却したクエリのgetResultList・getSingleResult・executeUpdateの実行時間と行数を記録する
+     *
+     * @param em 使用するEntityManager
+     * @param name クエリ名（JpaConst.Q_*）
+     * @param resultClass 結果の型
+     */
+    public static <T> TypedQuery<T> createNamedQuery(EntityManager em, String name, Class<T> resultClass) {
+        return instrument(name, em.createNamedQuery(name, resultClass));
+    }
+
+    /*
+     * クエリを実行時間を記録するクエリでラップする
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TypedQuery<T> instrument(String name, TypedQuery<T> query) {
+        return (TypedQuery<T>) Proxy.newProxyInstance(
+                QueryMetrics.class.getClassLoader(),
+                new Class<?>[] { TypedQuery.class },
+                new TimedQuery(name, query));
+    }
+
+    /*
+     * 遅いクエリとみなす実行時間を設定する
+     */
+    public static void setSlowThresholdMillis(long millis) {
+        slowThresholdNanos = millis * 1000000;
+    }
+
+    /*
+     * 遅いクエリとみなす実行時間（ミリ秒）を返却する
+     */
+    public static long getSlowThresholdMillis() {
+        return slowThresholdNanos / 1000000;
+    }
+
+    /*
+     * 遅いクエリのログの出力先ファイルを設定する（設定しない場合はサーバーのログに出力する）
+     *
+     * @param pattern ファイル名のパターン（java.util.logging.FileHandlerの形式）
+     */
+    public static synchronized void setSlowLogFile(String pattern) throws IOException {
+        FileHandler handler = new FileHandler(pattern, SLOW_LOG_LIMIT, SLOW_LOG_COUNT, true);
+        handler.setFormatter(new SimpleFormatter());
+        handler.setEncoding("UTF-8");
+        closeSlowLogFile();
+        SLOW_LOG.addHandler(handler);
+        SLOW_LOG.setUseParentHandlers(false);
+    }
+
+    /*
+     * 遅いクエリのログの出力先ファイルを閉じる
+     */
+    public static synchronized void closeSlowLogFile() {
+        for (Handler handler : SLOW_LOG.getHandlers()) {
+            SLOW_LOG.removeHandler(handler);
+            handler.close();
+        }
+        SLOW_LOG.setUseParentHandlers(true);
+    }
+
+    /*
+     * クエリ名ごとの統計を、実行時間の合計の降順で返却する
+     */
+    public static List<QueryStatistics> getStatistics() {
+        List<QueryStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<String, Metric> e : metrics.entrySet()) {
+            statistics.add(e.getValue().snapshot(e.getKey()));
+        }
+        statistics.sort(Comparator.comparingLong(QueryStatistics::getTotalMicros).reversed()
+                .thenComparing(QueryStatistics::getName));
+        return statistics;
+    }
+
+    /*
+     * 記録した統計を破棄する
+     */
+    public static void reset() {
+        metrics.clear();
+    }
+
+    /*
+     * クエリ1回分の実行時間と行数を記録し、閾値より遅い場合はログに出力する
+     */
+    private static void record(String name, TypedQuery<?> query, long nanos, long rows, boolean failed, Map<String, Object> params) {
+        Metric metric = metrics.computeIfAbsent(name, k -> new Metric());
+        metric.latency.record(nanos / 1000);
+        metric.rows.add(rows);
+        metric.maxRows.accumulateAndGet(rows, Math::max);
+        if (failed) {
+            metric.errors.increment();
+        }
+
+        if (nanos >= slowThresholdNanos) {
+            metric.slow.increment();
+            if (SLOW_LOG.isLoggable(Level.WARNING)) {
+                SLOW_LOG.warning(String.format("%d ms rows=%d%s query=%s params={%s} jpql=%s",
+                        nanos / 1000000, rows, failed ? " failed" : "", name, redact(params),
+                        query.unwrap(Query.class).getQueryString()));
+            }
+        }
+    }
+
+    /*
+     * パラメータの値を伏せ、名前と型のみの文字列にする（コレクションは要素数も出力する）
+     */
+    private static String redact(Map<String, Object> params) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Object> e : params.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append('=');
+            Object value = e.getValue();
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Collection) {
+                sb.append("<collection[").append(((Collection<?>) value).size()).append("]>");
+            } else {
+                sb.append('<').append(typeName(value)).append('>');
+            }
+        }
+        return sb.toString();
+    }
+
+    /*
+     * 値の型名を返却する（Hibernateのプロキシの場合は元のクラス名）
+     */
+    private static String typeName(Object value) {
+        String name = value.getClass().getSimpleName();
+        int proxy = name.indexOf('$');
+        return proxy > 0 ? name.substring(0, proxy) : name;
+    }
+
+    /*
+     * クエリ名ごとの統計
+     */
+    private static class Metric {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong maxRows = new AtomicLong();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        private QueryStatistics snapshot(String name) {
+            return new QueryStatistics(
+                    name,
+                    latency.getCount(),
+                    errors.sum(),
+                    slow.sum(),
+                    latency.getMean(),
+                    latency.getValueAtPercentile(50),
+                    latency.getValueAtPercentile(90),
+                    latency.getValueAtPercentile(99),
+                    latency.getMax(),
+                    rows.sum(),
+                    maxRows.get());
+        }
+    }
+
+    /*
+     * クエリの実行を計測するプロキシ
+     * パラメータは名前と値を保持し（値はログに出力しない）、設定系のメソッドはプロキシ自身を返却する
+     */
+    private static class TimedQuery implements InvocationHandler {
+        private final String name;
+        private final TypedQuery<?> target;
+        private final Map<String, Object> params = new LinkedHashMap<>();
+
+        TimedQuery(String name, TypedQuery<?> target) {
+            this.name = name;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "getResultList":
+            case "getSingleResult":
+            case "executeUpdate":
+                return execute(method, args);
+            case "setParameter":
+                rememberParameter(args);
+                break;
+            default:
+                break;
+            }
+
+            Object result = call(method, args);
+            return result == target ? proxy : result;
+        }
+
+        /*
+         * クエリを実行し、実行時間と行数を記録する
+         */
+        private Object execute(Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            long rows = 0;
+            boolean failed = false;
+            try {
+                Object result = call(method, args);
+                if (result instanceof List) {
+                    rows = ((List<?>) result).size();
+                } else if (result instanceof Integer && method.getName().equals("executeUpdate")) {
+                    rows = (Integer) result;
+                } else {
+                    rows = 1;
+                }
+                return result;
+
+            } catch (NoResultException e) {
+                // 該当なしは正常な結果として記録する
+                throw e;
+            } catch (Throwable e) {
+                failed = true;
+                throw e;
+            } finally {
+                record(name, target, System.nanoTime() - start, rows, failed, params);
+            }
+        }
+
+        /*
+         * 設定したパラメータの名前と値を保持する
+         */
+        private void rememberParameter(Object[] args) {
+            if (args == null || args.length < 2) {
+                return;
+            }
+            if (args[0] instanceof String) {
+                params.put((String) args[0], args[1]);
+            } else if (args[0] instanceof Parameter) {
+                Parameter<?> p = (Parameter<?>) args[0];
+                params.put(p.getName() != null ? p.getName() : String.valueOf(p.getPosition()), args[1]);
+            } else {
+                params.put(String.valueOf(args[0]), args[1]);
+            }
+        }
+
+        /*
+         * 元のクエリのメソッドを呼び出す（メソッドが送出した例外はそのまま送出する）
+         */
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 名前付きクエリごとの実行統計（取得時点のスナップショット）
+ */
+@Getter
+@AllArgsConstructor
+public class QueryStatistics {
+
+    /*
+     * クエリ名（JpaConst.Q_*）
+     */
+    private final String name;
+
+    /*
+     * 実行回数
+     */
+    private final long count;
+
+    /*
+     * 例外で終了した回数
+     */
+    private final long errors;
+
+    /*
+     * 閾値より遅かった回数
+     */
+    private final long slowCount;
+
+    /*
+     * 実行時間の平均（マイクロ秒）
+     */
+    private final long meanMicros;
+
+    /*
+     * 実行時間の中央値・90・99パーセンタイル（マイクロ秒）
+     */
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+
+    /*
+     * 実行時間の最大値（マイクロ秒）
+     */
+    private final long maxMicros;
+
+    /*
+     * 取得・更新した行数の合計
+     */
+    private final long totalRows;
+
+    /*
+     * 1回で取得・更新した行数の最大値
+     */
+    private final long maxRows;
+
+    /*
+     * 1回あたりの行数の平均
+     */
+    public long getMeanRows() {
+        return count == 0 ? 0 : totalRows / count;
+    }
+
+    /*
+     * 実行時間の合計（マイクロ秒 概算）
+     */
+    public long getTotalMicros() {
+        return meanMicros * count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "query=%s count=%d errors=%d slow=%d mean=%dus p50=%dus p90=%dus p99=%dus max=%dus rows=%d maxRows=%d",
+                name, count, errors, slowCount, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros,
+                totalRows, maxRows);
+    }
+}
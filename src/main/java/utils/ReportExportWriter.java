@@ -0,0 +1,151 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import actions.views.ReportView;
+
+/*
+ * 日報を1件ずつ出力先に書き出すクラス（CSVまたはJSON）
+ * 書き出した日報は保持しないため、件数によらずメモリの使用量は一定となる
+ * 列名は一括登録（ReportImportReader）と同じとし、CSVで出力したファイルはそのまま一括登録に使用できる
+ */
+public abstract class ReportExportWriter implements Closeable {
+
+    // 一括登録にない列の列名
+    public static final String COL_EMP_NAME = "employee_name";
+    public static final String COL_CREATED_AT = "created_at";
+    public static final String COL_UPDATED_AT = "updated_at";
+
+    // 出力する列（この順で出力する）
+    private static final String[] COLUMNS = {
+            ReportImportReader.COL_EMP_CODE,
+            COL_EMP_NAME,
+            ReportImportReader.COL_REP_DATE,
+            ReportImportReader.COL_TITLE,
+            ReportImportReader.COL_CONTENT,
+            COL_CREATED_AT,
+            COL_UPDATED_AT };
+
+    // 出力先に書き出す単位（バイト）
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /*
+     * CSV（RFC 4180形式 1行目は列名）で書き出すインスタンスを作成する
+     */
+    public static ReportExportWriter csv(OutputStream out) throws IOException {
+        return new CsvWriter(out);
+    }
+
+    /*
+     * JSON（日報オブジェクトの配列）で書き出すインスタンスを作成する
+     */
+    public static ReportExportWriter json(OutputStream out) throws IOException {
+        return new JsonWriter(out);
+    }
+
+    /*
+     * 日報を1件書き出す
+     */
+    public abstract void write(ReportView rv) throws IOException;
+
+    /*
+     * 日報の各列の値を出力する順に文字列で返却する
+     */
+    private static String[] values(ReportView rv) {
+        return new String[] {
+                rv.getEmployee().getCode(),
+                rv.getEmployee().getName(),
+                rv.getReportDate().toString(),
+                rv.getTitle(),
+                rv.getContent(),
+                rv.getCreatedAt().toString(),
+                rv.getUpdatedAt().toString() };
+    }
+
+    /*
+     * CSVで書き出すクラス
+     */
+    private static class CsvWriter extends ReportExportWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+            // 表計算ソフトでUTF-8として開かれるよう先頭にBOMを付ける
+            writer.write('\uFEFF');
+            writeRecord(COLUMNS);
+        }
+
+        @Override
+        public void write(ReportView rv) throws IOException {
+            writeRecord(values(rv));
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        /*
+         * 1レコードを書き出す
+         * カンマ・ダブルクォート・改行を含む値はダブルクォートで囲む
+         */
+        private void writeRecord(String[] fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String field = fields[i] == null ? "" : fields[i];
+                if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                        || field.indexOf('\r') >= 0 || field.indexOf('\n') >= 0) {
+                    writer.write('"');
+                    writer.write(field.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(field);
+                }
+            }
+            writer.write("\r\n");
+        }
+    }
+
+    /*
+     * JSONで書き出すクラス
+     */
+    private static class JsonWriter extends ReportExportWriter {
+        private static final JsonFactory FACTORY = new JsonFactory();
+
+        private final JsonGenerator generator;
+
+        JsonWriter(OutputStream out) throws IOException {
+            generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void write(ReportView rv) throws IOException {
+            String[] fields = values(rv);
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                generator.writeStringField(COLUMNS[i], fields[i]);
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
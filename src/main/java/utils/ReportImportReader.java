@@ -0,0 +1,283 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import actions.views.ReportImportRow;
+import constants.JpaConst;
+import constants.MessageConst;
+
+/*
+ * 日報の一括登録ファイル（CSVまたはJSON Lines）を読み込むクラス
+ * CSVは1行目をヘッダーとし、JSON Linesは1行に1件のオブジェクトを記載する
+ * 列名（キー）はemployee_code, report_date, title, contentとし、employee_codeは省略できる
+ */
+public class ReportImportReader {
+
+    // 列名（CSVのヘッダー、JSONのキー）
+    public static final String COL_EMP_CODE = "employee_code";
+    public static final String COL_REP_DATE = JpaConst.REP_COL_REP_DATE;
+    public static final String COL_TITLE = JpaConst.REP_COL_TITLE;
+    public static final String COL_CONTENT = JpaConst.REP_COL_CONTENT;
+
+    // JSON Linesとして読み込むファイルの拡張子
+    private static final String[] JSON_LINES_EXTENSIONS = { ".jsonl", ".ndjson", ".json" };
+
+    // ファイル先頭のBOM
+    private static final int BOM = '\uFEFF';
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /*
+     * ファイル名の拡張子から形式を判定し、ファイルを読み込む（文字コードはUTF-8）
+     *
+     * @param fileName アップロードされたファイル名
+     * @param in ファイルの内容
+     * @return 読み込んだ行のリスト
+     * @throws IllegalArgumentException CSVのヘッダーが不正な場合
+     */
+    public static List<ReportImportRow> read(String fileName, InputStream in) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (isJsonLines(fileName)) {
+            return readJsonLines(reader);
+        }
+        return readCsv(reader);
+    }
+
+    /*
+     * CSV（RFC 4180形式）を読み込む
+     * ダブルクォートで囲んだ値には、カンマ・改行・二重にしたダブルクォートを含めることができる
+     */
+    public static List<ReportImportRow> readCsv(Reader reader) throws IOException {
+        CsvParser parser = new CsvParser(reader);
+
+        // ヘッダーから列の位置を取得する
+        List<String> header = parser.readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException(MessageConst.E_IMPORT_FORMAT.getMessage());
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey(COL_REP_DATE) || !columns.containsKey(COL_TITLE)
+                || !columns.containsKey(COL_CONTENT)) {
+            throw new IllegalArgumentException(MessageConst.E_IMPORT_FORMAT.getMessage());
+        }
+
+        List<ReportImportRow> rows = new ArrayList<>();
+        while (true) {
+            int line = parser.getLine();
+            List<String> record = parser.readRecord();
+            if (record == null) {
+                break;
+            }
+            // 空行は読み飛ばす
+            if (record.size() == 1 && record.get(0).trim().equals("")) {
+                continue;
+            }
+            rows.add(new ReportImportRow(
+                    line,
+                    field(record, columns.get(COL_EMP_CODE)),
+                    field(record, columns.get(COL_REP_DATE)),
+                    field(record, columns.get(COL_TITLE)),
+                    field(record, columns.get(COL_CONTENT)),
+                    null));
+        }
+        return rows;
+    }
+
+    /*
+     * JSON Linesを読み込む
+     * JSONとして解析できない行はエラーとして行のリストに含める
+     */
+    public static List<ReportImportRow> readJsonLines(Reader reader) throws IOException {
+        BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+        List<ReportImportRow> rows = new ArrayList<>();
+        int line = 0;
+        String text;
+        while ((text = br.readLine()) != null) {
+            line++;
+            if (line == 1 && !text.isEmpty() && text.charAt(0) == BOM) {
+                text = text.substring(1);
+            }
+            if (text.trim().equals("")) {
+                continue;
+            }
+
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(text);
+            } catch (JsonProcessingException e) {
+                node = null;
+            }
+            if (node == null || !node.isObject()) {
+                rows.add(new ReportImportRow(line, null, null, null, null, MessageConst.E_IMPORT_ROW.getMessage()));
+                continue;
+            }
+
+            rows.add(new ReportImportRow(
+                    line,
+                    text(node, COL_EMP_CODE),
+                    text(node, COL_REP_DATE),
+                    text(node, COL_TITLE),
+                    text(node, COL_CONTENT),
+                    null));
+        }
+        return rows;
+    }
+
+    /*
+     * ファイル名の拡張子がJSON Linesのものかどうかを判定する
+     */
+    private static boolean isJsonLines(String fileName) {
+        if (fileName == null) {
+            return false;
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : JSON_LINES_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * レコードから指定した位置の値を取得する（列がない場合はnull）
+     */
+    private static String field(List<String> record, Integer index) {
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    /*
+     * JSONオブジェクトから指定したキーの値を文字列で取得する（キーがない場合、値がnullの場合はnull）
+     */
+    private static String text(JsonNode node, String key) {
+        JsonNode value = node.get(key);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return value.asText();
+    }
+
+    /*
+     * CSVを1レコードずつ読み込むクラス
+     * 値に改行を含む場合があるため、行ではなく文字単位で解析する
+     */
+    private static class CsvParser {
+        private static final int NONE = -2;
+
+        private final Reader reader;
+
+        // 次に読み込むレコードの開始行番号
+        private int line = 1;
+
+        // 読み戻した文字（なければNONE）
+        private int pushedBack = NONE;
+
+        CsvParser(Reader reader) throws IOException {
+            this.reader = reader;
+
+            // 先頭のBOMは読み飛ばす
+            int c = read();
+            if (c != BOM) {
+                pushedBack = c;
+            }
+        }
+
+        int getLine() {
+            return line;
+        }
+
+        /*
+         * 1レコードを読み込む
+         *
+         * @return 値のリスト（ファイルの終端に達している場合はnull）
+         * @throws IllegalArgumentException ダブルクォートが閉じられていない場合
+         */
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException(MessageConst.E_IMPORT_FORMAT.getMessage());
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next != '"') {
+                            // 囲みの終了
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    // レコードの終了（CRLF・LF・CRのいずれも改行とみなす）
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pushedBack = next;
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != NONE) {
+                int c = pushedBack;
+                pushedBack = NONE;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package utils;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+
+/*
+ * 1リクエストの間、全てのサービスで共有するEntityManager（EntityManagerFilterがリクエストごとに作成・クローズする）
+ * EntityManagerはサービスが初めて使用する時に生成するため、DBを使用しないリクエストでは生成しない
+ * 処理中のスレッドに関連付けて使用し、非同期モードではActionクラスを実行するスレッドに関連付け直す
+ * クローズ時に未完了のトランザクション（リーク）を記録・ログ出力する
+ * DB接続の保持時間はEntityManagerの生存期間ではなく、コネクションプール（PooledConnectionProvider）で計測する
+ */
+public class RequestEntityManager {
+
+    private static final Logger LOG = Logger.getLogger(RequestEntityManager.class.getName());
+
+    // 処理中のスレッドに関連付けているEntityManager
+    private static final ThreadLocal<RequestEntityManager> CURRENT = new ThreadLocal<>();
+
+    // EntityManagerを生成し、まだクローズしていないもの
+    private static final Set<RequestEntityManager> open = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private static final LongAdder closedCount = new LongAdder();
+    private static final LongAdder leakedTransactions = new LongAdder();
+
+    // ログに出力するリクエストの内容（メソッドとURI）
+    private final String description;
+
+    private EntityManager primary;
+    private EntityManager readOnly;
+
+    // 最初にEntityManagerを生成した時刻（System.nanoTime 生成していない場合0 統計の取得時は他のスレッドから参照する）
+    private volatile long openedAt;
+
+    private boolean closed;
+
+    /*
+     * @param description ログに出力するリクエストの内容
+     */
+    public RequestEntityManager(String description) {
+        this.description = description;
+    }
+
+    /*
+     * 処理中のスレッドに関連付けているEntityManagerを返却する（リクエストの外ではnull）
+     */
+    public static RequestEntityManager current() {
+        return CURRENT.get();
+    }
+
+    /*
+     * 処理中のスレッドに関連付ける（nullの場合は関連付けを解除する）
+     *
+     * @return それまで関連付けていたEntityManager（処理の終了時に関連付け直す）
+     */
+    public static RequestEntityManager bind(RequestEntityManager scope) {
+        RequestEntityManager previous = CURRENT.get();
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+        return previous;
+    }
+
+    /*
+     * プライマリDBのEntityManagerを返却する（初回は生成する）
+     *
+     * @throws IllegalStateException リクエストが終了し、クローズした後の場合
+     */
+    public synchronized EntityManager getPrimary() {
+        checkOpen();
+        if (primary == null) {
+            primary = DBUtil.createEntityManager();
+            opened();
+        }
+        return primary;
+    }
+
+    /*
+     * 読み込み専用のEntityManagerを返却する（初回は生成する）
+     */
+    public synchronized EntityManager getReadOnly() {
+        checkOpen();
+        if (readOnly == null) {
+            readOnly = DBUtil.createReadOnlyEntityManager();
+            opened();
+        }
+        return readOnly;
+    }
+
+    /*
+     * EntityManagerをクローズする（2回目以降は何もしない）
+     * コミット・ロールバックされていないトランザクションはロールバックし、リークとして記録する
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (openedAt == 0) {
+            return;
+        }
+
+        try {
+            closeQuietly(primary);
+            closeQuietly(readOnly);
+        } finally {
+            open.remove(this);
+            closedCount.increment();
+        }
+    }
+
+    /*
+     * EntityManagerをクローズする（クローズ時の例外はログに出力し、もう一方のクローズを続ける）
+     */
+    private void closeQuietly(EntityManager em) {
+        if (em == null || !em.isOpen()) {
+            return;
+        }
+        try {
+            if (em.getTransaction().isActive()) {
+                leakedTransactions.increment();
+                LOG.warning("transaction left open, rolled back: " + description);
+                em.getTransaction().rollback();
+            }
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "transaction could not be rolled back: " + description, e);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void opened() {
+        if (openedAt == 0) {
+            openedAt = System.nanoTime();
+            open.add(this);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("request has already completed: " + description);
+        }
+    }
+
+    /*
+     * 記録した統計を返却する
+     */
+    public static EntityManagerStatistics getStatistics() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (RequestEntityManager scope : open) {
+            long opened = scope.openedAt;
+            if (opened != 0) {
+                oldest = Math.max(oldest, (now - opened) / 1000000);
+            }
+        }
+        return new EntityManagerStatistics(
+                closedCount.sum(),
+                open.size(),
+                oldest,
+                leakedTransactions.sum());
+    }
+}
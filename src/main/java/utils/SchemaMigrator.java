@@ -0,0 +1,288 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * クラスパス上のSQLスクリプトをバージョン順に適用するクラス
+ * 適用したスクリプトはチェックサムと共に履歴テーブルに記録し、2回目以降の起動では適用しない
+ * MySQLではDDLが暗黙的にコミットされ、途中で失敗したスクリプトの文をロールバックできないため、
+ * インデックスの作成は既に存在する場合に読み飛ばし、スクリプトを再実行できるようにする
+ * 複数のサーバーが同時に起動した場合に同じスクリプトを重ねて適用しないよう、適用中はMySQLの名前付きロックを取得する
+ */
+public class SchemaMigrator {
+
+    // スクリプトを配置するディレクトリと、適用順を記載したファイル
+    private static final String LOCATION = "db/migration/";
+    private static final String INDEX_FILE = LOCATION + "index.txt";
+
+    // スクリプトのファイル名の形式（V<バージョン>__<説明>.sql）
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    // インデックスを作成する文の形式（CREATE [UNIQUE] INDEX <インデックス名> ON <テーブル名>）
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\b.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // 適用中に取得する名前付きロック（GET_LOCK）の名前と、取得を待つ時間（秒）
+    private static final String LOCK_NAME = "schema_migration";
+    private static final int LOCK_TIMEOUT = 300;
+
+    // 履歴テーブル
+    private static final String HISTORY_TABLE = "schema_history";
+    private static final String CREATE_HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+            + "version INTEGER NOT NULL, "
+            + "description VARCHAR(255) NOT NULL, "
+            + "script VARCHAR(255) NOT NULL, "
+            + "checksum VARCHAR(64) NOT NULL, "
+            + "installed_at DATETIME NOT NULL, "
+            + "execution_time INTEGER NOT NULL, "
+            + "PRIMARY KEY (version))";
+    private static final String SELECT_HISTORY = "SELECT version, checksum FROM " + HISTORY_TABLE;
+    private static final String INSERT_HISTORY = "INSERT INTO " + HISTORY_TABLE
+            + " (version, description, script, checksum, installed_at, execution_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    /*
+     * 未適用のスクリプトを適用する
+     * 適用済みのスクリプトの内容が変更されている場合は例外を送出し、起動を中止させる
+     *
+     * @param conn 使用する接続（自動コミットは無効であること）
+     * @return 適用したスクリプトの件数
+     */
+    public static int migrate(Connection conn) throws SQLException, IOException {
+        // 他のサーバーが適用を終えるまで待つ（ロックは接続単位のため、DDLによるコミットでは解放されない）
+        boolean locked = lock(conn);
+        try {
+            return migrateLocked(conn);
+        } finally {
+            if (locked) {
+                unlock(conn);
+            }
+        }
+    }
+
+    /*
+     * ロックを取得した状態で未適用のスクリプトを適用する
+     * 適用済みのバージョンはロックの取得後に読み込むため、他のサーバーが適用したスクリプトは適用しない
+     */
+    private static int migrateLocked(Connection conn) throws SQLException, IOException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(CREATE_HISTORY_TABLE);
+        }
+        conn.commit();
+
+        // 適用済みのバージョンとチェックサム
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(SELECT_HISTORY)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+
+        int count = 0;
+        int lastVersion = 0;
+        for (String script : readIndex()) {
+            Matcher m = SCRIPT_NAME.matcher(script);
+            if (!m.matches()) {
+                throw new IllegalStateException("invalid migration script name: " + script);
+            }
+            int version = Integer.parseInt(m.group(1));
+            String description = m.group(2).replace('_', ' ');
+            if (version <= lastVersion) {
+                throw new IllegalStateException("migration scripts are not in version order: " + script);
+            }
+            lastVersion = version;
+
+            String sql = readResource(LOCATION + script);
+            String checksum = checksum(sql);
+
+            if (applied.containsKey(version)) {
+                // 適用済みのスクリプトは変更されていないことのみ確認する
+                if (!applied.get(version).equals(checksum)) {
+                    throw new IllegalStateException("checksum mismatch for applied migration: " + script);
+                }
+                continue;
+            }
+
+            // スクリプトを適用し、履歴を記録する
+            long start = System.currentTimeMillis();
+            try {
+                try (Statement st = conn.createStatement()) {
+                    for (String statement : splitStatements(sql)) {
+                        if (!isExistingIndex(conn, statement)) {
+                            st.execute(statement);
+                        }
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_HISTORY)) {
+                    ps.setInt(1, version);
+                    ps.setString(2, description);
+                    ps.setString(3, script);
+                    ps.setString(4, checksum);
+                    ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                    ps.setInt(6, (int) (System.currentTimeMillis() - start));
+                    ps.executeUpdate();
+                }
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("migration failed: " + script, e);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /*
+     * MySQLの名前付きロックを取得する
+     * MySQL以外のDB（テストで使用する組み込みDB）は1つのプロセスからのみ使用するため、ロックを取得しない
+     *
+     * @return true: ロックを取得した
+     */
+    private static boolean lock(Connection conn) throws SQLException {
+        if (!isMySql(conn)) {
+            return false;
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("could not acquire migration lock within " + LOCK_TIMEOUT + " seconds");
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * lockで取得した名前付きロックを解放する
+     */
+    private static void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        return "MySQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName());
+    }
+
+    /*
+     * インデックスを作成する文で、そのインデックスが既に存在するかどうかを返却する
+     * 前回の起動でスクリプトの途中まで適用された場合に、作成済みのインデックスを作成し直さないために使用する
+     */
+    private static boolean isExistingIndex(Connection conn, String statement) throws SQLException {
+        Matcher m = CREATE_INDEX.matcher(statement);
+        if (!m.matches()) {
+            return false;
+        }
+        String index = m.group(1);
+        String table = m.group(2);
+
+        DatabaseMetaData meta = conn.getMetaData();
+        if (meta.storesUpperCaseIdentifiers()) {
+            table = table.toUpperCase();
+        } else if (meta.storesLowerCaseIdentifiers()) {
+            table = table.toLowerCase();
+        }
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(), table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * 適用順を記載したファイルからスクリプト名の一覧を取得する
+     * 空行と#で始まる行は無視する
+     */
+    private static List<String> readIndex() throws IOException {
+        List<String> scripts = new ArrayList<>();
+        for (String line : readResource(INDEX_FILE).split("\n")) {
+            line = line.trim();
+            if (!line.equals("") && !line.startsWith("#")) {
+                scripts.add(line);
+            }
+        }
+        return scripts;
+    }
+
+    /*
+     * SQLスクリプトを文（;区切り）ごとに分割する
+     * --で始まるコメント行は除去する
+     */
+    private static List<String> splitStatements(String sql) {
+        StringBuilder body = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                body.append(line).append('\n');
+            }
+        }
+
+        List<String> statements = new ArrayList<>();
+        for (String statement : body.toString().split(";")) {
+            if (!statement.trim().equals("")) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+
+    /*
+     * クラスパス上のファイルを文字列で読み込む（改行コードはLFに統一する）
+     */
+    private static String readResource(String path) throws IOException {
+        try (InputStream is = SchemaMigrator.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IOException("migration resource not found: " + path);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        }
+    }
+
+    /*
+     * スクリプトの内容からSHA-256のチェックサムを作成する
+     */
+    private static String checksum(String sql) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * セッションストアに保存する1セッション分のデータ（保存時点のスナップショット）
+ * 属性の値は直列化済みのバイト列で保持し、ストアは値の型を意識しない
+ */
+@Getter
+@AllArgsConstructor
+public class SessionData {
+
+    // バイナリ形式のバージョン（形式を変更した場合は加算し、fromBytesで旧形式も読み込めるようにする）
+    private static final byte FORMAT_VERSION = 1;
+
+    /*
+     * セッションID
+     */
+    private final String id;
+
+    /*
+     * 作成日時・最終アクセス日時（エポックミリ秒）
+     */
+    private final long creationTime;
+    private final long lastAccessedTime;
+
+    /*
+     * 最終アクセスから無効になるまでの時間（秒 0以下の場合は無期限）
+     */
+    private final int maxInactiveInterval;
+
+    /*
+     * 属性名→直列化した値
+     */
+    private final Map<String, byte[]> attributes;
+
+    /*
+     * 無効になる日時（エポックミリ秒）を返却する
+     */
+    public long getExpiresAt() {
+        return maxInactiveInterval <= 0 ? Long.MAX_VALUE : lastAccessedTime + maxInactiveInterval * 1000L;
+    }
+
+    /*
+     * 指定した時刻に無効になっているかを返却する
+     */
+    public boolean isExpired(long now) {
+        return now >= getExpiresAt();
+    }
+
+    /*
+     * バイナリ形式に変換する
+     * バージョン(1) セッションID(修正UTF-8) 作成日時(8) 最終アクセス日時(8) 無効になるまでの時間(4) 属性数(4) {属性名(修正UTF-8) 長さ(4) 値}...
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(id);
+            out.writeLong(creationTime);
+            out.writeLong(lastAccessedTime);
+            out.writeInt(maxInactiveInterval);
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, byte[]> entry : attributes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /*
+     * バイナリ形式から復元する
+     *
+     * @throws IllegalArgumentException 形式が不正、または対応していないバージョンの場合
+     */
+    public static SessionData fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("unsupported session format: " + version);
+            }
+            String id = in.readUTF();
+            long creationTime = in.readLong();
+            long lastAccessedTime = in.readLong();
+            int maxInactiveInterval = in.readInt();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("malformed session");
+            }
+            Map<String, byte[]> attributes = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IllegalArgumentException("malformed session");
+                }
+                byte[] value = new byte[length];
+                in.readFully(value);
+                attributes.put(name, value);
+            }
+            return new SessionData(id, creationTime, lastAccessedTime, maxInactiveInterval,
+                    Collections.unmodifiableMap(attributes));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed session", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package utils;
+
+import java.io.IOException;
+
+/*
+ * HTTPセッションの保存先
+ * アプリケーションサーバーのメモリの外にセッションを保存し、再起動後や別のサーバーでも同じセッションを使用できるようにする
+ * 実装はファイル（FileSessionStore）のほか、共有のキーバリューストアやDBに置き換えられる
+ */
+public interface SessionStore {
+
+    /*
+     * セッションを読み込む
+     *
+     * @param id セッションID
+     * @return セッション（存在しない、または無効になっている場合null）
+     */
+    SessionData load(String id) throws IOException;
+
+    /*
+     * セッションを保存する（同じIDのセッションは置き換える）
+     *
+     * @return 保存したセッションの版（versionが返却する値と同じもの）
+     */
+    Object save(SessionData data) throws IOException;
+
+    /*
+     * 保存されているセッションの版（保存のたびに変わる値）を返却する（セッションの内容は読み込まない）
+     * メモリに保持したセッションが、他のサーバーで保存・削除されていないかの確認に使用する
+     *
+     * @return 版（存在しない場合null）
+     */
+    Object version(String id) throws IOException;
+
+    /*
+     * セッションを削除する（存在しない場合は何もしない）
+     */
+    void delete(String id) throws IOException;
+
+    /*
+     * 無効になったセッションを削除する
+     *
+     * @param now 現在時刻（エポックミリ秒）
+     * @return 削除した件数
+     */
+    int purgeExpired(long now) throws IOException;
+}
@@ -0,0 +1,177 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletContext;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 静的ファイル（CSS）の配信に使用する情報を保持するクラス
+ * 起動時に対象ディレクトリ内のファイルを読み込み、内容のハッシュ値を含むURL（例: /assets/css/style.1a2b3c4d5e.css）と
+ * gzip圧縮した内容を作成しておく。内容が変わるとURLも変わるため、ブラウザには期限なしでキャッシュさせる
+ * brotli圧縮はJDKで行えないため、ビルド時などに作成した「ファイル名.br」が配置されている場合のみ使用する
+ */
+public class StaticAssets {
+
+    // ハッシュ値を含むURLの接頭辞
+    public static final String URL_PREFIX = "/assets";
+
+    // 対象とするディレクトリ
+    private static final String[] DIRECTORIES = { "/css/" };
+
+    // URLに含めるハッシュ値の桁数
+    private static final int HASH_LENGTH = 10;
+
+    // brotli圧縮したファイルの拡張子
+    private static final String BROTLI_SUFFIX = ".br";
+
+    // 元のパス（例: /css/style.css）→ハッシュ値を含むURL
+    private static volatile Map<String, String> urls = Collections.emptyMap();
+
+    // ハッシュ値を含むURLの接頭辞以降（例: /css/style.1a2b3c4d5e.css）→ファイル
+    private static volatile Map<String, Asset> assets = Collections.emptyMap();
+
+    /*
+     * 対象ディレクトリ内のファイルを読み込み、ハッシュ値と圧縮した内容を作成する
+     *
+     * @return 読み込んだファイル数
+     */
+    public static int init(ServletContext context) throws IOException {
+        Map<String, String> newUrls = new HashMap<>();
+        Map<String, Asset> newAssets = new HashMap<>();
+
+        for (String directory : DIRECTORIES) {
+            Set<String> paths = context.getResourcePaths(directory);
+            if (paths == null) {
+                continue;
+            }
+            for (String path : paths) {
+                if (path.endsWith("/") || path.endsWith(BROTLI_SUFFIX)) {
+                    continue;
+                }
+                byte[] content = read(context, path);
+                if (content == null) {
+                    continue;
+                }
+                String hash = hash(content);
+                String fingerprinted = fingerprint(path, hash);
+
+                byte[] gzip = gzip(content);
+                byte[] brotli = read(context, path + BROTLI_SUFFIX);
+                newAssets.put(fingerprinted, new Asset(
+                        hash,
+                        context.getMimeType(path),
+                        content,
+                        gzip.length < content.length ? gzip : null,
+                        brotli != null && brotli.length < content.length ? brotli : null));
+                newUrls.put(path, URL_PREFIX + fingerprinted);
+            }
+        }
+
+        assets = newAssets;
+        urls = newUrls;
+        return newAssets.size();
+    }
+
+    /*
+     * jspから参照するURLを返却する（コンテキストパスは含まない）
+     * 読み込んでいないファイルの場合は元のパスをそのまま返却する
+     *
+     * @param path 元のパス（例: /css/style.css）
+     */
+    public static String url(String path) {
+        String url = urls.get(path);
+        return url != null ? url : path;
+    }
+
+    /*
+     * ハッシュ値を含むURLに該当するファイルを返却する（該当しない場合null）
+     *
+     * @param path URLの接頭辞以降（例: /css/style.1a2b3c4d5e.css）
+     */
+    public static Asset get(String path) {
+        return path == null ? null : assets.get(path);
+    }
+
+    /*
+     * パスのファイル名の拡張子の前にハッシュ値を挿入する
+     */
+    private static String fingerprint(String path, String hash) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash) {
+            return path + "." + hash;
+        }
+        return path.substring(0, dot) + "." + hash + path.substring(dot);
+    }
+
+    /*
+     * ファイルの内容を読み込む（ファイルがない場合null）
+     */
+    private static byte[] read(ServletContext context, String path) throws IOException {
+        try (InputStream in = context.getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    /*
+     * 内容のSHA-256ハッシュ値の先頭の桁を返却する
+     */
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * 内容を最大の圧縮率でgzip圧縮する（起動時に1度だけ行う）
+     */
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    /*
+     * 配信するファイル（圧縮した内容は、元の内容より小さい場合のみ保持する）
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Asset {
+        private final String hash;
+        private final String contentType;
+        private final byte[] content;
+        private final byte[] gzip;
+        private final byte[] brotli;
+    }
+}
@@ -0,0 +1,28 @@
+-- 初期スキーマ（Hibernateのスキーマ自動生成で作成していたものと同じ構成）
+-- 自動生成で作成済みのデータベースでもそのまま適用できるよう IF NOT EXISTS とする
+
+CREATE TABLE IF NOT EXISTS employees (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    code VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    password VARCHAR(64) NOT NULL,
+    admin_flag INTEGER NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NOT NULL,
+    delete_flag INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_employees_code UNIQUE (code),
+    CONSTRAINT uk_employees_name UNIQUE (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS reports (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    employee_id INTEGER NOT NULL,
+    report_date DATE NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    content LONGTEXT NOT NULL,
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reports_employee_id FOREIGN KEY (employee_id) REFERENCES employees (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,8 @@
+-- 従業員ごとの日報一覧（WHERE employee_id = ? ORDER BY id DESC）
+CREATE INDEX idx_reports_employee_id_id ON reports (employee_id, id);
+
+-- 日報日付による範囲検索
+CREATE INDEX idx_reports_report_date ON reports (report_date);
+
+-- ログイン（WHERE code = ? AND delete_flag = 0 AND password = ?）
+CREATE INDEX idx_employees_code_delete_flag ON employees (code, delete_flag);
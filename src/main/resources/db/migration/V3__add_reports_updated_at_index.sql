@@ -0,0 +1,2 @@
+-- 全文検索の索引への差分の取り込み（WHERE updated_at >= ?）
+CREATE INDEX idx_reports_updated_at ON reports (updated_at);
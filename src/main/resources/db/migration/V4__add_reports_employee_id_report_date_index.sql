@@ -0,0 +1,2 @@
+-- 従業員ごとの日報日付による範囲検索・カレンダー（WHERE employee_id = ? AND report_date BETWEEN ? AND ?）
+CREATE INDEX idx_reports_employee_id_report_date ON reports (employee_id, report_date);
@@ -0,0 +1,13 @@
+-- 従業員・日報日付ごとの日報の件数（統計画面はこのテーブルのみを参照する）
+-- 日報の登録・更新と同じトランザクションで更新し、既存の日報はアプリケーションの再集計で取り込む
+CREATE TABLE IF NOT EXISTS report_daily_stats (
+    employee_id INTEGER NOT NULL,
+    report_date DATE NOT NULL,
+    report_count INTEGER NOT NULL,
+    last_updated DATETIME NOT NULL,
+    PRIMARY KEY (employee_id, report_date),
+    CONSTRAINT fk_report_daily_stats_employee_id FOREIGN KEY (employee_id) REFERENCES employees (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 日ごとの集計（WHERE report_date BETWEEN ? AND ? GROUP BY report_date）
+CREATE INDEX idx_report_daily_stats_report_date ON report_daily_stats (report_date, employee_id, report_count);
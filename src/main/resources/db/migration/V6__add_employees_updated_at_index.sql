@@ -0,0 +1,2 @@
+-- 日報の一覧画面の世代の取得（SELECT MAX(updated_at) FROM employees）
+CREATE INDEX idx_employees_updated_at ON employees (updated_at);
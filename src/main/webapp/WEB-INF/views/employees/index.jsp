@@ -44,14 +44,12 @@
 
         <div id="pagenation">
             （全 ${employees_count} 件）<br>
-            <c:forEach var="i" begin="1" end="${((employees_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}"><c:out value="${i}" />&nbsp</c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actEmp}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
+            <c:if test="${prevCursor != null}">
+                <a href="<c:url value='?action=${actEmp}&command=${commIdx}&cursor=${prevCursor}' />">&lt;&lt; 前へ</a>&nbsp;
+            </c:if>
+            <c:if test="${nextCursor != null}">
+                <a href="<c:url value='?action=${actEmp}&command=${commIdx}&cursor=${nextCursor}' />">次へ &gt;&gt;</a>
+            </c:if>
         </div>
         <p><a href="<c:url value='?action=${actEmp}&command=${commNew}' />">新規従業員の登録</a></p>
     </c:param>
@@ -7,6 +7,8 @@
 <c:set var="actEmp" value="${ForwardConst.ACT_EMP.getValue()}" />
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commEdit" value="${ForwardConst.CMD_EDIT.getValue()}" />
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
 
 <c:import url="/WEB-INF/views/layout/app.jsp">
 <c:param name="content">
@@ -46,6 +48,9 @@
     <a href="<c:url value='?action=${actEmp}&command=${commEdit}&id=${employee.id}' />">この従業員情報を編集する</a>
     </p>
     <p>
+    <a href="<c:url value='?action=${actRep}&command=${commCal}&employee_id=${employee.id}' />">この従業員の日報カレンダー</a>
+    </p>
+    <p>
     <a href="<c:url value='?action=${actEmp}&command=${commIdx}' />">一覧に戻る</a>
     </p>
 </c:param>
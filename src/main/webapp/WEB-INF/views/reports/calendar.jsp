@@ -0,0 +1,52 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commRange" value="${ForwardConst.CMD_RANGE.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
+<c:set var="empId" value="${calendar.employee.id}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <h2>日報　カレンダー（<c:out value="${calendar.employee.name}" />）</h2>
+
+        <p>
+            <a href="<c:url value='?action=${actRep}&command=${commCal}&employee_id=${empId}&month=${calendar.prevMonth}' />">&lt;&lt; 前月</a>&nbsp;
+            ${calendar.month.year}年${calendar.month.monthValue}月&nbsp;
+            <a href="<c:url value='?action=${actRep}&command=${commCal}&employee_id=${empId}&month=${calendar.nextMonth}' />">翌月 &gt;&gt;</a>
+        </p>
+
+        <table id="report_calendar">
+            <tbody>
+                <tr>
+                    <th>日</th><th>月</th><th>火</th><th>水</th><th>木</th><th>金</th><th>土</th>
+                </tr>
+                <c:forEach var="week" items="${calendar.weeks}">
+                    <tr>
+                        <c:forEach var="day" items="${week}">
+                            <td>
+                                <c:if test="${day > 0}">
+                                    <c:choose>
+                                        <c:when test="${calendar.hasReport(day)}">
+                                            <a href="<c:url value='?action=${actRep}&command=${commRange}&employee_id=${empId}&date_from=${calendar.month.atDay(day)}&date_to=${calendar.month.atDay(day)}' />">${day} ●</a>
+                                        </c:when>
+                                        <c:otherwise>
+                                            ${day}
+                                        </c:otherwise>
+                                    </c:choose>
+                                </c:if>
+                            </td>
+                        </c:forEach>
+                    </tr>
+                </c:forEach>
+            </tbody>
+        </table>
+
+        <p>日報の提出日数：${calendar.reportDays} 日（● は日報がある日）</p>
+
+        <p><a href="<c:url value='?action=${actRep}&command=${commRange}&employee_id=${empId}&date_from=${calendar.firstDay}&date_to=${calendar.lastDay}' />">この月の日報を一覧で見る</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
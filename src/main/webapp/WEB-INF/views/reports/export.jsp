@@ -0,0 +1,46 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="action" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commExp" value="${ForwardConst.CMD_EXPORT.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                入力内容にエラーがあります。<br>
+                <c:forEach var="error" items="${errors}">
+                    ・<c:out value="${error}" /><br>
+                </c:forEach>
+            </div>
+        </c:if>
+        <h2>日報　出力ページ</h2>
+
+        <p>日報日付が指定した期間内の日報を、日付順にファイルに出力します。</p>
+
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${action}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commExp}" />
+
+            <label for="${AttributeConst.REP_DATE_FROM.getValue()}">期間</label><br />
+            <input type="date" name="${AttributeConst.REP_DATE_FROM.getValue()}" value="<c:out value='${date_from}' />" />
+            ～
+            <input type="date" name="${AttributeConst.REP_DATE_TO.getValue()}" value="<c:out value='${date_to}' />" />
+            <br><br>
+
+            <label for="${AttributeConst.EXPORT_FORMAT.getValue()}">形式</label><br />
+            <select name="${AttributeConst.EXPORT_FORMAT.getValue()}">
+                <option value="${AttributeConst.EXPORT_FORMAT_CSV.getValue()}">CSV</option>
+                <option value="${AttributeConst.EXPORT_FORMAT_JSON.getValue()}">JSON</option>
+            </select>
+            <br><br>
+
+            <button type="submit">出力</button>
+        </form>
+
+        <p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
@@ -0,0 +1,66 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="action" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_IMPORT.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${flush != null}">
+            <div id="flush_success">
+                <c:out value="${flush}"></c:out>
+            </div>
+        </c:if>
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                <c:forEach var="error" items="${errors}">
+                    ・<c:out value="${error}" /><br>
+                </c:forEach>
+            </div>
+        </c:if>
+        <h2>日報　一括登録ページ</h2>
+
+        <p>
+            CSV（1行目は列名）またはJSON Lines（拡張子.jsonl 1行に1件）のファイルを指定してください。文字コードはUTF-8です。<br />
+            列名：employee_code（省略可）, report_date（yyyy-MM-dd）, title, content<br />
+            employee_codeを省略した行はログイン中の従業員の日報として登録します。他の従業員の日報は管理者のみ登録できます。
+        </p>
+
+        <form method="POST" enctype="multipart/form-data" action="<c:url value='?action=${action}&command=${commImp}' />">
+            <input type="file" name="${AttributeConst.REP_IMPORT_FILE.getValue()}" accept=".csv,.jsonl,.ndjson,.json" />
+            <br><br>
+            <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+            <button type="submit">登録</button>
+        </form>
+
+        <c:if test="${importResult != null}">
+            <h3>登録結果</h3>
+            <p>読み込み ${importResult.total} 件　登録 ${importResult.imported} 件　エラー ${importResult.errors.size()} 件</p>
+            <c:if test="${!importResult.errors.isEmpty()}">
+                <table id="import_errors">
+                    <tbody>
+                        <tr>
+                            <th class="import_line">行</th>
+                            <th class="import_messages">エラー</th>
+                        </tr>
+                        <c:forEach var="error" items="${importResult.errors}" varStatus="status">
+                            <tr class="row${status.count % 2}">
+                                <td class="import_line">${error.line}</td>
+                                <td class="import_messages">
+                                    <c:forEach var="message" items="${error.messages}">
+                                        ・<c:out value="${message}" /><br>
+                                    </c:forEach>
+                                </td>
+                            </tr>
+                        </c:forEach>
+                    </tbody>
+                </table>
+            </c:if>
+        </c:if>
+
+        <p><a href="<c:url value='?action=${action}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
@@ -2,11 +2,16 @@
 <%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
 <%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
 <%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
 
 <c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
+<c:set var="commImp" value="${ForwardConst.CMD_IMPORT_FORM.getValue()}" />
+<c:set var="commExp" value="${ForwardConst.CMD_EXPORT_FORM.getValue()}" />
+<c:set var="commSearch" value="${ForwardConst.CMD_SEARCH.getValue()}" />
+<c:set var="commRange" value="${ForwardConst.CMD_RANGE.getValue()}" />
 
 <c:import url="/WEB-INF/views/layout/app.jsp">
     <c:param name="content">
@@ -16,41 +21,57 @@
             </div>
         </c:if>
         <h2>日報　一覧</h2>
-        <table id="report_list">
-            <tbody>
-                <tr>
-                    <th class="report_name">氏名</th>
-                    <th class="report_date">日付</th>
-                    <th class="report_title">タイトル</th>
-                    <th class="report_action">操作</th>
-                </tr>
-                <c:forEach var="report" items="${reports}" varStatus="status">
-                    <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commSearch}" />
+            <input type="text" name="${AttributeConst.SEARCH_QUERY.getValue()}" />
+            <button type="submit">検索</button>
+        </form>
+        <%-- 一覧の表・ページングは描画済みのHTMLがあれば使用し、なければ描画して保持する --%>
+        <c:choose>
+            <c:when test="${reportListHtml != null}">
+                ${reportListHtml}
+            </c:when>
+            <c:otherwise>
+                <c:set var="renderedList">
+                    <table id="report_list">
+                        <tbody>
+                            <tr>
+                                <th class="report_name">氏名</th>
+                                <th class="report_date">日付</th>
+                                <th class="report_title">タイトル</th>
+                                <th class="report_action">操作</th>
+                            </tr>
+                            <c:forEach var="report" items="${reports}" varStatus="status">
+                                <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
 
-                    <tr class="row${status.count % 2}">
-                        <td class="report_name"><c:out value="${report.employee.name}" /></td>
-                        <td class="report_date"><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
-                        <td class="report_title">${report.title}</td>
-                        <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細を見る</a></td>
-                    </tr>
-                </c:forEach>
-            </tbody>
-        </table>
+                                <tr class="row${status.count % 2}">
+                                    <td class="report_name"><c:out value="${report.employeeName}" /></td>
+                                    <td class="report_date"><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
+                                    <td class="report_title">${report.title}</td>
+                                    <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細を見る</a></td>
+                                </tr>
+                            </c:forEach>
+                        </tbody>
+                    </table>
 
-        <div id="pagination">
-            （全 ${reports_count} 件）<br />
-            <c:forEach var="i" begin="1" end="${((reports_count - 1) / maxRow) + 1}" step="1">
-                <c:choose>
-                    <c:when test="${i == page}">
-                        <c:out value="${i}" />&nbsp;
-                    </c:when>
-                    <c:otherwise>
-                        <a href="<c:url value='?action=${actRep}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                    </c:otherwise>
-                </c:choose>
-            </c:forEach>
-        </div>
+                    <div id="pagination">
+                        （全 ${reports_count} 件）<br />
+                        <c:if test="${prevCursor != null}">
+                            <a href="<c:url value='?action=${actRep}&command=${commIdx}&cursor=${prevCursor}' />">&lt;&lt; 前へ</a>&nbsp;
+                        </c:if>
+                        <c:if test="${nextCursor != null}">
+                            <a href="<c:url value='?action=${actRep}&command=${commIdx}&cursor=${nextCursor}' />">次へ &gt;&gt;</a>&nbsp;
+                        </c:if>
+                    </div>
+                </c:set>
+                ${reportListFragment.store(renderedList)}
+            </c:otherwise>
+        </c:choose>
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commRange}' />">期間を指定して表示（先週の日報）</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commImp}' />">日報の一括登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commExp}' />">日報の出力</a></p>
 
     </c:param>
 </c:import>
\ No newline at end of file
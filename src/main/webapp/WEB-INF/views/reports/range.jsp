@@ -0,0 +1,95 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+<c:set var="commRange" value="${ForwardConst.CMD_RANGE.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${errors != null}">
+            <div id="flush_error">
+                入力内容にエラーがあります。<br>
+                <c:forEach var="error" items="${errors}">
+                    ・<c:out value="${error}" /><br>
+                </c:forEach>
+            </div>
+        </c:if>
+        <h2>日報　期間指定一覧<c:if test="${employee != null}">（<c:out value="${employee.name}" />）</c:if></h2>
+
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commRange}" />
+            <c:if test="${employee != null}">
+                <input type="hidden" name="${AttributeConst.REP_EMP_ID.getValue()}" value="${employee.id}" />
+            </c:if>
+            <input type="date" name="${AttributeConst.REP_DATE_FROM.getValue()}" value="<c:out value='${date_from}' />" />
+            ～
+            <input type="date" name="${AttributeConst.REP_DATE_TO.getValue()}" value="<c:out value='${date_to}' />" />
+            <button type="submit">表示</button>
+        </form>
+
+        <c:if test="${reports != null}">
+            <table id="report_list">
+                <tbody>
+                    <tr>
+                        <th class="report_name">氏名</th>
+                        <th class="report_date">日付</th>
+                        <th class="report_title">タイトル</th>
+                        <th class="report_action">操作</th>
+                    </tr>
+                    <c:forEach var="report" items="${reports}" varStatus="status">
+                        <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
+
+                        <tr class="row${status.count % 2}">
+                            <td class="report_name"><c:out value="${report.employeeName}" /></td>
+                            <td class="report_date"><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
+                            <td class="report_title"><c:out value="${report.title}" /></td>
+                            <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細を見る</a></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+
+            <div id="pagination">
+                （全 ${reports_count} 件）<br />
+                <c:if test="${prevCursor != null}">
+                    <c:url var="pageUrl" value="/">
+                        <c:param name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+                        <c:param name="${ForwardConst.CMD.getValue()}" value="${commRange}" />
+                        <c:param name="${AttributeConst.REP_DATE_FROM.getValue()}" value="${date_from}" />
+                        <c:param name="${AttributeConst.REP_DATE_TO.getValue()}" value="${date_to}" />
+                        <c:if test="${employee != null}">
+                            <c:param name="${AttributeConst.REP_EMP_ID.getValue()}" value="${employee.id}" />
+                        </c:if>
+                        <c:param name="${AttributeConst.CURSOR.getValue()}" value="${prevCursor}" />
+                    </c:url>
+                    <a href="${pageUrl}">&lt;&lt; 前へ</a>&nbsp;
+                </c:if>
+                <c:if test="${nextCursor != null}">
+                    <c:url var="pageUrl" value="/">
+                        <c:param name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+                        <c:param name="${ForwardConst.CMD.getValue()}" value="${commRange}" />
+                        <c:param name="${AttributeConst.REP_DATE_FROM.getValue()}" value="${date_from}" />
+                        <c:param name="${AttributeConst.REP_DATE_TO.getValue()}" value="${date_to}" />
+                        <c:if test="${employee != null}">
+                            <c:param name="${AttributeConst.REP_EMP_ID.getValue()}" value="${employee.id}" />
+                        </c:if>
+                        <c:param name="${AttributeConst.CURSOR.getValue()}" value="${nextCursor}" />
+                    </c:url>
+                    <a href="${pageUrl}">次へ &gt;&gt;</a>&nbsp;
+                </c:if>
+            </div>
+        </c:if>
+
+        <c:if test="${employee != null}">
+            <p><a href="<c:url value='?action=${actRep}&command=${commCal}&employee_id=${employee.id}' />">この従業員の日報カレンダー</a></p>
+        </c:if>
+        <p><a href="<c:url value='?action=${actRep}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
@@ -0,0 +1,74 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.ForwardConst" %>
+<%@ page import="constants.AttributeConst" %>
+
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
+<c:set var="commSearch" value="${ForwardConst.CMD_SEARCH.getValue()}" />
+
+<c:import url="/WEB-INF/views/layout/app.jsp">
+    <c:param name="content">
+        <h2>日報　検索</h2>
+
+        <form method="GET" action="<c:url value='/' />">
+            <input type="hidden" name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+            <input type="hidden" name="${ForwardConst.CMD.getValue()}" value="${commSearch}" />
+            <input type="text" name="${AttributeConst.SEARCH_QUERY.getValue()}" value="<c:out value='${q}' />" />
+            <button type="submit">検索</button>
+        </form>
+
+        <c:if test="${!searchReady}">
+            <p>検索の準備中です。しばらくしてから再度検索してください。</p>
+        </c:if>
+
+        <c:if test="${reports != null}">
+            <table id="report_list">
+                <tbody>
+                    <tr>
+                        <th class="report_name">氏名</th>
+                        <th class="report_date">日付</th>
+                        <th class="report_title">タイトル</th>
+                        <th class="report_action">操作</th>
+                    </tr>
+                    <c:forEach var="report" items="${reports}" varStatus="status">
+                        <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
+
+                        <tr class="row${status.count % 2}">
+                            <td class="report_name"><c:out value="${report.employeeName}" /></td>
+                            <td class="report_date"><fmt:formatDate value='${reportDay}' pattern='yyyy-MM-dd' /></td>
+                            <td class="report_title"><c:out value="${report.title}" /></td>
+                            <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細を見る</a></td>
+                        </tr>
+                    </c:forEach>
+                </tbody>
+            </table>
+
+            <div id="pagination">
+                （全 ${reports_count} 件）<br />
+                <c:if test="${reports_count > 0}">
+                    <c:forEach var="i" begin="1" end="${((reports_count - 1) / maxRow) + 1}" step="1">
+                        <c:choose>
+                            <c:when test="${i == page}">
+                                <c:out value="${i}" />&nbsp;
+                            </c:when>
+                            <c:otherwise>
+                                <c:url var="pageUrl" value="/">
+                                    <c:param name="${ForwardConst.ACT.getValue()}" value="${actRep}" />
+                                    <c:param name="${ForwardConst.CMD.getValue()}" value="${commSearch}" />
+                                    <c:param name="${AttributeConst.SEARCH_QUERY.getValue()}" value="${q}" />
+                                    <c:param name="${AttributeConst.PAGE.getValue()}" value="${i}" />
+                                </c:url>
+                                <a href="${pageUrl}"><c:out value="${i}" /></a>&nbsp;
+                            </c:otherwise>
+                        </c:choose>
+                    </c:forEach>
+                </c:if>
+            </div>
+        </c:if>
+
+        <p><a href="<c:url value='?action=${actRep}&command=${commIdx}' />">一覧に戻る</a></p>
+    </c:param>
+</c:import>
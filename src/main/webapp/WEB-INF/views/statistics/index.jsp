@@ -0,0 +1,79 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ taglib prefix="fmt" uri="http://java.sun.com/jsp/jstl/fmt" %>
+<%@ page import="constants.AttributeConst" %>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="actStat" value="${ForwardConst.ACT_STAT.getValue()}" />
+<c:set var="actRep" value="${ForwardConst.ACT_REP.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+<c:set var="commRebuild" value="${ForwardConst.CMD_REBUILD.getValue()}" />
+<c:set var="commRange" value="${ForwardConst.CMD_RANGE.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
+<c:set var="commQueries" value="${ForwardConst.CMD_QUERIES.getValue()}" />
+
+<c:import url="../layout/app.jsp">
+    <c:param name="content">
+        <c:if test="${flush != null}">
+            <div id="flush_success">
+                <c:out value="${flush}" />
+            </div>
+        </c:if>
+        <h2>日報　提出状況（${month.year}年${month.monthValue}月）</h2>
+
+        <p>
+            <a href="<c:url value='?action=${actStat}&command=${commIdx}&month=${month.minusMonths(1)}' />">&lt;&lt; 前月</a>&nbsp;
+            <a href="<c:url value='?action=${actStat}&command=${commIdx}&month=${month.plusMonths(1)}' />">翌月 &gt;&gt;</a>
+        </p>
+        <p>日報の件数：${statTotal} 件</p>
+
+        <h3>従業員ごとの件数</h3>
+        <table id="employee_stat_list">
+            <tbody>
+                <tr>
+                    <th>社員番号</th>
+                    <th>氏名</th>
+                    <th>件数</th>
+                    <th>提出日数</th>
+                    <th>最終更新日時</th>
+                </tr>
+                <c:forEach var="stat" items="${employeeStats}" varStatus="status">
+                    <fmt:parseDate value="${stat.lastUpdated}" pattern="yyyy-MM-dd'T'HH:mm:ss" var="lastUpdated" type="date" />
+                    <tr class="row${status.count % 2}">
+                        <td><c:out value="${stat.employeeCode}" /></td>
+                        <td><a href="<c:url value='?action=${actRep}&command=${commCal}&employee_id=${stat.employeeId}&month=${month}' />"><c:out value="${stat.employeeName}" /></a></td>
+                        <td>${stat.reportCount}</td>
+                        <td>${stat.reportDays}</td>
+                        <td><fmt:formatDate value="${lastUpdated}" pattern="yyyy-MM-dd HH:mm:ss" /></td>
+                    </tr>
+                </c:forEach>
+            </tbody>
+        </table>
+
+        <h3>日ごとの件数</h3>
+        <table id="daily_stat_list">
+            <tbody>
+                <tr>
+                    <th>日付</th>
+                    <th>件数</th>
+                    <th>提出した従業員数</th>
+                </tr>
+                <c:forEach var="stat" items="${dailyStats}" varStatus="status">
+                    <tr class="row${status.count % 2}">
+                        <td><a href="<c:url value='?action=${actRep}&command=${commRange}&date_from=${stat.reportDate}&date_to=${stat.reportDate}' />">${stat.reportDate}</a></td>
+                        <td>${stat.reportCount}</td>
+                        <td>${stat.employeeCount}</td>
+                    </tr>
+                </c:forEach>
+            </tbody>
+        </table>
+
+        <form method="POST" action="<c:url value='?action=${actStat}&command=${commRebuild}' />">
+            <input type="hidden" name="${AttributeConst.TOKEN.getValue()}" value="${_token}" />
+            <p>件数が日報と一致しない場合は、日報から集計し直してください。</p>
+            <button type="submit">再集計する</button>
+        </form>
+
+        <p><a href="<c:url value='?action=${actStat}&command=${commQueries}' />">クエリの実行統計</a></p>
+    </c:param>
+</c:import>
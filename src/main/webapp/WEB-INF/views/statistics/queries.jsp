@@ -0,0 +1,120 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<%@ page import="constants.ForwardConst" %>
+
+<c:set var="actStat" value="${ForwardConst.ACT_STAT.getValue()}" />
+<c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
+
+<c:import url="../layout/app.jsp">
+    <c:param name="content">
+        <h2>クエリの実行統計</h2>
+        <p>起動後の名前付きクエリごとの実行時間（マイクロ秒）と行数です。実行時間の合計の多い順に表示しています。</p>
+        <p>${slowThreshold} ミリ秒以上かかったクエリは遅いクエリのログに出力されます（パラメータの値は出力しません）。</p>
+
+        <table id="query_stat_list">
+            <tbody>
+                <tr>
+                    <th>クエリ名</th>
+                    <th>回数</th>
+                    <th>平均</th>
+                    <th>50%</th>
+                    <th>90%</th>
+                    <th>99%</th>
+                    <th>最大</th>
+                    <th>行数（平均）</th>
+                    <th>行数（最大）</th>
+                    <th>遅い</th>
+                    <th>エラー</th>
+                </tr>
+                <c:forEach var="stat" items="${queryStats}" varStatus="status">
+                    <tr class="row${status.count % 2}">
+                        <td><c:out value="${stat.name}" /></td>
+                        <td>${stat.count}</td>
+                        <td>${stat.meanMicros}</td>
+                        <td>${stat.p50Micros}</td>
+                        <td>${stat.p90Micros}</td>
+                        <td>${stat.p99Micros}</td>
+                        <td>${stat.maxMicros}</td>
+                        <td>${stat.meanRows}</td>
+                        <td>${stat.maxRows}</td>
+                        <td>${stat.slowCount}</td>
+                        <td>${stat.errors}</td>
+                    </tr>
+                </c:forEach>
+            </tbody>
+        </table>
+
+        <h3>レスポンスの圧縮</h3>
+        <p>起動後にgzip圧縮したレスポンスの件数・圧縮率と、1件あたりの圧縮にかかったCPU時間（マイクロ秒）です。</p>
+        <table id="compression_stat">
+            <tbody>
+                <tr>
+                    <th>圧縮</th>
+                    <th>閾値未満</th>
+                    <th>対象外</th>
+                    <th>圧縮前（バイト）</th>
+                    <th>圧縮後（バイト）</th>
+                    <th>圧縮率</th>
+                    <th>CPU時間（平均）</th>
+                    <th>CPU時間（99%）</th>
+                    <th>CPU時間（最大）</th>
+                </tr>
+                <tr class="row1">
+                    <td>${compressionStats.compressed}</td>
+                    <td>${compressionStats.belowThreshold}</td>
+                    <td>${compressionStats.skippedType}</td>
+                    <td>${compressionStats.originalBytes}</td>
+                    <td>${compressionStats.compressedBytes}</td>
+                    <td>${compressionStats.ratioPercent}%</td>
+                    <td>${compressionStats.meanCpuMicros}</td>
+                    <td>${compressionStats.p99CpuMicros}</td>
+                    <td>${compressionStats.maxCpuMicros}</td>
+                </tr>
+            </tbody>
+        </table>
+
+        <h3>EntityManagerの使用状況</h3>
+        <p>起動後にリクエストで使用したEntityManagerの件数と、使用中のもののうち最も長く使用しているものの時間（ミリ秒）です。未完了のままロールバックしたトランザクションはサーバーのログにも出力します。</p>
+        <table id="entity_manager_stat">
+            <tbody>
+                <tr>
+                    <th>クローズ済み</th>
+                    <th>使用中</th>
+                    <th>使用中（最長）</th>
+                    <th>未完了のトランザクション</th>
+                </tr>
+                <tr class="row1">
+                    <td>${entityManagerStats.closed}</td>
+                    <td>${entityManagerStats.open}</td>
+                    <td>${entityManagerStats.oldestOpenMillis}</td>
+                    <td>${entityManagerStats.leakedTransactions}</td>
+                </tr>
+            </tbody>
+        </table>
+
+        <h3>DB接続の保持時間</h3>
+        <p>プライマリDBのコネクションプールから接続を取得してから返却するまでの時間（ミリ秒）です。${poolStats.longHeldMillis}ミリ秒以上保持した接続はサーバーのログにも出力します。</p>
+        <table id="pool_stat">
+            <tbody>
+                <tr>
+                    <th>取得回数</th>
+                    <th>使用中</th>
+                    <th>長時間保持</th>
+                    <th>保持時間（平均）</th>
+                    <th>保持時間（99%）</th>
+                    <th>保持時間（最大）</th>
+                </tr>
+                <tr class="row1">
+                    <td>${poolStats.acquireCount}</td>
+                    <td>${poolStats.active}</td>
+                    <td>${poolStats.longHeld}</td>
+                    <td>${poolStats.meanHeldMillis}</td>
+                    <td>${poolStats.p99HeldMillis}</td>
+                    <td>${poolStats.maxHeldMillis}</td>
+                </tr>
+            </tbody>
+        </table>
+
+        <p><a href="<c:url value='?action=${actStat}&command=${commIdx}' />">日報統計に戻る</a></p>
+    </c:param>
+</c:import>
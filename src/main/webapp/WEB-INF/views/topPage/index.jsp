@@ -10,6 +10,7 @@
 <c:set var="commShow" value="${ForwardConst.CMD_SHOW.getValue()}" />
 <c:set var="commIdx" value="${ForwardConst.CMD_INDEX.getValue()}" />
 <c:set var="commNew" value="${ForwardConst.CMD_NEW.getValue()}" />
+<c:set var="commCal" value="${ForwardConst.CMD_CALENDAR.getValue()}" />
 
 <c:import url="../layout/app.jsp">
     <c:param name="content">
@@ -31,7 +32,7 @@
                 <c:forEach var="report" items="${reports}" varStatus="status">
                     <fmt:parseDate value="${report.reportDate}" pattern="yyyy-MM-dd" var="reportDay" type="date" />
                     <tr class="row${status.count % 2}">
-                        <td class="report_name"><c:out value="${report.employee.name}" /></td>
+                        <td class="report_name"><c:out value="${report.employeeName}" /></td>
                         <td class="report_date"><fmt:formatDate value="${reportDay}" pattern="yyyy-MM-dd" /></td>
                         <td class="report_title"><c:out value="${report.title}" /></td>
                         <td class="report_action"><a href="<c:url value='?action=${actRep}&command=${commShow}&id=${report.id}' />">詳細をみる</a></td>
@@ -42,18 +43,15 @@
 
         <div id="pagination">
         （全 ${reports_count} 件）<br>
-        <c:forEach var="i" begin="1" end="${((reports_count - 1) / maxRow) + 1}" step="1">
-            <c:choose>
-                <c:when test="${i == page}">
-                    <c:out value="${i}" />&nbsp;
-                </c:when>
-                <c:otherwise>
-                    <a href="<c:url value='?action=${actTop}&command=${commIdx}&page=${i}' />"><c:out value="${i}" /></a>&nbsp;
-                </c:otherwise>
-            </c:choose>
-        </c:forEach>
+        <c:if test="${prevCursor != null}">
+            <a href="<c:url value='?action=${actTop}&command=${commIdx}&cursor=${prevCursor}' />">&lt;&lt; 前へ</a>&nbsp;
+        </c:if>
+        <c:if test="${nextCursor != null}">
+            <a href="<c:url value='?action=${actTop}&command=${commIdx}&cursor=${nextCursor}' />">次へ &gt;&gt;</a>&nbsp;
+        </c:if>
         </div>
 
         <p><a href="<c:url value='?action=${actRep}&command=${commNew}' />">新規日報の登録</a></p>
+        <p><a href="<c:url value='?action=${actRep}&command=${commCal}' />">自分の日報カレンダー</a></p>
     </c:param>
 </c:import>
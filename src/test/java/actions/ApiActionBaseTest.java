@@ -0,0 +1,154 @@
+package actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.EmployeeView;
+import constants.AttributeConst;
+import constants.MessageConst;
+import utils.ApiJsonWriter;
+import utils.ServletStubs;
+
+/*
+ * APIのリクエストの本文（JSON）の読み込み、tokenの確認、パラメータfieldsによる項目の選択を確認する
+ */
+public class ApiActionBaseTest {
+
+    private static final String JSON = "application/json; charset=UTF-8";
+
+    private HttpSession session;
+    private Map<String, String> parameters;
+    private Map<String, String> headers;
+    private ByteArrayOutputStream body;
+
+    @BeforeEach
+    public void setUp() {
+        session = ServletStubs.session(new HashMap<>());
+        parameters = new HashMap<>();
+        headers = new HashMap<>();
+        headers.put("X-CSRF-Token", session.getId());
+        body = new ByteArrayOutputStream();
+    }
+
+    @Test
+    public void readsScalarValuesAsStrings() throws Exception {
+        TestAction action = action(JSON,
+                "{\"title\": \"日報\", \"admin_flag\": 1, \"id\": true, \"content\": null,"
+                        + " \"code\": {\"title\": \"inner\", \"name\": [1, {\"password\": \"x\"}]},"
+                        + " \"name\": [\"a\", \"b\"], \"report_date\": \"2024-04-01\"}");
+
+        assertTrue(action.checkWrite());
+        assertEquals("日報", action.getBodyParam(AttributeConst.REP_TITLE));
+        assertEquals("2024-04-01", action.getBodyParam(AttributeConst.REP_DATE));
+        assertNull(action.getBodyParam(AttributeConst.REP_CONTENT));
+        assertEquals("1", action.getBodyParam(AttributeConst.EMP_ADMIN_FLG));
+        assertEquals("true", action.getBodyParam(AttributeConst.EMP_ID));
+
+        // 配列・オブジェクトの項目は読み飛ばし、その中の同名の項目で上書きしない
+        assertNull(action.getBodyParam(AttributeConst.EMP_CODE));
+        assertNull(action.getBodyParam(AttributeConst.EMP_NAME));
+        assertNull(action.getBodyParam(AttributeConst.EMP_PASS));
+    }
+
+    @Test
+    public void acceptsTokenInBody() throws Exception {
+        headers.clear();
+        TestAction action = action(JSON, "{\"_token\": \"" + session.getId() + "\", \"title\": \"t\"}");
+
+        assertTrue(action.checkWrite());
+        assertEquals("t", action.getBodyParam(AttributeConst.REP_TITLE));
+    }
+
+    @Test
+    public void rejectsNonObjectBody() throws Exception {
+        for (String json : new String[] { "[{\"title\": \"t\"}]", "\"title\"", "", "{\"title\": " }) {
+            body.reset();
+            TestAction action = action(JSON, json);
+
+            assertFalse(action.checkWrite(), json);
+            assertEquals(HttpServletResponse.SC_BAD_REQUEST, action.status(), json);
+            assertTrue(responseBody().contains(MessageConst.E_API_BODY.getMessage()), json);
+        }
+    }
+
+    @Test
+    public void rejectsMissingToken() throws Exception {
+        headers.clear();
+        TestAction action = action(JSON, "{\"title\": \"t\"}");
+
+        assertFalse(action.checkWrite());
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, action.status());
+    }
+
+    @Test
+    public void readsParametersWhenBodyIsNotJson() throws Exception {
+        parameters.put(AttributeConst.REP_TITLE.getValue(), "from parameter");
+        TestAction action = action("application/x-www-form-urlencoded", "title=ignored");
+
+        assertTrue(action.checkWrite());
+        assertEquals("from parameter", action.getBodyParam(AttributeConst.REP_TITLE));
+    }
+
+    @Test
+    public void selectsRequestedFields() throws Exception {
+        parameters.put(AttributeConst.API_FIELDS.getValue(), "name,id");
+        TestAction action = action(JSON, "{}");
+
+        ApiJsonWriter.Fields<EmployeeView> fields = action.selectFields(ApiJsonWriter.EMPLOYEE);
+        assertNotNull(fields);
+        assertEquals(HttpServletResponse.SC_OK, action.status());
+    }
+
+    @Test
+    public void rejectsUnknownField() throws Exception {
+        parameters.put(AttributeConst.API_FIELDS.getValue(), "id,password");
+        TestAction action = action(JSON, "{}");
+
+        assertNull(action.selectFields(ApiJsonWriter.EMPLOYEE));
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, action.status());
+        assertTrue(responseBody().contains(MessageConst.E_API_FIELDS.getMessage() + "password"));
+    }
+
+    private TestAction action(String contentType, String json) {
+        return new TestAction(ServletStubs.request(session, parameters, headers, contentType,
+                json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String responseBody() {
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /*
+     * 本文の読み込みと項目の選択のみを使用するActionクラス
+     */
+    private class TestAction extends ApiActionBase {
+        private final HttpServletResponse res = ServletStubs.response(body, new HashMap<>());
+
+        TestAction(HttpServletRequest req) {
+            init(ServletStubs.context(new HashMap<>()), req, res);
+        }
+
+        int status() {
+            return res.getStatus();
+        }
+
+        @Override
+        public void process() {
+        }
+    }
+}
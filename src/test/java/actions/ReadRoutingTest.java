@@ -0,0 +1,176 @@
+package actions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import constants.AttributeConst;
+import services.ReportService;
+import utils.RequestEntityManager;
+import utils.ServletStubs;
+import utils.TestDatabase;
+
+/*
+ * 読み込み先の振り分けを、プライマリとレプリカの2つの組み込みDBで確認する
+ * 同じidの日報のタイトルをDBごとに変えておき、取得したタイトルで読み込み先を判定する
+ */
+public class ReadRoutingTest {
+
+    private static final String PRIMARY_TITLE = "from primary";
+    private static final String REPLICA_TITLE = "from replica";
+
+    private int employeeId;
+    private Map<String, Object> session;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        TestDatabase.start(true);
+        employeeId = TestDatabase.insertEmployee(TestDatabase.PRIMARY, "E001");
+        TestDatabase.insertEmployee(TestDatabase.REPLICA, "E001");
+        TestDatabase.insertReports(TestDatabase.PRIMARY, employeeId, PRIMARY_TITLE, 1);
+        TestDatabase.insertReports(TestDatabase.REPLICA, employeeId, REPLICA_TITLE, 1);
+        session = new HashMap<>();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    public void getRequestReadsListCountAndShowFromReplica() throws Exception {
+        // レプリカのみ件数を変えておく
+        TestDatabase.insertReports(TestDatabase.REPLICA, employeeId, REPLICA_TITLE, 1);
+
+        ReportService service = routedService("GET");
+        try {
+            assertEquals(REPLICA_TITLE, service.getAllPerCursor(null).getItems().get(0).getTitle());
+            assertEquals(2, service.countByDateRange(LocalDate.now(), LocalDate.now(), null));
+            assertEquals(REPLICA_TITLE, service.findOne(1).getTitle());
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    public void replicaOnlyRequestDoesNotOpenPrimary() throws Exception {
+        RequestEntityManager scope = new RequestEntityManager("GET /test");
+        RequestEntityManager previous = RequestEntityManager.bind(scope);
+        try {
+            TestDatabase.statistics().clear();
+            ReportService service = routedService("GET");
+            assertEquals(REPLICA_TITLE, service.findOne(1).getTitle());
+            service.close();
+
+            // プライマリのEntityManagerは使用するまで生成しない
+            assertEquals(0, TestDatabase.statistics().getSessionOpenCount());
+        } finally {
+            RequestEntityManager.bind(previous);
+            scope.close();
+        }
+    }
+
+    @Test
+    public void postRequestReadsFromPrimary() throws Exception {
+        ReportService service = routedService("POST");
+        try {
+            assertEquals(PRIMARY_TITLE, service.getAllPerCursor(null).getItems().get(0).getTitle());
+            assertEquals(PRIMARY_TITLE, service.findOne(1).getTitle());
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    public void writeGoesToPrimaryAndStartsReadYourWritesWindow() throws Exception {
+        TestAction action = new TestAction("GET");
+        ReportService service = new ReportService();
+        try {
+            action.routeReads(service);
+            assertEquals(REPLICA_TITLE, service.findOne(1).getTitle());
+
+            ReportView rv = new ReportView();
+            EmployeeView employee = new EmployeeView();
+            employee.setId(employeeId);
+            rv.setEmployee(employee);
+            rv.setReportDate(LocalDate.now());
+            rv.setTitle("written");
+            rv.setContent("content");
+            assertTrue(service.create(rv).isEmpty());
+
+            assertEquals(2, countReports(TestDatabase.PRIMARY));
+            assertEquals(1, countReports(TestDatabase.REPLICA));
+
+            // 書き込んだサービスの以降の読み込みはプライマリから行う
+            assertEquals("written", service.findOne(rv.getId()).getTitle());
+
+            action.recordWrites(service);
+            assertNotNull(session.get(AttributeConst.READ_PRIMARY_UNTIL.getValue()));
+        } finally {
+            service.close();
+        }
+
+        // リダイレクト先のリクエストはプライマリから読み込む
+        ReportService redirected = routedService("GET");
+        try {
+            assertEquals(PRIMARY_TITLE, redirected.findOne(1).getTitle());
+            assertEquals("written", redirected.getAllPerCursor(null).getItems().get(0).getTitle());
+        } finally {
+            redirected.close();
+        }
+    }
+
+    @Test
+    public void readsReturnToReplicaAfterWindow() throws Exception {
+        session.put(AttributeConst.READ_PRIMARY_UNTIL.getValue(), System.currentTimeMillis() - 1);
+
+        ReportService service = routedService("GET");
+        try {
+            assertEquals(REPLICA_TITLE, service.findOne(1).getTitle());
+        } finally {
+            service.close();
+        }
+    }
+
+    private ReportService routedService(String method) {
+        ReportService service = new ReportService();
+        new TestAction(method).routeReads(service);
+        return service;
+    }
+
+    private long countReports(String db) throws SQLException {
+        try (Connection conn = TestDatabase.connect(db);
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM reports")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /*
+     * 指定したメソッドのリクエストを処理するActionクラス（読み込み先の振り分けのみ使用する）
+     */
+    private class TestAction extends ActionBase {
+        TestAction(String method) {
+            init(ServletStubs.context(new HashMap<>()), ServletStubs.request(method, ServletStubs.session(session)), null);
+        }
+
+        @Override
+        public void process() {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package actions.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import constants.AttributeConst;
+
+/*
+ * バイナリ形式・Javaの直列化（SerializedForm）での復元、不正な形式・未対応のバージョンの拒否、
+ * セッションに保持する大きさを確認する
+ */
+public class LoginPrincipalTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 4, 1, 9, 30, 15);
+    private static final long VALIDATED_AT = 1711931415000L;
+
+    @Test
+    public void roundTripsThroughBytes() {
+        LoginPrincipal principal = sample();
+        LoginPrincipal restored = LoginPrincipal.fromBytes(principal.toBytes());
+
+        assertSameFields(principal, restored);
+        assertTrue(restored.isCurrent(UPDATED_AT));
+        assertFalse(restored.isCurrent(UPDATED_AT.plusSeconds(1)));
+        assertTrue(restored.isAdmin());
+    }
+
+    @Test
+    public void roundTripsThroughJavaSerialization() throws Exception {
+        LoginPrincipal principal = sample();
+        Object restored = deserialize(serialize(principal));
+
+        assertTrue(restored instanceof LoginPrincipal);
+        assertNotSame(principal, restored);
+        assertSameFields(principal, (LoginPrincipal) restored);
+    }
+
+    @Test
+    public void rejectsUnknownVersion() {
+        byte[] bytes = sample().toBytes();
+        bytes[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> LoginPrincipal.fromBytes(bytes));
+
+        bytes[0] = 0;
+        assertThrows(IllegalArgumentException.class, () -> LoginPrincipal.fromBytes(bytes));
+    }
+
+    @Test
+    public void rejectsMalformedBytes() {
+        byte[] bytes = sample().toBytes();
+        assertThrows(IllegalArgumentException.class, () -> LoginPrincipal.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> LoginPrincipal.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    @Test
+    public void rejectsUnknownVersionInSerializedForm() throws Exception {
+        byte[] serialized = serialize(sample());
+        byte[] form = sample().toBytes();
+
+        // SerializedFormに格納されたバイナリ形式のバージョンを書き換える
+        int offset = indexOf(serialized, form);
+        assertTrue(offset > 0);
+        serialized[offset] = 2;
+
+        assertThrows(InvalidObjectException.class, () -> deserialize(serialized));
+    }
+
+    @Test
+    public void keepsSessionStateSmall() throws Exception {
+        LoginPrincipal principal = sample();
+
+        // バージョン(1) id(4) 権限(1) 更新日時(8) 照合時刻(8) 社員番号・氏名(各2+修正UTF-8の長さ)
+        int expected = 1 + 4 + 1 + 8 + 8
+                + 2 + "E0001".getBytes(StandardCharsets.UTF_8).length
+                + 2 + "山田 太郎".getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(44, expected);
+        assertEquals(expected, principal.toBytes().length);
+
+        // Javaの直列化でもクラスの記述子とバイナリ形式のみとなる
+        byte[] serialized = serialize(principal);
+        assertEquals(144, serialized.length);
+        assertEquals(-1, indexOf(serialized, "password".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static LoginPrincipal sample() {
+        EmployeeView ev = new EmployeeView(12, "E0001", "山田 太郎", "0123456789abcdef0123456789abcdef",
+                AttributeConst.ROLE_ADMIN.getIntegerValue(), UPDATED_AT.minusDays(30), UPDATED_AT,
+                AttributeConst.DEL_FLAG_FALSE.getIntegerValue());
+        return LoginPrincipal.of(ev, VALIDATED_AT);
+    }
+
+    private static void assertSameFields(LoginPrincipal expected, LoginPrincipal actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCode(), actual.getCode());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getAdminFlag(), actual.getAdminFlag());
+        assertEquals(expected.getEmployeeUpdatedAt(), actual.getEmployeeUpdatedAt());
+        assertEquals(expected.getValidatedAt(), actual.getValidatedAt());
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        for (int i = 0; i + target.length <= data.length; i++) {
+            if (Arrays.equals(data, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,184 @@
+package controllers;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import javax.servlet.ServletException;
+
+import actions.ActionBase;
+import actions.UnknownAction;
+
+/*
+ * パラメータaction・commandからActionクラスを生成・実行する処理の所要時間を比較するベンチマーク
+ *   リフレクション: Class.forName + getDeclaredConstructor().newInstance() + getDeclaredMethod + Method.invoke（RouteTable導入前の方法）
+ *   RouteTable    : RouteTable.newAction + MethodHandle.invokeExact
+ * 有効な経路と、存在しないaction・commandの経路のそれぞれで計測する
+ * 実際のcommandはリクエスト・DBを必要とするため、メソッドの呼び出しは何もしないActionクラスで計測する
+ *
+ * JUnitのテストではないため、mvn testでは実行しない。次のコマンドで実行する
+ *   mvn -B test-compile exec:java -Dexec.mainClass=controllers.RouteTableBenchmark -Dexec.classpathScope=test
+ * 引数で計測の回数を変更できる（ウォームアップの回数 計測の回数 1回あたりの呼び出し数）
+ */
+public class RouteTableBenchmark {
+
+    // Actionクラスのパッケージとクラス名の形式（RouteTableと同じ）
+    private static final String ACTION_CLASS_FORMAT = "actions.%sAction";
+
+    // 計測する経路（action, command）
+    private static final String[][] VALID_ROUTES = {
+            { "Top", "index" }, { "Report", "index" }, { "Report", "show" }, { "Employee", "index" }, { "Auth", "showLogin" } };
+    private static final String[][] UNKNOWN_ROUTES = {
+            { "Missing", "index" }, { "Report", "missing" }, { null, null } };
+
+    private static final int DEFAULT_WARMUP_ROUNDS = 5;
+    private static final int DEFAULT_MEASURE_ROUNDS = 10;
+    private static final int DEFAULT_OPERATIONS = 200000;
+
+    // 計測結果をJITに除去させないための値
+    private static volatile int sink;
+
+    public static void main(String[] args) throws Throwable {
+        int warmup = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WARMUP_ROUNDS;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MEASURE_ROUNDS;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_OPERATIONS;
+
+        RouteTable table = RouteTable.build();
+        checkSameRoutes(table);
+
+        NoopAction target = new NoopAction();
+        Method method = NoopAction.class.getDeclaredMethod("noop");
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+                .asType(MethodType.methodType(void.class, ActionBase.class));
+
+        System.out.printf("java %s, warmup %d, rounds %d, operations %d%n",
+                System.getProperty("java.version"), warmup, rounds, operations);
+        System.out.printf("%-28s %12s %12s%n", "", "reflection", "RouteTable");
+
+        report("resolve valid routes", warmup, rounds, operations,
+                n -> resolveByReflection(VALID_ROUTES, n), n -> resolveByTable(table, VALID_ROUTES, n));
+        report("resolve unknown routes", warmup, rounds, operations,
+                n -> resolveByReflection(UNKNOWN_ROUTES, n), n -> resolveByTable(table, UNKNOWN_ROUTES, n));
+        report("invoke command", warmup, rounds, operations,
+                n -> invokeByReflection(method, target, n), n -> invokeByHandle(handle, target, n));
+    }
+
+    /*
+     * 両方の方法で同じActionクラスが生成されることを確認する（一致しない場合は計測しない）
+     */
+    private static void checkSameRoutes(RouteTable table) {
+        for (String[][] routes : new String[][][] { VALID_ROUTES, UNKNOWN_ROUTES }) {
+            for (String[] route : routes) {
+                Class<?> expected = resolve(route[0], route[1]).getClass();
+                Class<?> actual = table.newAction(route[0], route[1]).getClass();
+                if (expected != actual) {
+                    throw new IllegalStateException(Arrays.toString(route) + ": " + expected + " != " + actual);
+                }
+            }
+        }
+    }
+
+    /*
+     * ウォームアップ後に計測を繰り返し、1回あたりの時間（ナノ秒）の中央値を出力する
+     */
+    private static void report(String name, int warmup, int rounds, int operations, Operation reflection,
+            Operation table) throws Throwable {
+        for (int i = 0; i < warmup; i++) {
+            reflection.run(operations);
+            table.run(operations);
+        }
+        double[] reflectionNanos = new double[rounds];
+        double[] tableNanos = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            reflectionNanos[i] = measure(reflection, operations);
+            tableNanos[i] = measure(table, operations);
+        }
+        System.out.printf("%-28s %9.1f ns %9.1f ns%n", name, median(reflectionNanos), median(tableNanos));
+    }
+
+    private static double measure(Operation operation, int operations) throws Throwable {
+        long start = System.nanoTime();
+        operation.run(operations);
+        return (double) (System.nanoTime() - start) / operations;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void resolveByReflection(String[][] routes, int operations) {
+        int hash = 0;
+        for (int i = 0; i < operations; i++) {
+            String[] route = routes[i % routes.length];
+            hash += resolve(route[0], route[1]).hashCode();
+        }
+        sink = hash;
+    }
+
+    private static void resolveByTable(RouteTable table, String[][] routes, int operations) {
+        int hash = 0;
+        for (int i = 0; i < operations; i++) {
+            String[] route = routes[i % routes.length];
+            hash += table.newAction(route[0], route[1]).hashCode();
+        }
+        sink = hash;
+    }
+
+    private static void invokeByReflection(Method method, NoopAction target, int operations)
+            throws IllegalAccessException, InvocationTargetException {
+        for (int i = 0; i < operations; i++) {
+            method.invoke(target);
+        }
+        sink = target.count;
+    }
+
+    private static void invokeByHandle(MethodHandle handle, NoopAction target, int operations) throws Throwable {
+        for (int i = 0; i < operations; i++) {
+            handle.invokeExact((ActionBase) target);
+        }
+        sink = target.count;
+    }
+
+    /*
+     * RouteTable導入前のFrontController・ActionBaseと同じ方法でActionクラスを生成し、commandのメソッドを検索する
+     * 該当しない場合は例外を捕捉してUnknownActionとする
+     */
+    private static ActionBase resolve(String action, String command) {
+        try {
+            Class<?> type = Class.forName(String.format(ACTION_CLASS_FORMAT, action));
+            ActionBase instance = type.asSubclass(ActionBase.class).getDeclaredConstructor().newInstance();
+            type.getDeclaredMethod(command);
+            return instance;
+        } catch (ReflectiveOperationException | ClassCastException | NullPointerException e) {
+            return new UnknownAction();
+        }
+    }
+
+    /*
+     * 計測する処理（指定回数繰り返す）
+     */
+    private interface Operation {
+        void run(int operations) throws Throwable;
+    }
+
+    /*
+     * 何もしないcommandを持つActionクラス（メソッドの呼び出しのみを計測する）
+     */
+    public static class NoopAction extends ActionBase {
+        private int count;
+
+        @Override
+        public void process() throws ServletException, IOException {
+        }
+
+        public void noop() {
+            count++;
+        }
+    }
+}
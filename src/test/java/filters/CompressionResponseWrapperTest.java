@@ -0,0 +1,183 @@
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import javax.servlet.ServletOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import utils.ServletStubs;
+
+/*
+ * 手書きしたgzipのヘッダー・トレーラー（CRC32・ISIZE）と、プールから使い回したDeflaterで圧縮した本文を
+ * GZIPInputStreamで復元できることを確認する
+ */
+public class CompressionResponseWrapperTest {
+
+    private static final int MIN_SIZE = 1024;
+
+    // gzipのヘッダーの長さ（フラグなし）
+    private static final int GZIP_HEADER_LENGTH = 10;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final Map<String, String> headers = new HashMap<>();
+
+    @Test
+    public void compressesChunksWithFlushesInBetween() throws Exception {
+        CompressionResponseWrapper wrapper = wrapper(6);
+        ServletOutputStream out = wrapper.getOutputStream();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        // 閾値に達する前のflushBufferでは送信しない
+        write(out, written, text("before threshold ", 20));
+        wrapper.flushBuffer();
+        assertEquals(0, body.size());
+
+        // 閾値に達した時点で圧縮を開始し、flushBufferでそれまでの本文を復元できる状態で送信する
+        write(out, written, text("crossing threshold ", 80));
+        wrapper.flushBuffer();
+        assertEquals("gzip", headers.get("content-encoding"));
+        assertArrayEquals(written.toByteArray(), inflateFlushed(body.toByteArray()));
+
+        write(out, written, text("after flush ", 500));
+        wrapper.flushBuffer();
+        wrapper.flushBuffer();
+        assertArrayEquals(written.toByteArray(), inflateFlushed(body.toByteArray()));
+
+        // 圧縮しにくい本文で、出力用のバッファより大きな圧縮結果を書き出す
+        byte[] random = new byte[100000];
+        new Random(1).nextBytes(random);
+        write(out, written, random);
+        out.write('!');
+        written.write('!');
+
+        wrapper.finish();
+        assertArrayEquals(written.toByteArray(), gunzip(body.toByteArray()));
+        assertFalse(headers.containsKey("content-length"));
+    }
+
+    @Test
+    public void compressesWriterOutput() throws Exception {
+        CompressionResponseWrapper wrapper = wrapper(6);
+        PrintWriter writer = wrapper.getWriter();
+        String expected = text("日報の内容 ", 300);
+
+        writer.print(expected.substring(0, 100));
+        wrapper.flushBuffer();
+        writer.print(expected.substring(100));
+        wrapper.flushBuffer();
+        wrapper.finish();
+
+        assertEquals(expected, new String(gunzip(body.toByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void reusesPooledDeflater() throws Exception {
+        // 1件目の圧縮を完了し、Deflaterをプールに返却させる
+        byte[] first = text("first response ", 200).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(first, compressWhole(first, 9));
+
+        // 圧縮の途中で本文を破棄したレスポンスのDeflaterも返却される
+        CompressionResponseWrapper discarded = wrapper(6);
+        discarded.getOutputStream().write(text("discarded ", 200).getBytes(StandardCharsets.UTF_8));
+        discarded.resetBuffer();
+        byte[] afterReset = text("after reset ", 150).getBytes(StandardCharsets.UTF_8);
+        discarded.getOutputStream().write(afterReset);
+        discarded.finish();
+        assertArrayEquals(afterReset, gunzip(body.toByteArray()));
+
+        // 使い回したDeflaterで、異なる圧縮レベル・内容のレスポンスを圧縮する
+        for (int level = 1; level <= 9; level++) {
+            byte[] content = text("response " + level + " ", 100 * level).getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(content, compressWhole(content, level));
+        }
+    }
+
+    @Test
+    public void passesSmallBodyThrough() throws Exception {
+        CompressionResponseWrapper wrapper = wrapper(6);
+        byte[] content = "small".getBytes(StandardCharsets.UTF_8);
+        wrapper.setContentLength(content.length);
+        wrapper.getOutputStream().write(content);
+        wrapper.finish();
+
+        assertArrayEquals(content, body.toByteArray());
+        assertFalse(headers.containsKey("content-encoding"));
+        assertEquals(String.valueOf(content.length), headers.get("content-length"));
+    }
+
+    private CompressionResponseWrapper wrapper(int level) {
+        body.reset();
+        headers.clear();
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(ServletStubs.response(body, headers), MIN_SIZE, level);
+        wrapper.setContentType("text/html; charset=UTF-8");
+        return wrapper;
+    }
+
+    private byte[] compressWhole(byte[] content, int level) throws IOException {
+        CompressionResponseWrapper wrapper = wrapper(level);
+        ServletOutputStream out = wrapper.getOutputStream();
+        for (int off = 0; off < content.length; off += 700) {
+            out.write(content, off, Math.min(700, content.length - off));
+        }
+        wrapper.finish();
+        return gunzip(body.toByteArray());
+    }
+
+    private static void write(ServletOutputStream out, ByteArrayOutputStream written, String s) throws IOException {
+        write(out, written, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(ServletOutputStream out, ByteArrayOutputStream written, byte[] b) throws IOException {
+        out.write(b);
+        written.write(b);
+    }
+
+    private static String text(String s, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(s).append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /*
+     * 圧縮途中の本文（ヘッダーとSYNC_FLUSHまでの圧縮結果）を復元する
+     */
+    private static byte[] inflateFlushed(byte[] gzip) throws Exception {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(Arrays.copyOfRange(gzip, GZIP_HEADER_LENGTH, gzip.length));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = inflater.inflate(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.CursorPage;
+import actions.views.EmployeeView;
+import actions.views.ReportSummaryView;
+import constants.JpaConst;
+import utils.TestDatabase;
+
+/*
+ * 日報の一覧の取得で発行するSQLの件数が、1ページの行数によらず一定であることを確認する
+ * 一覧画面の世代が、他のサーバーが行った更新（DBの更新日時）に追従すること、
+ * 取得し直す間隔の間は前回の世代を使用し、このサーバーでの変更の後は取得し直すことを確認する
+ * 期間指定の一覧を日報日付・idのカーソルで前後に辿ると、日報日付・idの降順の全件と一致することを確認する
+ */
+public class ReportServiceTest {
+
+    private int employeeId;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        TestDatabase.start(false);
+        employeeId = TestDatabase.insertEmployee(TestDatabase.PRIMARY, "E001");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    public void getAllPerCursorIssuesSameStatementsForAnyPageSize() throws Exception {
+        // 1ページの日報をすべて別の従業員が作成したものとし、従業員を1件ずつ読み込むとSQLの件数が増えるようにする
+        List<Integer> employeeIds = new ArrayList<>();
+        employeeIds.add(employeeId);
+        for (int i = 2; i <= JpaConst.ROW_PER_PAGE; i++) {
+            employeeIds.add(TestDatabase.insertEmployee(TestDatabase.PRIMARY, String.format("E%03d", i)));
+        }
+        assertStatementsIndependentOfRows(service -> service.getAllPerCursor(null), employeeIds);
+    }
+
+    @Test
+    public void getMinePerCursorIssuesSameStatementsForAnyPageSize() throws Exception {
+        EmployeeView employee = new EmployeeView();
+        employee.setId(employeeId);
+        assertStatementsIndependentOfRows(service -> service.getMinePerCursor(employee, null), List.of(employeeId));
+    }
+
+    @Test
+    public void getByDateRangePerCursorWalksAllPagesInBothDirections() throws Exception {
+        int otherId = TestDatabase.insertEmployee(TestDatabase.PRIMARY, "E002");
+        LocalDate from = LocalDate.of(2024, 4, 1);
+        LocalDate to = from.plusDays(5);
+
+        // 同じ日付の日報が複数ページにまたがり、idの順と日報日付の順が一致しないように登録する
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY);
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO reports"
+                        + " (employee_id, report_date, title, content, created_at, updated_at)"
+                        + " VALUES (?, ?, 'title', 'content', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")) {
+            for (int i = 0; i < JpaConst.ROW_PER_PAGE * 5; i++) {
+                ps.setInt(1, i % 3 == 0 ? otherId : employeeId);
+                ps.setObject(2, from.minusDays(1).plusDays(i * 5 % 8));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        EmployeeView employee = new EmployeeView();
+        employee.setId(employeeId);
+        assertWalksAllPages(from, to, null, expectedIds(from, to, ""));
+        assertWalksAllPages(from, to, employee, expectedIds(from, to, " AND employee_id = " + employeeId));
+
+        // 不正なカーソルは先頭ページとして扱う
+        ReportService service = new ReportService();
+        try {
+            for (String cursor : new String[] { "!", "YQ", "YTIwMjQtMDQtMDE", "YXg" }) {
+                CursorPage<ReportSummaryView> page = service.getByDateRangePerCursor(from, to, null, cursor);
+                assertEquals(expectedIds(from, to, "").subList(0, JpaConst.ROW_PER_PAGE), ids(page), cursor);
+                assertNull(page.getPrevCursor(), cursor);
+            }
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    public void listGenerationFollowsUpdatesMadeOutsideThisServer() throws Exception {
+        TestDatabase.insertReports(TestDatabase.PRIMARY, employeeId, "title", 1);
+        long before = listGeneration();
+
+        // 他のサーバーでの日報の更新（このサーバーのサービスを経由しない）
+        LocalDateTime reportUpdated = LocalDateTime.now().plusHours(1).withNano(0);
+        setUpdatedAt("reports", reportUpdated);
+        assertEquals(toMillis(reportUpdated), listGeneration());
+
+        // 他のサーバーでの従業員の更新（一覧画面には氏名を表示する）
+        LocalDateTime employeeUpdated = reportUpdated.plusHours(1);
+        setUpdatedAt("employees", employeeUpdated);
+        assertEquals(toMillis(employeeUpdated), listGeneration());
+
+        assertTrue(before < toMillis(reportUpdated));
+    }
+
+    /*
+     * 次ページのカーソルで最後のページまで辿り、前ページのカーソルで先頭まで戻る
+     */
+    private void assertWalksAllPages(LocalDate from, LocalDate to, EmployeeView employee, List<Integer> expected) {
+        ReportService service = new ReportService();
+        try {
+            List<List<Integer>> pages = new ArrayList<>();
+            CursorPage<ReportSummaryView> page = service.getByDateRangePerCursor(from, to, employee, null);
+            assertNull(page.getPrevCursor());
+            pages.add(ids(page));
+            while (page.getNextCursor() != null) {
+                page = service.getByDateRangePerCursor(from, to, employee, page.getNextCursor());
+                pages.add(ids(page));
+            }
+            assertEquals(expected, pages.stream().flatMap(List::stream).collect(Collectors.toList()));
+            assertTrue(pages.size() > 2);
+
+            List<List<Integer>> backward = new ArrayList<>();
+            backward.add(ids(page));
+            while (page.getPrevCursor() != null) {
+                page = service.getByDateRangePerCursor(from, to, employee, page.getPrevCursor());
+                backward.add(ids(page));
+            }
+            Collections.reverse(backward);
+            assertEquals(pages, backward);
+        } finally {
+            service.close();
+        }
+    }
+
+    private static List<Integer> expectedIds(LocalDate from, LocalDate to, String condition) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY);
+                PreparedStatement ps = conn.prepareStatement("SELECT id FROM reports WHERE report_date BETWEEN ? AND ?"
+                        + condition + " ORDER BY report_date DESC, id DESC")) {
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> ids(CursorPage<ReportSummaryView> page) {
+        return page.getItems().stream().map(ReportSummaryView::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void listGenerationIsReusedUntilRefreshOrLocalChange() throws Exception {
+        TestDatabase.insertReports(TestDatabase.PRIMARY, employeeId, "title", 1);
+        long before = listGeneration();
+
+        // 他のサーバーでの更新は、間隔の間は前回取得した世代のままとなる
+        LocalDateTime reportUpdated = LocalDateTime.now().plusHours(1).withNano(0);
+        setUpdatedAt("reports", reportUpdated);
+        assertEquals(before, listGeneration(60000));
+        assertEquals(toMillis(reportUpdated), listGeneration());
+
+        // このサーバーでの変更の後は間隔によらず取得し直す
+        LocalDateTime laterUpdate = reportUpdated.plusHours(1);
+        setUpdatedAt("reports", laterUpdate);
+        ReportService.listChanged();
+        assertEquals(toMillis(laterUpdate), listGeneration(60000));
+
+        // 更新日時が変わらない変更（同じ秒の変更）でも、このサーバーでの変更の後は世代が変わる
+        setUpdatedAt("reports", LocalDateTime.now().minusHours(1).withNano(0));
+        ReportService.listChanged();
+        long changed = listGeneration(60000);
+        ReportService.listChanged();
+        assertTrue(listGeneration(60000) > changed);
+    }
+
+    private long listGeneration() {
+        return listGeneration(0);
+    }
+
+    private long listGeneration(long refreshMillis) {
+        ReportService service = new ReportService();
+        try {
+            return service.getListGeneration(refreshMillis);
+        } finally {
+            service.close();
+        }
+    }
+
+    private void setUpdatedAt(String table, LocalDateTime updatedAt) throws Exception {
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY);
+                PreparedStatement ps = conn.prepareStatement("UPDATE " + table + " SET updated_at = ?")) {
+            ps.setObject(1, updatedAt);
+            ps.executeUpdate();
+        }
+    }
+
+    private static long toMillis(LocalDateTime ldt) {
+        return ldt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /*
+     * 1件だけのページと、1ページ分（ROW_PER_PAGE件）のページで発行したSQLの件数を比較する
+     * 1ページ分の日報は、指定した従業員が順に作成したものとする
+     */
+    private void assertStatementsIndependentOfRows(Function<ReportService, CursorPage<ReportSummaryView>> list,
+            List<Integer> employeeIds) throws Exception {
+        TestDatabase.insertReports(TestDatabase.PRIMARY, employeeIds.get(0), "title", 1);
+        long single = countStatements(list, 1, 1);
+
+        for (int i = 1; i < JpaConst.ROW_PER_PAGE; i++) {
+            TestDatabase.insertReports(TestDatabase.PRIMARY, employeeIds.get(i % employeeIds.size()), "title", 1);
+        }
+        long full = countStatements(list, JpaConst.ROW_PER_PAGE, employeeIds.size());
+
+        assertEquals(1, single);
+        assertEquals(single, full);
+    }
+
+    private long countStatements(Function<ReportService, CursorPage<ReportSummaryView>> list, int expectedRows,
+            long expectedEmployees) {
+        ReportService service = new ReportService();
+        try {
+            TestDatabase.statistics().clear();
+            CursorPage<ReportSummaryView> page = list.apply(service);
+            assertEquals(expectedRows, page.getItems().size());
+            page.getItems().forEach(summary -> summary.getEmployeeName());
+            assertEquals(expectedEmployees, page.getItems().stream()
+                    .map(ReportSummaryView::getEmployeeId).distinct().count());
+            return TestDatabase.statistics().getPrepareStatementCount();
+        } finally {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.EmployeeView;
+import actions.views.ReportView;
+import utils.DBUtil;
+import utils.TestDatabase;
+
+/*
+ * 日報の登録と並行してDBからの集計を繰り返しても、保持している件数がDBの件数と一致することを確認する
+ */
+public class RowCountersTest {
+
+    private static final int WRITERS = 4;
+    private static final int REPORTS_PER_WRITER = 30;
+
+    private final List<EmployeeView> employees = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        TestDatabase.start(false);
+        for (int i = 1; i <= WRITERS; i++) {
+            String code = String.format("E%03d", i);
+            EmployeeView ev = new EmployeeView();
+            ev.setId(TestDatabase.insertEmployee(TestDatabase.PRIMARY, code));
+            ev.setCode(code);
+            employees.add(ev);
+        }
+        rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    public void countsStayExactWhileRebuilding() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // 登録が終わるまで集計を繰り返す
+            Future<?> rebuilder = pool.submit(() -> {
+                while (writing.get()) {
+                    rebuild();
+                }
+            });
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (EmployeeView employee : employees) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < REPORTS_PER_WRITER; i++) {
+                        create(employee);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            rebuilder.get(60, TimeUnit.SECONDS);
+        } finally {
+            writing.set(false);
+            pool.shutdownNow();
+        }
+
+        assertEquals(WRITERS * REPORTS_PER_WRITER, count("SELECT COUNT(*) FROM reports"));
+        assertEquals(WRITERS * REPORTS_PER_WRITER, RowCounters.getReportCount());
+        for (EmployeeView employee : employees) {
+            assertEquals(REPORTS_PER_WRITER, RowCounters.getReportCount(employee.getId()));
+        }
+    }
+
+    private static void rebuild() {
+        EntityManager em = DBUtil.createEntityManager();
+        try {
+            RowCounters.rebuild(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void create(EmployeeView employee) {
+        ReportView rv = new ReportView();
+        rv.setEmployee(employee);
+        rv.setReportDate(LocalDate.of(2024, 4, 1));
+        rv.setTitle("title");
+        rv.setContent("content");
+
+        ReportService service = new ReportService();
+        try {
+            assertEquals(List.of(), service.create(rv));
+        } finally {
+            service.close();
+        }
+    }
+
+    private static long count(String sql) throws Exception {
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY);
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
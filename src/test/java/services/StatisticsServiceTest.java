@@ -0,0 +1,169 @@
+package services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import actions.views.EmployeeView;
+import actions.views.ReportImportResult;
+import actions.views.ReportImportRow;
+import actions.views.ReportView;
+import utils.TestDatabase;
+
+/*
+ * 日報の登録・一括登録・日報日付の変更と同じトランザクションで更新した集計テーブルと、
+ * 月ごとに並列に行う再集計の結果が、日報テーブルをGROUP BYで集計した件数と一致することを確認する
+ */
+public class StatisticsServiceTest {
+
+    private static final LocalDate JAN_31 = LocalDate.of(2024, 1, 31);
+    private static final LocalDate FEB_01 = LocalDate.of(2024, 2, 1);
+    private static final LocalDate FEB_15 = LocalDate.of(2024, 2, 15);
+    private static final LocalDate MAR_10 = LocalDate.of(2024, 3, 10);
+
+    private EmployeeView alice;
+    private EmployeeView bob;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        TestDatabase.start(false);
+        alice = employee(TestDatabase.insertEmployee(TestDatabase.PRIMARY, "E001"), "E001");
+        bob = employee(TestDatabase.insertEmployee(TestDatabase.PRIMARY, "E002"), "E002");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    public void summaryFollowsCreateImportAndDateChange() throws Exception {
+        ReportView moved = create(alice, JAN_31);
+        create(alice, JAN_31);
+        ReportView lonely = create(bob, FEB_01);
+        create(bob, FEB_15);
+
+        // 一括登録（同じ従業員・日付の行は1行にまとめて加算する）
+        ReportService service = new ReportService();
+        try {
+            ReportImportResult result = service.importReports(List.of(
+                    row(1, "E001", FEB_15),
+                    row(2, "E001", FEB_15),
+                    row(3, "E002", MAR_10),
+                    row(4, "E999", MAR_10)), alice, true);
+            assertEquals(3, result.getImported());
+        } finally {
+            service.close();
+        }
+        assertEquals(countReports(), countSummary());
+
+        // 既存の行がある日付へ移す・件数が0になる行を削除する・新しい日付へ移す
+        changeDate(moved, FEB_15);
+        changeDate(lonely, MAR_10);
+        changeDate(create(alice, MAR_10), LocalDate.of(2024, 4, 1));
+
+        Map<String, Integer> expected = countReports();
+        assertEquals(expected, countSummary());
+        assertEquals(3, expected.get(key(alice, FEB_15)));
+        assertFalse(expected.containsKey(key(bob, FEB_01)));
+    }
+
+    @Test
+    public void rebuildRestoresSummaryFromReports() throws Exception {
+        create(alice, JAN_31);
+        create(alice, FEB_15);
+        create(bob, FEB_15);
+        create(bob, MAR_10);
+        create(bob, LocalDate.of(2024, 6, 30));
+
+        // 集計テーブルをずらしておく（行の欠落・件数の誤り・日報のない日付の行）
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY); Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM report_daily_stats WHERE report_date = '2024-01-31'");
+            st.executeUpdate("UPDATE report_daily_stats SET report_count = 7 WHERE report_date = '2024-02-15'");
+            st.executeUpdate("INSERT INTO report_daily_stats (employee_id, report_date, report_count, last_updated)"
+                    + " VALUES (" + alice.getId() + ", '2023-12-01', 3, CURRENT_TIMESTAMP)");
+        }
+        assertNotEquals(countReports(), countSummary());
+
+        StatisticsService service = new StatisticsService();
+        try {
+            assertEquals(6, service.rebuild());
+        } finally {
+            service.close();
+        }
+        assertEquals(countReports(), countSummary());
+    }
+
+    private ReportView create(EmployeeView employee, LocalDate date) {
+        ReportView rv = new ReportView();
+        rv.setEmployee(employee);
+        rv.setReportDate(date);
+        rv.setTitle("title");
+        rv.setContent("content");
+
+        ReportService service = new ReportService();
+        try {
+            assertEquals(List.of(), service.create(rv));
+        } finally {
+            service.close();
+        }
+        return rv;
+    }
+
+    private void changeDate(ReportView rv, LocalDate date) {
+        rv.setReportDate(date);
+        ReportService service = new ReportService();
+        try {
+            assertEquals(List.of(), service.update(rv));
+        } finally {
+            service.close();
+        }
+    }
+
+    private static ReportImportRow row(int line, String code, LocalDate date) {
+        return new ReportImportRow(line, code, date.toString(), "imported", "content", null);
+    }
+
+    private static EmployeeView employee(int id, String code) {
+        EmployeeView ev = new EmployeeView();
+        ev.setId(id);
+        ev.setCode(code);
+        return ev;
+    }
+
+    private static String key(EmployeeView employee, LocalDate date) {
+        return employee.getId() + "/" + date;
+    }
+
+    private static Map<String, Integer> countReports() throws Exception {
+        return query("SELECT employee_id, report_date, COUNT(*) FROM reports GROUP BY employee_id, report_date");
+    }
+
+    private static Map<String, Integer> countSummary() throws Exception {
+        return query("SELECT employee_id, report_date, report_count FROM report_daily_stats");
+    }
+
+    private static Map<String, Integer> query(String sql) throws Exception {
+        Map<String, Integer> counts = new TreeMap<>();
+        try (Connection conn = TestDatabase.connect(TestDatabase.PRIMARY);
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.put(rs.getInt(1) + "/" + rs.getDate(2).toLocalDate(), rs.getInt(3));
+            }
+        }
+        return counts;
+    }
+}
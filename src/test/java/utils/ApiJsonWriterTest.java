@@ -0,0 +1,86 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import actions.views.CursorPage;
+import actions.views.EmployeeView;
+
+/*
+ * 項目の選択（パラメータfields）と、従業員のパスワードを書き出さないことを確認する
+ */
+public class ApiJsonWriterTest {
+
+    private static final String PASSWORD_HASH = "0123456789abcdef0123456789abcdef";
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 4, 1, 9, 0);
+
+    @Test
+    public void writesAllFieldsWhenNoneSelected() throws IOException {
+        assertSame(ApiJsonWriter.EMPLOYEE, ApiJsonWriter.EMPLOYEE.select(null));
+        assertSame(ApiJsonWriter.EMPLOYEE, ApiJsonWriter.EMPLOYEE.select(" "));
+
+        assertEquals("{\"id\":1,\"code\":\"E001\",\"name\":\"山田\",\"adminFlag\":0,\"deleteFlag\":0,"
+                + "\"createdAt\":\"2024-04-01T09:00\",\"updatedAt\":null}",
+                write(employee(), ApiJsonWriter.EMPLOYEE));
+    }
+
+    @Test
+    public void writesSelectedFieldsInDefinitionOrder() throws IOException {
+        assertEquals("{\"id\":1,\"name\":\"山田\"}",
+                write(employee(), ApiJsonWriter.EMPLOYEE.select("name, id ,name")));
+    }
+
+    @Test
+    public void rejectsUnknownField() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ApiJsonWriter.EMPLOYEE.select("id,unknown"));
+        assertEquals("unknown", e.getMessage());
+    }
+
+    @Test
+    public void neverWritesPassword() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> ApiJsonWriter.EMPLOYEE.select("password"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ApiJsonWriter writer = new ApiJsonWriter(out)) {
+            writer.writePage(new CursorPage<>(List.of(employee(), employee()), "n", null), 2, ApiJsonWriter.EMPLOYEE);
+        }
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains(PASSWORD_HASH));
+    }
+
+    @Test
+    public void writesPage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ApiJsonWriter writer = new ApiJsonWriter(out)) {
+            writer.writePage(new CursorPage<>(List.of(employee()), "next", null), 10,
+                    ApiJsonWriter.EMPLOYEE.select("id"));
+        }
+        assertEquals("{\"items\":[{\"id\":1}],\"count\":10,\"nextCursor\":\"next\",\"prevCursor\":null}",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static EmployeeView employee() {
+        return new EmployeeView(1, "E001", "山田", PASSWORD_HASH, 0, CREATED_AT, null, 0);
+    }
+
+    private static <T> String write(T item, ApiJsonWriter.Fields<T> fields) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ApiJsonWriter writer = new ApiJsonWriter(out)) {
+            writer.writeObject(item, fields);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * 全角・半角の正規化、日本語のバイグラムへの分割、英数字との混在を確認する
+ */
+public class BigramTokenizerTest {
+
+    @Test
+    public void returnsNoTokensForNullOrEmpty() {
+        assertTrue(BigramTokenizer.tokenize(null).isEmpty());
+        assertTrue(BigramTokenizer.tokenize("").isEmpty());
+        assertTrue(BigramTokenizer.tokenize("、。 !?").isEmpty());
+    }
+
+    @Test
+    public void foldsWidthAndCase() {
+        assertEquals(List.of("abc123"), BigramTokenizer.tokenize("ＡＢＣ１２３"));
+        assertEquals(List.of("abc123"), BigramTokenizer.tokenize("Abc123"));
+
+        // 半角カタカナは全角にしてから分割する
+        assertEquals(List.of("ニッ", "ッポ", "ポン"), BigramTokenizer.tokenize("ﾆｯﾎﾟﾝ"));
+        assertEquals(BigramTokenizer.tokenize("ニッポン"), BigramTokenizer.tokenize("ﾆｯﾎﾟﾝ"));
+    }
+
+    @Test
+    public void splitsJapaneseIntoBigrams() {
+        assertEquals(List.of("日報", "報作", "作成"), BigramTokenizer.tokenize("日報作成"));
+
+        // 記号で区切られた並びは別々に分割する
+        assertEquals(List.of("日報", "作成"), BigramTokenizer.tokenize("日報、作成"));
+
+        // 長音記号と踊り字は日本語の文字として扱う
+        assertEquals(List.of("サー", "ーバ", "バー"), BigramTokenizer.tokenize("サーバー"));
+        assertEquals(List.of("人々"), BigramTokenizer.tokenize("人々"));
+    }
+
+    @Test
+    public void keepsSingleJapaneseCharacter() {
+        assertEquals(List.of("日"), BigramTokenizer.tokenize("日"));
+        assertEquals(List.of("a", "日", "b"), BigramTokenizer.tokenize("a 日 b"));
+    }
+
+    @Test
+    public void separatesJapaneseFromLatin() {
+        assertEquals(List.of("java", "入門", "門講", "講座", "2024"), BigramTokenizer.tokenize("Java入門講座2024"));
+        assertEquals(List.of("db", "設計", "review"), BigramTokenizer.tokenize("DB設計 review"));
+    }
+
+    @Test
+    public void truncatesLongWords() {
+        String word = "a".repeat(100);
+        assertEquals(List.of("a".repeat(64)), BigramTokenizer.tokenize(word));
+    }
+}
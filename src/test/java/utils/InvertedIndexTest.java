@@ -0,0 +1,144 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * 検索語の一致条件、BM25とタイトルの重みによる順位、文書の置き換え、保存した索引の読み込みを確認する
+ */
+public class InvertedIndexTest {
+
+    // ReportSearchIndexと同じく、タイトルの語の重みを3とする
+    private static final int[] WEIGHTS = { 3, 1 };
+
+    @Test
+    public void matchesOnlyDocumentsContainingAllTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "週次会議", "予定の確認"));
+        index.put(2, doc(2, "週次会議", "議事録の作成"));
+
+        assertEquals(List.of(2), ids(index, "会議 議事録"));
+        assertEquals(List.of(), ids(index, "会議 存在しない"));
+        assertEquals(List.of(), ids(index, ""));
+    }
+
+    @Test
+    public void matchesSingleJapaneseCharacter() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "日報", "作成"));
+        index.put(2, doc(2, "週報", "提出"));
+        index.put(3, doc(3, "memo", "java"));
+
+        assertEquals(List.of(2, 1), ids(index, "報"));
+        assertEquals(List.of(1), ids(index, "日"));
+    }
+
+    @Test
+    public void ranksByTermFrequency() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "", "会議 メモ 予定 連絡"));
+        index.put(2, doc(2, "", "会議 会議 会議 メモ"));
+        index.put(3, doc(3, "", "予定 連絡 作業 報告"));
+
+        assertEquals(List.of(2, 1), ids(index, "会議"));
+    }
+
+    @Test
+    public void ranksTitleMatchesHigher() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "会議", "予定"));
+        index.put(2, doc(2, "予定", "会議"));
+        index.put(3, doc(3, "連絡", "報告"));
+
+        assertEquals(List.of(1, 2), ids(index, "会議"));
+        assertEquals(List.of(2, 1), ids(index, "予定"));
+    }
+
+    @Test
+    public void ordersTiesByIdDescending() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "会議", "予定"));
+        index.put(2, doc(2, "会議", "予定"));
+        index.put(3, doc(3, "連絡", "報告"));
+
+        assertEquals(List.of(2, 1), ids(index, "会議"));
+    }
+
+    @Test
+    public void replacesDocumentWithSameId() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(1, "会議", "予定"));
+        index.put(1, doc(5, "連絡", "報告"));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), ids(index, "会議"));
+        assertEquals(List.of(1), ids(index, "連絡"));
+        assertEquals(5, index.getMaxVersion());
+    }
+
+    @Test
+    public void putAllAddsEveryDocument() {
+        InvertedIndex index = new InvertedIndex();
+        assertEquals(Long.MIN_VALUE, index.getMaxVersion());
+
+        index.putAll(Map.of(1, doc(10, "会議", "予定"), 2, doc(20, "会議", "報告")));
+        assertEquals(2, index.size());
+        assertEquals(20, index.getMaxVersion());
+        assertEquals(List.of(2), ids(index, "報告"));
+    }
+
+    @Test
+    public void roundTripsThroughSnapshot() throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, doc(100, "週次会議", "予定の確認 Java"));
+        index.put(2, doc(200, "日報", "会議 会議 議事録"));
+        index.put(3, doc(150, "ﾃｽﾄ", "DB設計 review"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InvertedIndex restored = InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.getMaxVersion(), restored.getMaxVersion());
+        for (String query : new String[] { "会議", "java", "テスト", "設計 review", "日", "予定 会議" }) {
+            List<String> terms = BigramTokenizer.tokenize(query);
+            assertEquals(hits(index.search(terms)), hits(restored.search(terms)), query);
+        }
+        assertFalse(restored.search(BigramTokenizer.tokenize("会議")).isEmpty());
+    }
+
+    @Test
+    public void rejectsUnknownSnapshotFormat() {
+        byte[] bytes = { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0 };
+        assertThrows(IOException.class,
+                () -> InvertedIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+
+    private static InvertedIndex.Document doc(long version, String title, String content) {
+        return InvertedIndex.analyze(version, new String[] { title, content }, WEIGHTS);
+    }
+
+    private static List<Integer> ids(InvertedIndex index, String query) {
+        return index.search(BigramTokenizer.tokenize(query)).stream()
+                .map(InvertedIndex.Hit::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> hits(List<InvertedIndex.Hit> hits) {
+        return hits.stream()
+                .map(h -> h.getId() + ":" + h.getScore())
+                .collect(Collectors.toList());
+    }
+}
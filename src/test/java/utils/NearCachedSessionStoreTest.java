@@ -0,0 +1,64 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ * 2台のサーバーが同じディレクトリのセッションを使用する場合に、メモリに保持したセッションが
+ * 他方のサーバーでの保存・削除の後に古い内容のまま使用されないことを確認する
+ */
+public class NearCachedSessionStoreTest {
+
+    private static final String ID = "session-1";
+
+    // 保持する時間は確認の間に過ぎない長さとする
+    private static final long TTL_MILLIS = 60000;
+
+    @TempDir
+    Path dir;
+
+    private NearCachedSessionStore node1;
+    private NearCachedSessionStore node2;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        node1 = new NearCachedSessionStore(new FileSessionStore(dir), 100, TTL_MILLIS);
+        node2 = new NearCachedSessionStore(new FileSessionStore(dir), 100, TTL_MILLIS);
+    }
+
+    @Test
+    public void loadsSessionSavedByAnotherNode() throws Exception {
+        node1.save(session("old"));
+        assertValue("old", node1.load(ID));
+
+        node2.save(session("new"));
+        assertValue("new", node1.load(ID));
+    }
+
+    @Test
+    public void doesNotResurrectSessionDeletedByAnotherNode() throws Exception {
+        node1.save(session("old"));
+        assertValue("old", node1.load(ID));
+
+        node2.delete(ID);
+        assertNull(node1.load(ID));
+        assertNull(node2.load(ID));
+    }
+
+    private static SessionData session(String value) {
+        long now = System.currentTimeMillis();
+        return new SessionData(ID, now, now, 1800, Map.of("value", value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertValue(String expected, SessionData data) {
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), data.getAttributes().get("value"));
+    }
+}
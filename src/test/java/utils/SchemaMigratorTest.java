@@ -0,0 +1,67 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * 途中まで適用されたスクリプト（作成済みのインデックスがあり、履歴が記録されていない）を
+ * 次回の起動で最後まで適用できることを確認する
+ */
+public class SchemaMigratorTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:migration;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        conn.setAutoCommit(false);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    public void resumesPartiallyAppliedScript() throws Exception {
+        SchemaMigrator.migrate(conn);
+
+        // V2の1文目のみ適用された状態にする
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX idx_reports_report_date");
+            st.execute("DROP INDEX idx_employees_code_delete_flag");
+            st.execute("DELETE FROM schema_history WHERE version = 2");
+        }
+        conn.commit();
+
+        assertEquals(1, SchemaMigrator.migrate(conn));
+        assertTrue(hasIndex("REPORTS", "IDX_REPORTS_EMPLOYEE_ID_ID"));
+        assertTrue(hasIndex("REPORTS", "IDX_REPORTS_REPORT_DATE"));
+        assertTrue(hasIndex("EMPLOYEES", "IDX_EMPLOYEES_CODE_DELETE_FLAG"));
+
+        assertEquals(0, SchemaMigrator.migrate(conn));
+    }
+
+    private boolean hasIndex(String table, String index) throws Exception {
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/*
+ * テストで使用するサーブレットAPIの最小限の実装（属性の取得・設定、リクエストのメソッド・パラメータ・本文、レスポンスの本文・ヘッダーのみ）
+ * それ以外のメソッドを呼び出した場合はUnsupportedOperationExceptionとなる
+ */
+public class ServletStubs {
+
+    /*
+     * 属性を保持するだけのアプリケーションスコープ
+     */
+    public static ServletContext context(Map<String, Object> attributes) {
+        return stub(ServletContext.class, attributes, null, null);
+    }
+
+    /*
+     * 属性を保持するだけのセッション
+     */
+    public static HttpSession session(Map<String, Object> attributes) {
+        return stub(HttpSession.class, attributes, null, null);
+    }
+
+    /*
+     * 指定したメソッド・セッションのリクエスト
+     */
+    public static HttpServletRequest request(String method, HttpSession session) {
+        return stub(HttpServletRequest.class, new HashMap<>(), method, session);
+    }
+
+    /*
+     * 指定したパラメータ・ヘッダー・本文のPOSTリクエスト
+     */
+    public static HttpServletRequest request(HttpSession session, Map<String, String> parameters,
+            Map<String, String> headers, String contentType, byte[] body) {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(body);
+        ServletInputStream in = new ServletInputStream() {
+            @Override
+            public int read() {
+                return bytes.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return bytes.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return bytes.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException("setReadListener");
+            }
+        };
+
+        Map<String, Object> attributes = new HashMap<>();
+        HttpServletRequest base = request("POST", session);
+        Object proxy = Proxy.newProxyInstance(ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (self, m, args) -> {
+                    switch (m.getName()) {
+                    case "getParameter":
+                        return parameters.get(args[0]);
+                    case "getHeader":
+                        return headers.get(args[0]);
+                    case "getContentType":
+                        return contentType;
+                    case "getInputStream":
+                        return in;
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        return m.invoke(base, args);
+                    }
+                });
+        return (HttpServletRequest) proxy;
+    }
+
+    /*
+     * 状態コード200（setStatusで変更できる）・UTF-8で、本文を指定した出力先に書き込むレスポンス
+     * ヘッダーは名前を小文字にして指定したマップに保持する（同じ名前のヘッダーは最後の値のみ）
+     */
+    public static HttpServletResponse response(ByteArrayOutputStream body, Map<String, String> headers) {
+        String[] contentType = new String[1];
+        int[] status = { HttpServletResponse.SC_OK };
+        ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                throw new UnsupportedOperationException("setWriteListener");
+            }
+        };
+
+        Object proxy = Proxy.newProxyInstance(ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class },
+                (self, m, args) -> {
+                    switch (m.getName()) {
+                    case "getOutputStream":
+                        return out;
+                    case "getStatus":
+                        return status[0];
+                    case "setStatus":
+                        status[0] = (Integer) args[0];
+                        return null;
+                    case "isCommitted":
+                        return false;
+                    case "getCharacterEncoding":
+                        return "UTF-8";
+                    case "setContentType":
+                        contentType[0] = (String) args[0];
+                        return null;
+                    case "getContentType":
+                        return contentType[0];
+                    case "setHeader":
+                    case "addHeader":
+                        headers.put(((String) args[0]).toLowerCase(), (String) args[1]);
+                        return null;
+                    case "containsHeader":
+                        return headers.containsKey(((String) args[0]).toLowerCase());
+                    case "setContentLengthLong":
+                        headers.put("content-length", String.valueOf(args[0]));
+                        return null;
+                    case "flushBuffer":
+                        return null;
+                    case "resetBuffer":
+                        body.reset();
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    case "toString":
+                        return "HttpServletResponse" + headers;
+                    default:
+                        throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        return (HttpServletResponse) proxy;
+    }
+
+    private static <T> T stub(Class<T> type, Map<String, Object> attributes, String method, HttpSession session) {
+        Object proxy = Proxy.newProxyInstance(ServletStubs.class.getClassLoader(), new Class<?>[] { type },
+                (self, m, args) -> {
+                    switch (m.getName()) {
+                    case "getAttribute":
+                        return attributes.get(args[0]);
+                    case "setAttribute":
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    case "removeAttribute":
+                        attributes.remove(args[0]);
+                        return null;
+                    case "getAttributeNames":
+                        return Collections.enumeration(attributes.keySet());
+                    case "getMethod":
+                        return method;
+                    case "getSession":
+                        return session;
+                    case "getId":
+                        return "session-" + System.identityHashCode(self);
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    case "toString":
+                        return type.getSimpleName() + attributes;
+                    default:
+                        throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,133 @@
+package utils;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+
+/*
+ * テストで使用する組み込みDB（H2 MySQL互換モード）
+ * プライマリとレプリカを別のインメモリDBとして作成し、マイグレーションスクリプトでテーブルを作成する
+ */
+public class TestDatabase {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    /*
+     * EntityManagerFactoryを破棄し、組み込みDBに接続するよう設定する
+     *
+     * @param withReplica true: レプリカも作成する
+     */
+    public static void start(boolean withReplica) throws SQLException, IOException {
+        DBUtil.close();
+        migrate(PRIMARY);
+        Map<String, Object> replica = null;
+        if (withReplica) {
+            migrate(REPLICA);
+            replica = settings(REPLICA);
+        }
+        DBUtil.overrideSettings(settings(PRIMARY), replica);
+    }
+
+    /*
+     * EntityManagerFactoryを破棄し、組み込みDBを削除する
+     */
+    public static void stop() throws SQLException {
+        DBUtil.close();
+        for (String name : new String[] { PRIMARY, REPLICA }) {
+            try (Connection conn = connect(name); Statement st = conn.createStatement()) {
+                st.execute("DROP ALL OBJECTS");
+            }
+        }
+    }
+
+    /*
+     * 従業員を登録する
+     *
+     * @return 登録した従業員のid
+     */
+    public static int insertEmployee(String db, String code) throws SQLException {
+        try (Connection conn = connect(db);
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO employees"
+                        + " (code, name, password, admin_flag, created_at, updated_at, delete_flag)"
+                        + " VALUES (?, ?, 'x', 0, ?, ?, 0)", Statement.RETURN_GENERATED_KEYS)) {
+            LocalDateTime now = LocalDateTime.now();
+            ps.setString(1, code);
+            ps.setString(2, "name-" + code);
+            ps.setObject(3, now);
+            ps.setObject(4, now);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /*
+     * 日報を登録する
+     */
+    public static void insertReports(String db, int employeeId, String title, int count) throws SQLException {
+        try (Connection conn = connect(db);
+                PreparedStatement ps = conn.prepareStatement("INSERT INTO reports"
+                        + " (employee_id, report_date, title, content, created_at, updated_at)"
+                        + " VALUES (?, ?, ?, 'content', ?, ?)")) {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < count; i++) {
+                ps.setInt(1, employeeId);
+                ps.setObject(2, LocalDate.now());
+                ps.setString(3, title);
+                ps.setObject(4, now);
+                ps.setObject(5, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /*
+     * プライマリのSessionFactoryの統計情報を返却する（統計はtrueで生成している）
+     */
+    public static Statistics statistics() {
+        return DBUtil._getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public static Connection connect(String db) throws SQLException {
+        return DriverManager.getConnection(url(db), "sa", "");
+    }
+
+    private static void migrate(String db) throws SQLException, IOException {
+        try (Connection conn = connect(db)) {
+            conn.setAutoCommit(false);
+            SchemaMigrator.migrate(conn);
+        }
+    }
+
+    private static Map<String, Object> settings(String db) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put(AvailableSettings.JPA_JDBC_DRIVER, "org.h2.Driver");
+        settings.put(AvailableSettings.JPA_JDBC_URL, url(db));
+        settings.put(AvailableSettings.JPA_JDBC_USER, "sa");
+        settings.put(AvailableSettings.JPA_JDBC_PASSWORD, "");
+        settings.put(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        settings.put(AvailableSettings.GENERATE_STATISTICS, "true");
+        settings.put(AvailableSettings.LOG_SESSION_METRICS, "false");
+        return settings;
+    }
+
+    private static String url(String db) {
+        return "jdbc:h2:mem:" + db + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+    }
+}